@@ -0,0 +1,100 @@
+package geometries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorTriangleBatch class is the batch intersection test of triangles by the Vector API - the Moller-Trumbore
+ * test of {@link Triangle#closestDistance}, calculated for as many triangles at once as the preferred vectors of the
+ * CPU hold (4 with AVX2, 8 with AVX-512).<br>
+ * Every lane calculates the same operations in the same order as the scalar test, and the lanewise operations are
+ * rounded like the scalar ones, so every triangle gets exactly the distance of the scalar test. The checks of
+ * {@link primitives.Util#isZero(double)} are made by comparing with 2<sup>-40</sup>, which is the same check.<br>
+ * The class is loaded by {@link TriangleBatch#INSTANCE} only when the module {@code jdk.incubator.vector} is present.
+ */
+final class VectorTriangleBatch implements TriangleBatch {
+    /** The vectors of the CPU */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    /** The smallest number which isn't zero by {@link primitives.Util#isZero(double)} */
+    private static final double EPSILON = 0x1p-40;
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public int closest(double[] columns, int count, int first, int end, double ox, double oy, double oz,
+                       double dx, double dy, double dz, double maxDistance) {
+        int closest = -1;
+        double closestT = Double.POSITIVE_INFINITY;
+        for (int i = first; i < end; i += SPECIES.length()) {
+            VectorMask<Double> lanes = SPECIES.indexInRange(i, end);
+
+            // The ray is parallel or almost parallel to the triangle
+            DoubleVector nx = column(columns, count, 9, i, lanes), ny = column(columns, count, 10, i, lanes);
+            DoubleVector nz = column(columns, count, 11, i, lanes);
+            lanes = lanes.and(nx.mul(dx).add(ny.mul(dy)).add(nz.mul(dz)).abs().compare(VectorOperators.GE, EPSILON));
+            if (!lanes.anyTrue())
+                continue;
+            DoubleVector e1x = column(columns, count, 3, i, lanes), e1y = column(columns, count, 4, i, lanes);
+            DoubleVector e1z = column(columns, count, 5, i, lanes);
+            DoubleVector e2x = column(columns, count, 6, i, lanes), e2y = column(columns, count, 7, i, lanes);
+            DoubleVector e2z = column(columns, count, 8, i, lanes);
+
+            // p = direction x e2, det = e1 . p
+            DoubleVector px = e2z.mul(dy).sub(e2y.mul(dz));
+            DoubleVector py = e2x.mul(dz).sub(e2z.mul(dx));
+            DoubleVector pz = e2y.mul(dx).sub(e2x.mul(dy));
+            DoubleVector inverse = DoubleVector.broadcast(SPECIES, 1)
+                    .div(e1x.mul(px).add(e1y.mul(py)).add(e1z.mul(pz)));
+
+            // s = head - first vertex, u = s . p / det
+            DoubleVector sx = DoubleVector.broadcast(SPECIES, ox).sub(column(columns, count, 0, i, lanes));
+            DoubleVector sy = DoubleVector.broadcast(SPECIES, oy).sub(column(columns, count, 1, i, lanes));
+            DoubleVector sz = DoubleVector.broadcast(SPECIES, oz).sub(column(columns, count, 2, i, lanes));
+            DoubleVector u = sx.mul(px).add(sy.mul(py)).add(sz.mul(pz)).mul(inverse);
+
+            // q = s x e1, v = direction . q / det
+            DoubleVector qx = sy.mul(e1z).sub(sz.mul(e1y));
+            DoubleVector qy = sz.mul(e1x).sub(sx.mul(e1z));
+            DoubleVector qz = sx.mul(e1y).sub(sy.mul(e1x));
+            DoubleVector v = qx.mul(dx).add(qy.mul(dy)).add(qz.mul(dz)).mul(inverse);
+
+            // t = e2 . q / det, the point must be in the ray's direction and not farther than maxDistance
+            DoubleVector t = e2x.mul(qx).add(e2y.mul(qy)).add(e2z.mul(qz)).mul(inverse);
+            lanes = lanes.and(u.compare(VectorOperators.GT, 0))
+                    .and(v.compare(VectorOperators.GT, 0))
+                    .and(u.add(v).compare(VectorOperators.LT, 1))
+                    .and(t.compare(VectorOperators.GE, EPSILON))
+                    .and(t.sub(maxDistance).compare(VectorOperators.LT, EPSILON));
+            if (!lanes.anyTrue())
+                continue;
+
+            // the closest triangle of the lanes, the first one of the lanes at the same distance
+            DoubleVector hits = t.blend(Double.POSITIVE_INFINITY, lanes.not());
+            double min = hits.reduceLanes(VectorOperators.MIN);
+            if (min < closestT) {
+                closestT = min;
+                closest = i + hits.compare(VectorOperators.EQ, min).firstTrue();
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Loads a number of consecutive triangles into the lanes of a vector.
+     *
+     * @param columns The numbers of the triangles, in columns.
+     * @param count   The amount of triangles in the columns.
+     * @param column  The column of the number.
+     * @param first   The index of the first triangle.
+     * @param lanes   The lanes to load, the others are zero.
+     * @return The vector.
+     */
+    private static DoubleVector column(double[] columns, int count, int column, int first, VectorMask<Double> lanes) {
+        return DoubleVector.fromArray(SPECIES, columns, column * count + first, lanes);
+    }
+}
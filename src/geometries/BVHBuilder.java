@@ -0,0 +1,616 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The BVHBuilder class builds a bounding volume hierarchy (BVH) over bounded geometries.
+ * The hierarchy is a binary tree of {@link Geometries} nodes. Two splitting strategies are supported:
+ * <ul>
+ * <li>{@link Strategy#MEDIAN} - split at the median center along the longest axis</li>
+ * <li>{@link Strategy#SAH} - binned surface area heuristic, which minimizes the expected cost of a ray</li>
+ * </ul>
+ * The hierarchy may also be compacted into a {@link FlatBVH} of primitive arrays instead of a tree of objects,
+ * or built directly over raw bounding boxes for geometries which keep their own primitives, like a {@link TriangleMesh}.
+ * Large subtrees are built in parallel in a {@link ForkJoinPool}. Every task works on its own range of the
+ * geometries and the splits depend on the geometries only, so two builds of the same geometries always
+ * produce the same tree.<br>
+ * The scratch arrays of a build belong to the build alone, so a builder may run several builds at once, e.g. of
+ * a {@link TriangleMesh} and of a {@link Geometries} which share it, and keeps nothing of a build after it ends.
+ */
+public class BVHBuilder {
+    /**
+     * The strategy of splitting a node of the hierarchy.
+     */
+    public enum Strategy {
+        /** Split at the median center along the longest axis */
+        MEDIAN,
+        /** Split by the binned surface area heuristic */
+        SAH
+    }
+
+    /**
+     * The statistics of a build - the build time and the quality of the tree.
+     *
+     * @param strategy       The splitting strategy of the build.
+     * @param geometries     The amount of geometries in the tree.
+     * @param buildTimeNanos The build time in nanoseconds.
+     * @param nodes          The amount of inner nodes in the tree.
+     * @param leaves         The amount of leaves in the tree.
+     * @param depth          The depth of the tree.
+     * @param cost           The expected cost of a ray traversing the tree, according to the surface area heuristic.
+     */
+    public record Statistics(Strategy strategy, int geometries, long buildTimeNanos, int nodes, int leaves,
+                             int depth, double cost) {
+        @Override
+        public String toString() {
+            return String.format("%s BVH: %d geometries, built in %.3f ms, %d nodes, %d leaves, depth %d, cost %.3f",
+                    strategy, geometries, buildTimeNanos / 1e6, nodes, leaves, depth, cost);
+        }
+    }
+
+    /** The maximal amount of geometries in a leaf which is always accepted */
+    private static final int MAX_LEAF_SIZE = 2;
+    /** The maximal amount of geometries in a leaf which the surface area heuristic may prefer over a split */
+    private static final int MAX_SAH_LEAF_SIZE = 8;
+    /** The maximal amount of bins per axis of the surface area heuristic, a small range has a bin per geometry */
+    private static final int BINS = 16;
+    /** Subtrees with fewer geometries are built sequentially */
+    private static final int PARALLEL_THRESHOLD = 1024;
+    /** The cost of checking a ray against the bounding box of a node */
+    private static final double TRAVERSAL_COST = 1;
+    /** The cost of intersecting a ray with a geometry */
+    private static final double INTERSECTION_COST = 1;
+    /**
+     * The bins of the surface area heuristic of every thread. A split doesn't fork, so a thread uses its bins
+     * for one split at a time, and the bins aren't allocated again for every node of a big hierarchy
+     */
+    private static final ThreadLocal<Bins> THREAD_BINS = ThreadLocal.withInitial(Bins::new);
+
+    /** The splitting strategy */
+    private final Strategy strategy;
+    /** The pool which builds the subtrees in parallel */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    /** Whether the hierarchy is compacted into a flat hierarchy */
+    private boolean flat = false;
+    /** The statistics of the last build, written by the build when it ends */
+    private volatile Statistics statistics = null;
+
+    /**
+     * A flat hierarchy over raw bounding boxes, see {@link FlatBVH} for the layout of the nodes.
+     *
+     * @param bounds  The bounds of the nodes - six numbers per node.
+     * @param offsets The offsets of the nodes - two numbers per node.
+     * @param order   The indices of the boxes ordered by the leaves.
+     * @param depth   The depth of the tree.
+     */
+    record Layout(double[] bounds, int[] offsets, int[] order, int depth) {
+    }
+
+    /**
+     * Constructs a builder with the given splitting strategy.
+     *
+     * @param strategy The splitting strategy.
+     */
+    public BVHBuilder(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets the pool which builds the subtrees in parallel.
+     *
+     * @param pool The fork/join pool.
+     * @return This builder.
+     */
+    public BVHBuilder setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Sets whether the hierarchy is compacted into a {@link FlatBVH} or built as a tree of {@link Geometries}.
+     *
+     * @param flat True for a flat hierarchy, false for a tree of objects.
+     * @return This builder.
+     */
+    public BVHBuilder setFlat(boolean flat) {
+        this.flat = flat;
+        return this;
+    }
+
+    /**
+     * Retrieves the statistics of the last build.
+     *
+     * @return The statistics, or null if nothing has been built yet.
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Builds a bounding volume hierarchy over bounded geometries.
+     *
+     * @param bounded The geometries, all of them must have a bounding box.
+     * @return The root of the hierarchy - a single geometry, a Geometries node or a FlatBVH,
+     * null if there are no geometries.
+     */
+    public Intersectable build(List<Intersectable> bounded) {
+        long start = System.nanoTime();
+        int size = bounded.size();
+        Intersectable[] geometries = bounded.toArray(new Intersectable[0]);
+        double[] boxes = new double[size * 6];
+        for (int i = 0; i < size; i++) {
+            BoundingBox box = geometries[i].getBoundingBox();
+            boxes[i * 6] = box.minX;
+            boxes[i * 6 + 1] = box.minY;
+            boxes[i * 6 + 2] = box.minZ;
+            boxes[i * 6 + 3] = box.maxX;
+            boxes[i * 6 + 4] = box.maxY;
+            boxes[i * 6 + 5] = box.maxZ;
+        }
+
+        Build build = new Build(geometries, boxes, !flat);
+        Node root = build.buildTree(start);
+        if (root == null)
+            return null;
+        if (!flat)
+            return root.geometry;
+        Layout layout = build.flatten(root);
+        Intersectable[] leafGeometries = new Intersectable[size];
+        for (int i = 0; i < size; i++)
+            leafGeometries[i] = geometries[layout.order[i]];
+        return new FlatBVH(layout.bounds, layout.offsets, leafGeometries, layout.depth);
+    }
+
+    /**
+     * Builds a flat hierarchy over raw bounding boxes, for a geometry which intersects its own primitives.
+     * The array of the boxes is reordered by the build.
+     *
+     * @param boxes The bounding boxes of the primitives - six numbers per primitive: min x,y,z and max x,y,z.
+     * @return The flat hierarchy, null if there are no boxes.
+     */
+    Layout buildLayout(double[] boxes) {
+        long start = System.nanoTime();
+        Build build = new Build(null, boxes, false);
+        Node root = build.buildTree(start);
+        return root == null ? null : build.flatten(root);
+    }
+
+    /**
+     * Writes a subtree into the arrays of a flat hierarchy in depth-first order.
+     * The leaves own consecutive ranges of the order, so a leaf keeps its range.
+     *
+     * @param node    The root of the subtree.
+     * @param bounds  The bounds of the nodes.
+     * @param offsets The offsets of the nodes.
+     * @param next    The index of the next node.
+     */
+    private static void flatten(Node node, double[] bounds, int[] offsets, int[] next) {
+        int index = next[0]++;
+        System.arraycopy(node.bounds, 0, bounds, index * 6, 6);
+        if (node.left == null) {
+            offsets[2 * index] = node.start;
+            offsets[2 * index + 1] = node.size;
+        } else {
+            flatten(node.left, bounds, offsets, next);
+            offsets[2 * index] = next[0];
+            offsets[2 * index + 1] = -(node.axis + 1);
+            flatten(node.right, bounds, offsets, next);
+        }
+    }
+
+    /**
+     * A built subtree with its statistics.
+     *
+     * @param geometry The root of the subtree as a geometry, null if the hierarchy is flat.
+     * @param left     The left subtree of an inner node, null for a leaf.
+     * @param right    The right subtree of an inner node, null for a leaf.
+     * @param start    The first index of the range of a leaf in the order array.
+     * @param size     The amount of geometries of a leaf.
+     * @param axis     The split axis of an inner node.
+     * @param bounds   The bounds of the subtree - min x,y,z and max x,y,z.
+     * @param area     The surface area of the bounding box of the subtree.
+     * @param cost     The cost of the subtree multiplied by its surface area.
+     * @param nodes    The amount of inner nodes in the subtree.
+     * @param leaves   The amount of leaves in the subtree.
+     * @param depth    The depth of the subtree.
+     */
+    private record Node(Intersectable geometry, Node left, Node right, int start, int size, int axis,
+                        double[] bounds, double area, double cost, int nodes, int leaves, int depth) {
+    }
+
+    /**
+     * The scratch arrays of the surface area heuristic - the bins of all the axes and the sweeps over them.
+     */
+    private static class Bins {
+        /** The amount of geometries in every bin, the bins of the x axis first */
+        final int[] counts = new int[3 * BINS];
+        /** The bounds of every bin - six numbers per bin */
+        final double[] bounds = new double[3 * BINS * 6];
+        /** The cost of the geometries right of every bin */
+        final double[] rightCosts = new double[BINS];
+        /** The bounds of a sweep */
+        final double[] sweep = new double[6];
+        /** The amount of bins divided by the extent of the centers along every axis */
+        final double[] scales = new double[3];
+    }
+
+    /**
+     * The state of a single build - the geometries, their boxes, the centers of the boxes and their order.
+     * Every build has its own state, which is dropped when the build ends.
+     */
+    private class Build {
+        /** Whether the build creates a tree of {@link Geometries} objects */
+        private final boolean objects;
+        /** The geometries of the build, null for a build over raw bounding boxes */
+        private final Intersectable[] geometries;
+        /**
+         * The bounding boxes of the geometries - six numbers per geometry: min x,y,z and max x,y,z.
+         * The boxes and their centers are kept in the current order of the geometries, so every range is contiguous.
+         */
+        private final double[] boxes;
+        /** The centers of the bounding boxes of the geometries - three numbers per geometry */
+        private final double[] centers;
+        /** The order of the geometries, every node of the tree owns a range of it */
+        private final int[] order;
+
+        /**
+         * Prepares a build over bounding boxes.
+         *
+         * @param geometries The geometries of the boxes, null for a build over raw bounding boxes.
+         * @param boxes      The bounding boxes - six numbers per box, reordered by the build.
+         * @param objects    Whether the build creates a tree of {@link Geometries} objects.
+         */
+        Build(Intersectable[] geometries, double[] boxes, boolean objects) {
+            this.geometries = geometries;
+            this.boxes = boxes;
+            this.objects = objects;
+            int size = boxes.length / 6;
+            centers = new double[size * 3];
+            order = new int[size];
+            for (int i = 0; i < size; i++) {
+                for (int axis = 0; axis < 3; axis++)
+                    centers[i * 3 + axis] = (boxes[i * 6 + axis] + boxes[i * 6 + 3 + axis]) / 2;
+                order[i] = i;
+            }
+        }
+
+        /**
+         * Builds the tree over the bounding boxes and records its statistics in the builder.
+         *
+         * @param start The time the build started, in nanoseconds.
+         * @return The root of the tree, null if there are no boxes.
+         */
+        Node buildTree(long start) {
+            int size = order.length;
+            Node root = size == 0 ? null : pool.invoke(new BuildTask(0, size));
+            statistics = root == null
+                    ? new Statistics(strategy, 0, System.nanoTime() - start, 0, 0, 0, 0)
+                    : new Statistics(strategy, size, System.nanoTime() - start, root.nodes, root.leaves, root.depth,
+                    root.area == 0 ? root.cost : root.cost / root.area);
+            return root;
+        }
+
+        /**
+         * Compacts the built tree into the arrays of a flat hierarchy.
+         *
+         * @param root The root of the tree.
+         * @return The flat hierarchy.
+         */
+        Layout flatten(Node root) {
+            int size = root.nodes + root.leaves;
+            double[] bounds = new double[size * 6];
+            int[] offsets = new int[size * 2];
+            BVHBuilder.flatten(root, bounds, offsets, new int[1]);
+            return new Layout(bounds, offsets, order, root.depth);
+        }
+
+        /**
+         * A task which builds the subtree of a range of the geometries.
+         * Fork/join tasks are serializable, but a build task is never serialized, so it has no serial version.
+         */
+        @SuppressWarnings("serial")
+        private class BuildTask extends RecursiveTask<Node> {
+            /** The first index of the range in the order array */
+            private final int start;
+            /** The index after the end of the range in the order array */
+            private final int end;
+            /** The axis of the split of the range */
+            private int axis = 0;
+
+            /**
+             * Constructs a task for a range of the geometries.
+             *
+             * @param start The first index of the range.
+             * @param end   The index after the end of the range.
+             */
+            BuildTask(int start, int end) {
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            protected Node compute() {
+                int size = end - start;
+                double[] bounds = rangeBounds(start, end);
+                double area = area(bounds);
+                if (size <= MAX_LEAF_SIZE)
+                    return leaf(bounds, area);
+
+                int middle = strategy == Strategy.SAH ? sahSplit(area) : medianSplit();
+                if (middle < 0)
+                    return leaf(bounds, area);
+
+                BuildTask left = new BuildTask(start, middle);
+                BuildTask right = new BuildTask(middle, end);
+                Node leftNode, rightNode;
+                if (size > PARALLEL_THRESHOLD) {
+                    left.fork();
+                    rightNode = right.compute();
+                    leftNode = left.join();
+                } else {
+                    leftNode = left.compute();
+                    rightNode = right.compute();
+                }
+                return new Node(objects ? new Geometries(leftNode.geometry, rightNode.geometry) : null, leftNode, rightNode,
+                        0, 0, axis, bounds, area, area * TRAVERSAL_COST + leftNode.cost + rightNode.cost,
+                        1 + leftNode.nodes + rightNode.nodes, leftNode.leaves + rightNode.leaves,
+                        1 + Math.max(leftNode.depth, rightNode.depth));
+            }
+
+            /**
+             * Creates a leaf of all the geometries of the range.
+             *
+             * @param bounds The bounds of the range.
+             * @param area   The surface area of the bounding box of the range.
+             * @return The leaf.
+             */
+            private Node leaf(double[] bounds, double area) {
+                int size = end - start;
+                double cost = area * size * INTERSECTION_COST;
+                Intersectable geometry = null;
+                if (objects) {
+                    Intersectable[] leafGeometries = new Intersectable[size];
+                    for (int i = 0; i < size; i++)
+                        leafGeometries[i] = geometries[order[start + i]];
+                    geometry = size == 1 ? leafGeometries[0] : new Geometries(leafGeometries);
+                }
+                return new Node(geometry, null, null, start, size, 0, bounds, area, cost, 0, 1, 0);
+            }
+
+            /**
+             * Sorts the range by the centers of the geometries along the longest axis and splits it in the middle.
+             *
+             * @return The index of the split.
+             */
+            private int medianSplit() {
+                int axis = this.axis = longestAxis(centerBounds());
+                Integer[] sorted = new Integer[end - start];
+                for (int i = start; i < end; i++)
+                    sorted[i - start] = i;
+                // the sort is stable, so geometries with the same center keep their order
+                Arrays.sort(sorted, Comparator.comparingDouble(i -> centers[i * 3 + axis]));
+                int[] sortedOrder = new int[end - start];
+                double[] sortedBoxes = new double[(end - start) * 6];
+                double[] sortedCenters = new double[(end - start) * 3];
+                for (int i = 0; i < end - start; i++) {
+                    int from = sorted[i];
+                    sortedOrder[i] = order[from];
+                    System.arraycopy(boxes, from * 6, sortedBoxes, i * 6, 6);
+                    System.arraycopy(centers, from * 3, sortedCenters, i * 3, 3);
+                }
+                System.arraycopy(sortedOrder, 0, order, start, end - start);
+                System.arraycopy(sortedBoxes, 0, boxes, start * 6, sortedBoxes.length);
+                System.arraycopy(sortedCenters, 0, centers, start * 3, sortedCenters.length);
+                return (start + end) / 2;
+            }
+
+            /**
+             * Finds the split of the range with the minimal cost according to the binned surface area heuristic
+             * and partitions the range accordingly.
+             *
+             * @param area The surface area of the bounding box of the range.
+             * @return The index of the split, or -1 if a leaf is cheaper than any split.
+             */
+            private int sahSplit(double area) {
+                int size = end - start;
+                double[] centerBounds = centerBounds();
+
+                double bestCost = Double.POSITIVE_INFINITY;
+                int bestAxis = -1, bestBin = -1;
+                int bins = Math.min(BINS, size);
+                // all the axes are binned in a single pass, so the boxes of the range are read once
+                Bins scratch = THREAD_BINS.get();
+                double[] scales = scratch.scales;
+                for (int axis = 0; axis < 3; axis++) {
+                    double extent = centerBounds[axis + 3] - centerBounds[axis];
+                    scales[axis] = extent > 0 ? bins / extent : 0;
+                }
+                int[] counts = scratch.counts;
+                double[] binBounds = scratch.bounds;
+                Arrays.fill(counts, 0);
+                for (int bin = 0; bin < 3 * bins; bin++)
+                    empty(binBounds, bin);
+                for (int i = start; i < end; i++)
+                    for (int axis = 0; axis < 3; axis++) {
+                        int bin = axis * bins + bin(i, axis, centerBounds[axis], scales[axis], bins);
+                        counts[bin]++;
+                        expand(binBounds, bin, boxes, i);
+                    }
+
+                double[] rightCosts = scratch.rightCosts;
+                double[] sweep = scratch.sweep;
+                for (int axis = 0; axis < 3; axis++) {
+                    if (scales[axis] == 0) continue;
+                    int first = axis * bins;
+
+                    // sweep from the right to find the cost of the geometries right of every split
+                    empty(sweep, 0);
+                    int count = 0;
+                    for (int bin = bins - 1; bin > 0; bin--) {
+                        expand(sweep, 0, binBounds, first + bin);
+                        count += counts[first + bin];
+                        rightCosts[bin] = count == 0 ? 0 : count * area(sweep);
+                    }
+                    // sweep from the left and combine
+                    empty(sweep, 0);
+                    count = 0;
+                    for (int bin = 0; bin < bins - 1; bin++) {
+                        expand(sweep, 0, binBounds, first + bin);
+                        count += counts[first + bin];
+                        if (count == 0 || count == size) continue;
+                        double cost = count * area(sweep) + rightCosts[bin + 1];
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestAxis = axis;
+                            bestBin = bin;
+                        }
+                    }
+                }
+
+                // all the centers are at the same point - there is no way to split by the heuristic
+                if (bestAxis < 0)
+                    return size <= MAX_SAH_LEAF_SIZE ? -1 : (start + end) / 2;
+
+                bestCost = TRAVERSAL_COST + INTERSECTION_COST * bestCost / area;
+                if (size <= MAX_SAH_LEAF_SIZE && size * INTERSECTION_COST <= bestCost)
+                    return -1;
+
+                // partition the range - geometries left of the split first
+                axis = bestAxis;
+                double min = centerBounds[bestAxis], scale = scales[bestAxis];
+                int middle = start;
+                for (int i = start; i < end; i++)
+                    if (bin(i, bestAxis, min, scale, bins) <= bestBin)
+                        swap(i, middle++);
+                return middle;
+            }
+
+            /**
+             * Calculates the bounds of the centers of the geometries of the range.
+             *
+             * @return The bounds - min x,y,z and max x,y,z.
+             */
+            private double[] centerBounds() {
+                double[] bounds = new double[6];
+                empty(bounds, 0);
+                for (int i = start; i < end; i++)
+                    for (int axis = 0; axis < 3; axis++) {
+                        double center = centers[i * 3 + axis];
+                        bounds[axis] = Math.min(bounds[axis], center);
+                        bounds[axis + 3] = Math.max(bounds[axis + 3], center);
+                    }
+                return bounds;
+            }
+        }
+
+        /**
+         * Calculates the bounds of the bounding boxes of a range of the geometries.
+         *
+         * @param start The first index of the range.
+         * @param end   The index after the end of the range.
+         * @return The bounds - min x,y,z and max x,y,z.
+         */
+        private double[] rangeBounds(int start, int end) {
+            double[] bounds = new double[6];
+            empty(bounds, 0);
+            for (int i = start; i < end; i++)
+                expand(bounds, 0, boxes, i);
+            return bounds;
+        }
+
+        /**
+         * Swaps two geometries in the order, together with their boxes and centers.
+         *
+         * @param i The position of the first geometry.
+         * @param j The position of the second geometry.
+         */
+        private void swap(int i, int j) {
+            if (i == j)
+                return;
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+            for (int k = 0; k < 6; k++) {
+                double box = boxes[i * 6 + k];
+                boxes[i * 6 + k] = boxes[j * 6 + k];
+                boxes[j * 6 + k] = box;
+            }
+            for (int k = 0; k < 3; k++) {
+                double center = centers[i * 3 + k];
+                centers[i * 3 + k] = centers[j * 3 + k];
+                centers[j * 3 + k] = center;
+            }
+        }
+
+        /**
+         * Calculates the bin of a geometry along an axis.
+         *
+         * @param index  The position of the geometry in the order.
+         * @param axis   The axis.
+         * @param min    The minimal center along the axis.
+         * @param scale  The amount of bins divided by the extent of the centers along the axis.
+         * @param bins   The amount of bins.
+         * @return The bin of the geometry.
+         */
+        private int bin(int index, int axis, double min, double scale, int bins) {
+            int bin = (int) ((centers[index * 3 + axis] - min) * scale);
+            return Math.min(bin, bins - 1);
+        }
+    }
+
+    /**
+     * Finds the longest axis of bounds.
+     *
+     * @param bounds The bounds - min x,y,z and max x,y,z.
+     * @return The longest axis - 0 for x, 1 for y and 2 for z.
+     */
+    private static int longestAxis(double[] bounds) {
+        int axis = 0;
+        for (int i = 1; i < 3; i++)
+            if (bounds[i + 3] - bounds[i] > bounds[axis + 3] - bounds[axis])
+                axis = i;
+        return axis;
+    }
+
+    /**
+     * Calculates the surface area of bounds.
+     *
+     * @param bounds The bounds - min x,y,z and max x,y,z.
+     * @return The surface area.
+     */
+    private static double area(double[] bounds) {
+        double dx = bounds[3] - bounds[0], dy = bounds[4] - bounds[1], dz = bounds[5] - bounds[2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Resets bounds in an array of bounds to be empty.
+     *
+     * @param bounds The array of bounds - six numbers per bounds.
+     * @param index  The index of the bounds in the array.
+     */
+    private static void empty(double[] bounds, int index) {
+        int i = index * 6;
+        bounds[i] = bounds[i + 1] = bounds[i + 2] = Double.POSITIVE_INFINITY;
+        bounds[i + 3] = bounds[i + 4] = bounds[i + 5] = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Expands bounds in an array of bounds to contain other bounds.
+     *
+     * @param bounds The array of bounds to expand - six numbers per bounds.
+     * @param index  The index of the bounds to expand.
+     * @param other  The array of the other bounds.
+     * @param oIndex The index of the other bounds.
+     */
+    private static void expand(double[] bounds, int index, double[] other, int oIndex) {
+        for (int i = 0; i < 3; i++) {
+            bounds[index * 6 + i] = Math.min(bounds[index * 6 + i], other[oIndex * 6 + i]);
+            bounds[index * 6 + i + 3] = Math.max(bounds[index * 6 + i + 3], other[oIndex * 6 + i + 3]);
+        }
+    }
+}
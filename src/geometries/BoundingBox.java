@@ -0,0 +1,108 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static primitives.Util.alignZero;
+
+/**
+ * The BoundingBox class represents an axis-aligned bounding box (AABB) in three-dimensional space.
+ * It is used in order to skip the intersection calculation of geometries that the ray can not hit.
+ */
+public class BoundingBox {
+    /** The minimal coordinates of the box */
+    final double minX, minY, minZ;
+    /** The maximal coordinates of the box */
+    final double maxX, maxY, maxZ;
+
+    /**
+     * Constructs a bounding box by its minimal and maximal coordinates.
+     *
+     * @param minX The minimal x-coordinate.
+     * @param minY The minimal y-coordinate.
+     * @param minZ The minimal z-coordinate.
+     * @param maxX The maximal x-coordinate.
+     * @param maxY The maximal y-coordinate.
+     * @param maxZ The maximal z-coordinate.
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest bounding box which contains all the given points.
+     *
+     * @param points The points to wrap.
+     * @return The bounding box of the points.
+     */
+    public static BoundingBox of(Iterable<Point> points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point point : points) {
+            minX = Math.min(minX, point.getX());
+            minY = Math.min(minY, point.getY());
+            minZ = Math.min(minZ, point.getZ());
+            maxX = Math.max(maxX, point.getX());
+            maxY = Math.max(maxY, point.getY());
+            maxZ = Math.max(maxZ, point.getZ());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Calculates the smallest bounding box which contains both this box and another box.
+     *
+     * @param other The other bounding box.
+     * @return The union of the two boxes.
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Checks whether a ray hits the box at a distance not bigger than maxDistance from the head of the ray.
+     * The check is done by the slabs method. The distances are compared with the tolerance of the geometries,
+     * which accept a point that is farther than maxDistance by almost zero, so such a point isn't culled by its box.
+     *
+     * @param ray         The ray to check.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return True if the ray hits the box, false otherwise.
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double near = 0, far = maxDistance;
+        double ox = head.getX(), dx = direction.getX();
+        if (dx == 0) {
+            if (ox < minX || ox > maxX) return false;
+        } else {
+            double t1 = (minX - ox) / dx, t2 = (maxX - ox) / dx;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        double oy = head.getY(), dy = direction.getY();
+        if (dy == 0) {
+            if (oy < minY || oy > maxY) return false;
+        } else {
+            double t1 = (minY - oy) / dy, t2 = (maxY - oy) / dy;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        double oz = head.getZ(), dz = direction.getZ();
+        if (dz == 0) {
+            if (oz < minZ || oz > maxZ) return false;
+        } else {
+            double t1 = (minZ - oz) / dz, t2 = (maxZ - oz) / dz;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return alignZero(near - far) <= 0;
+    }
+}
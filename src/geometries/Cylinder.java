@@ -26,6 +26,20 @@ public class Cylinder extends Tube {
     public Cylinder(double radius, Ray axis, double height) {
         super(radius, axis);
         this.height = height;
+        // The caps are discs - along each coordinate axis a disc spreads radius*sqrt(1-d^2) from its center
+        Point bottom = axis.getHead();
+        Point top = axis.getPoint(height);
+        Vector direction = axis.getDirection();
+        double ex = radius * Math.sqrt(Math.max(0, 1 - direction.getX() * direction.getX()));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - direction.getY() * direction.getY()));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - direction.getZ() * direction.getZ()));
+        boundingBox = new BoundingBox(
+                Math.min(bottom.getX(), top.getX()) - ex,
+                Math.min(bottom.getY(), top.getY()) - ey,
+                Math.min(bottom.getZ(), top.getZ()) - ez,
+                Math.max(bottom.getX(), top.getX()) + ex,
+                Math.max(bottom.getY(), top.getY()) + ey,
+                Math.max(bottom.getZ(), top.getZ()) + ez);
     }
 
     /**
@@ -52,7 +66,7 @@ public class Cylinder extends Tube {
         double t = v1.dotProduct(axis.getDirection());
 
         // Check if the point is at the top end of the cylinder
-        if (t == height)
+        if (Util.isZero(t - height))
             return axis.getDirection();
 
         // Calculate the point 'o' on the axis corresponding to the projection 't'
@@ -61,4 +75,59 @@ public class Cylinder extends Tube {
         // Calculate and return the normalized vector from point 'o' to the given point
         return point.subtract(o).normalize();
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether a point on the infinite surface of the tube is between the bases of the cylinder.
+     *
+     * @param height The position of the point along the axis, from the head of the axis.
+     * @return True if the point is between the bases, false otherwise.
+     */
+    @Override
+    protected boolean isOnSide(double height) {
+        return height > 0 && height < this.height;
+    }
+
+    /**
+     * Finds the distances of the intersection points of a ray with the side and the bases of the cylinder.
+     * A base is crossed where the ray reaches its height along the axis, if the point is closer than the radius to the axis.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param distances   The array to write the distances into, at least two elements long.
+     * @return The amount of the distances written, ordered from the closest.
+     */
+    @Override
+    protected int findDistances(Ray ray, double maxDistance, double[] distances) {
+        int count = super.findDistances(ray, maxDistance, distances);
+        Point head = ray.getHead();
+        Point base = axis.getHead();
+        Vector v = ray.getDirection();
+        Vector va = axis.getDirection();
+        double ax = va.getX(), ay = va.getY(), az = va.getZ();
+        double vva = v.getX() * ax + v.getY() * ay + v.getZ() * az;
+        // a ray which is perpendicular to the axis never crosses the bases
+        if (count == 2 || Util.isZero(vva))
+            return count;
+
+        double px = head.getX() - base.getX(), py = head.getY() - base.getY(), pz = head.getZ() - base.getZ();
+        double pva = px * ax + py * ay + pz * az;
+        for (int i = 0; i < 2; ++i) {
+            double baseHeight = i == 0 ? 0 : height;
+            double t = (baseHeight - pva) / vva;
+            if (count == 2 || !isInRange(t, maxDistance))
+                continue;
+            // the distance of the point on the plane of the base from the axis
+            double x = px + t * v.getX() - baseHeight * ax;
+            double y = py + t * v.getY() - baseHeight * ay;
+            double z = pz + t * v.getZ() - baseHeight * az;
+            if (x * x + y * y + z * z < radius * radius)
+                distances[count++] = t;
+        }
+        if (count == 2 && distances[0] > distances[1]) {
+            double t = distances[0];
+            distances[0] = distances[1];
+            distances[1] = t;
+        }
+        return count;
+    }
+}
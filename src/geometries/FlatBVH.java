@@ -0,0 +1,331 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+
+/**
+ * The FlatBVH class is a bounding volume hierarchy compacted into parallel arrays of primitive numbers.
+ * The nodes are stored in depth-first order, so the left child of an inner node is the node right after it.
+ * The traversal uses an explicit stack of node indices and allocates nothing per ray.
+ * Before a rendering the hierarchy is compiled by {@link #compile()}, which packs the primitives of its leaves.
+ * A FlatBVH is created by a {@link BVHBuilder} which is set to flatten its hierarchy.
+ */
+public class FlatBVH extends Intersectable {
+    /** The bounds of the nodes - six numbers per node: min x,y,z and max x,y,z */
+    private final double[] bounds;
+    /**
+     * The offsets of the nodes - two numbers per node.<br>
+     * Leaf: the index of its first geometry and the amount of its geometries.<br>
+     * Inner node: the index of its right child and -(axis + 1) of the split axis.
+     */
+    private final int[] offsets;
+    /** The geometries of the leaves, ordered by the leaves */
+    private final Intersectable[] geometries;
+    /** The traversal stack of each thread, as deep as the tree */
+    private final ThreadLocal<int[]> stacks;
+
+    /**
+     * The compiled form of the hierarchy - the geometries of the leaves, grouped by their kinds within every leaf,
+     * and their packed primitives.
+     *
+     * @param geometries The geometries of the leaves.
+     * @param packed     The packed primitives of the geometries.
+     */
+    private record Compiled(Intersectable[] geometries, PackedPrimitives packed) {}
+
+    /** The compiled form of the hierarchy, null until it is compiled */
+    private volatile Compiled compiled = null;
+
+    /**
+     * Constructs a flat hierarchy from its arrays.
+     *
+     * @param bounds     The bounds of the nodes.
+     * @param offsets    The offsets of the nodes.
+     * @param geometries The geometries of the leaves.
+     * @param depth      The depth of the tree.
+     */
+    FlatBVH(double[] bounds, int[] offsets, Intersectable[] geometries, int depth) {
+        this.bounds = bounds;
+        this.offsets = offsets;
+        this.geometries = geometries;
+        this.stacks = ThreadLocal.withInitial(() -> new int[depth + 1]);
+        boundingBox = new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    /**
+     * Retrieves the amount of nodes in the hierarchy.
+     *
+     * @return The amount of nodes.
+     */
+    public int size() {
+        return offsets.length / 2;
+    }
+
+    /**
+     * Compiles the hierarchy for the rendering, like {@link Geometries#compile()} - the geometries of every leaf are
+     * grouped by their kinds, and the spheres, planes, triangles and polygons are packed into arrays of numbers, so a
+     * leaf which a ray reaches is checked by the batch tests of {@link PackedPrimitives} instead of the geometries.
+     * The grouping is made on a copy of the geometries, so the hierarchy may be traversed meanwhile.
+     * Compiling a compiled hierarchy does nothing.
+     */
+    synchronized void compile() {
+        if (compiled != null) return;
+        Intersectable[] array = geometries.clone();
+        for (int node = 0; node < size(); node++) {
+            int first = offsets[2 * node], count = offsets[2 * node + 1];
+            if (count > 0)
+                PackedPrimitives.groupByKind(array, first, count);
+        }
+        for (Intersectable geometry : array)
+            if (geometry instanceof Geometries nested)
+                nested.compile();
+        compiled = new Compiled(array, new PackedPrimitives(array));
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+
+        List<GeoPoint> intersections = null;
+        int[] stack = stacks.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (hits(bounds, node, ox, oy, oz, dx, dy, dz, ix, iy, iz, maxDistance)) {
+                int first = offsets[2 * node], count = offsets[2 * node + 1];
+                if (count < 0) {
+                    // inner node - visit the left child now and the right child later
+                    stack[top++] = first;
+                    ++node;
+                    continue;
+                }
+                for (int i = first; i < first + count; i++) {
+                    List<GeoPoint> geoPoints = geometries[i].findGeoIntersectionsHelper(ray, maxDistance);
+                    if (geoPoints != null) {
+                        if (intersections == null)
+                            intersections = new ArrayList<>();
+                        intersections.addAll(geoPoints);
+                    }
+                }
+            }
+            if (top == 0)
+                return intersections;
+            node = stack[--top];
+        }
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the geometries of the hierarchy.
+     * The children of each inner node are visited front to back by the direction of the ray along the split axis,
+     * and the maximal distance shrinks to the closest point found so far, so farther nodes are culled.
+     * In a compiled hierarchy every leaf is checked by {@link PackedPrimitives#findClosest}.
+     *
+     * @param ray         The ray to find the intersection with.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+
+        Compiled compiled = this.compiled;
+        GeoPoint closest = null;
+        int[] stack = stacks.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (hits(bounds, node, ox, oy, oz, dx, dy, dz, ix, iy, iz, maxDistance)) {
+                int first = offsets[2 * node], count = offsets[2 * node + 1];
+                if (count < 0) {
+                    double d = switch (-count - 1) {
+                        case 0 -> dx;
+                        case 1 -> dy;
+                        default -> dz;
+                    };
+                    if (d < 0) {
+                        // the right child is in front of the left child
+                        stack[top++] = node + 1;
+                        node = first;
+                    } else {
+                        stack[top++] = first;
+                        ++node;
+                    }
+                    continue;
+                }
+                if (compiled != null) {
+                    GeoPoint gp = compiled.packed().findClosest(compiled.geometries(), first, first + count, ray,
+                            maxDistance);
+                    if (gp != null && (closest == null || gp.t < closest.t)) {
+                        closest = gp;
+                        maxDistance = gp.t;
+                    }
+                } else
+                    for (int i = first; i < first + count; i++) {
+                        GeoPoint gp = geometries[i].findClosestGeoIntersectionHelper(ray, maxDistance);
+                        if (gp != null && (closest == null || gp.t < closest.t)) {
+                            closest = gp;
+                            maxDistance = gp.t;
+                        }
+                    }
+            }
+            if (top == 0)
+                return closest;
+            node = stack[--top];
+        }
+    }
+
+    /**
+     * Calculates the transparency of the hierarchy along a ray.
+     * The traversal stops at the first fully opaque geometry, regardless of the order of the nodes.
+     * In a compiled hierarchy every leaf is checked by {@link PackedPrimitives#findTransparency}.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param ktr         The transparency accumulated before this hierarchy.
+     * @return The transparency accumulated including this hierarchy.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+
+        Compiled compiled = this.compiled;
+        int[] stack = stacks.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (hits(bounds, node, ox, oy, oz, dx, dy, dz, ix, iy, iz, maxDistance)) {
+                int first = offsets[2 * node], count = offsets[2 * node + 1];
+                if (count < 0) {
+                    stack[top++] = first;
+                    ++node;
+                    continue;
+                }
+                if (compiled != null) {
+                    ktr = compiled.packed().findTransparency(compiled.geometries(), first, first + count, ray,
+                            maxDistance, ktr);
+                    if (ktr.equals(Double3.ZERO))
+                        return Double3.ZERO;
+                } else
+                    for (int i = first; i < first + count; i++) {
+                        ktr = geometries[i].findTransparencyHelper(ray, maxDistance, ktr);
+                        if (ktr.equals(Double3.ZERO))
+                            return Double3.ZERO;
+                    }
+            }
+            if (top == 0)
+                return ktr;
+            node = stack[--top];
+        }
+    }
+
+    /**
+     * Checks whether a ray hits the bounds of a node, by the slabs method. The distances are compared with the
+     * tolerance of the geometries, like {@link BoundingBox#intersects(Ray, double)}.
+     *
+     * @param bounds      The bounds of the nodes - six numbers per node.
+     * @param node        The index of the node.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param ix          The inverse of dx.
+     * @param iy          The inverse of dy.
+     * @param iz          The inverse of dz.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return True if the ray hits the bounds of the node, false otherwise.
+     */
+    static boolean hits(double[] bounds, int node, double ox, double oy, double oz, double dx, double dy, double dz,
+                        double ix, double iy, double iz, double maxDistance) {
+        int b = node * 6;
+        double near = 0, far = maxDistance;
+        if (dx == 0) {
+            if (ox < bounds[b] || ox > bounds[b + 3]) return false;
+        } else {
+            double t1 = (bounds[b] - ox) * ix, t2 = (bounds[b + 3] - ox) * ix;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (oy < bounds[b + 1] || oy > bounds[b + 4]) return false;
+        } else {
+            double t1 = (bounds[b + 1] - oy) * iy, t2 = (bounds[b + 4] - oy) * iy;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (dz == 0) {
+            if (oz < bounds[b + 2] || oz > bounds[b + 5]) return false;
+        } else {
+            double t1 = (bounds[b + 2] - oz) * iz, t2 = (bounds[b + 5] - oz) * iz;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return alignZero(near - far) <= 0;
+    }
+
+    /**
+     * Checks whether a ray hits the bounds of a node in single precision, like
+     * {@link #hits(double[], int, double, double, double, double, double, double, double, double, double, double)}.
+     *
+     * @param bounds      The bounds of the nodes, in single precision.
+     * @param node        The index of the node.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param ix          The inverse of dx.
+     * @param iy          The inverse of dy.
+     * @param iz          The inverse of dz.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return True if the ray hits the bounds of the node, false otherwise.
+     */
+    static boolean hits(float[] bounds, int node, double ox, double oy, double oz, double dx, double dy, double dz,
+                        double ix, double iy, double iz, double maxDistance) {
+        int b = node * 6;
+        double near = 0, far = maxDistance;
+        if (dx == 0) {
+            if (ox < bounds[b] || ox > bounds[b + 3]) return false;
+        } else {
+            double t1 = (bounds[b] - ox) * ix, t2 = (bounds[b + 3] - ox) * ix;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (oy < bounds[b + 1] || oy > bounds[b + 4]) return false;
+        } else {
+            double t1 = (bounds[b + 1] - oy) * iy, t2 = (bounds[b + 4] - oy) * iy;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (dz == 0) {
+            if (oz < bounds[b + 2] || oz > bounds[b + 5]) return false;
+        } else {
+            double t1 = (bounds[b + 2] - oz) * iz, t2 = (bounds[b + 5] - oz) * iz;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return alignZero(near - far) <= 0;
+    }
+}
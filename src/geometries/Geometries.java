@@ -1,12 +1,17 @@
 package geometries;
 
 
+import primitives.Double3;
+import primitives.Point;
 import primitives.Ray;
+import primitives.Vector;
 import java.util.*;
 
 /**
  * Represents a collection of geometric objects that implement the Intersectable interface.
  * This class provides methods for adding intersectable geometries and finding intersections with a given ray.
+ * The collection may be turned into a bounding volume hierarchy (BVH) by {@link #buildBVH()},
+ * and is compiled for the rendering by {@link #compile()}.
  */
 public class Geometries extends Intersectable {
     /**
@@ -14,6 +19,24 @@ public class Geometries extends Intersectable {
      */
     private final List<Intersectable> geometries = new LinkedList<>();
 
+    /**
+     * A flag which tells whether one of the geometries in the collection is unbounded,
+     * in such case the collection has no bounding box.
+     */
+    private boolean unbounded = false;
+
+    /**
+     * The compiled form of the collection - its geometries in an array grouped by their kinds, and their packed
+     * primitives.
+     *
+     * @param geometries The geometries of the collection.
+     * @param packed     The packed primitives of the geometries.
+     */
+    private record Compiled(Intersectable[] geometries, PackedPrimitives packed) {}
+
+    /** The compiled form of the collection, null until it is compiled and after it is changed */
+    private volatile Compiled compiled = null;
+
     /**
      * Constructs an empty Geometries object.
      */
@@ -36,7 +59,105 @@ public class Geometries extends Intersectable {
      * @param geometries The intersectable geometries to add.
      */
     public void add(Intersectable... geometries) {
-        Collections.addAll(this.geometries, geometries);
+        compiled = null;
+        for (Intersectable geometry : geometries) {
+            this.geometries.add(geometry);
+            updateBoundingBox(geometry.getBoundingBox());
+        }
+    }
+
+    /**
+     * Expands the bounding box of the collection with the bounding box of a new geometry.
+     *
+     * @param box The bounding box of the new geometry, null if it is unbounded.
+     */
+    private void updateBoundingBox(BoundingBox box) {
+        if (box == null)
+            unbounded = true;
+        if (unbounded)
+            boundingBox = null;
+        else
+            boundingBox = boundingBox == null ? box : boundingBox.union(box);
+    }
+
+    /**
+     * Reorganizes the collection as a bounding volume hierarchy - a binary tree of bounding boxes,
+     * so a ray checks only the geometries whose boxes it hits.
+     * The tree is built by the surface area heuristic and compacted into a {@link FlatBVH}.
+     *
+     * @return This Geometries object.
+     */
+    public Geometries buildBVH() {
+        return buildBVH(new BVHBuilder(BVHBuilder.Strategy.SAH).setFlat(true));
+    }
+
+    /**
+     * Reorganizes the collection as a bounding volume hierarchy by the given builder.
+     * Nested collections are flattened into the tree and unbounded geometries (e.g. planes) remain in the root.
+     * The statistics of the build are available from the builder afterwards.
+     *
+     * @param builder The builder of the hierarchy.
+     * @return This Geometries object.
+     */
+    public Geometries buildBVH(BVHBuilder builder) {
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unboundedGeometries = new ArrayList<>();
+        collect(bounded, unboundedGeometries);
+
+        geometries.clear();
+        compiled = null;
+        boundingBox = null;
+        unbounded = false;
+        add(unboundedGeometries.toArray(new Intersectable[0]));
+        Intersectable root = builder.build(bounded);
+        if (root != null)
+            add(root);
+        return this;
+    }
+
+    /**
+     * Compiles the collection for the rendering: the geometries of the collection and of the nested collections are
+     * grouped by their kinds, and the spheres, planes, triangles and polygons are packed into arrays of numbers, one
+     * per kind - a ray reads the numbers of a primitive from one array instead of following the references of its
+     * objects, and is checked by the intersection test of the kind instead of a virtual call.
+     * A flat hierarchy of the collection, as built by {@link #buildBVH()}, is compiled as well - the geometries of
+     * every leaf are grouped and packed, so the leaves which a ray reaches are checked by the same batch tests.
+     * The geometries are kept for the materials and the normals of the intersection points.<br>
+     * The closest intersection and the transparency of a ray use the compiled form, all the intersection points are
+     * still found by the geometries. Compiling a compiled collection does nothing, and adding geometries or building
+     * a hierarchy discards the compiled form until the collection is compiled again.
+     * A camera compiles the geometries of its scene when its rendering starts.
+     *
+     * @return This Geometries object.
+     */
+    public synchronized Geometries compile() {
+        if (compiled != null) return this;
+        Intersectable[] array = geometries.toArray(new Intersectable[0]);
+        PackedPrimitives.groupByKind(array, 0, array.length);
+        for (Intersectable geometry : array)
+            if (geometry instanceof Geometries nested)
+                nested.compile();
+            else if (geometry instanceof FlatBVH hierarchy)
+                hierarchy.compile();
+        compiled = new Compiled(array, new PackedPrimitives(array));
+        return this;
+    }
+
+    /**
+     * Collects the geometries of the collection and of all the nested collections.
+     *
+     * @param bounded   The list to collect the bounded geometries into.
+     * @param unbounded The list to collect the unbounded geometries into.
+     */
+    private void collect(List<Intersectable> bounded, List<Intersectable> unbounded) {
+        for (Intersectable geometry : geometries) {
+            if (geometry instanceof Geometries nested)
+                nested.collect(bounded, unbounded);
+            else if (geometry.getBoundingBox() == null)
+                unbounded.add(geometry);
+            else
+                bounded.add(geometry);
+        }
     }
 
     /**
@@ -47,6 +168,8 @@ public class Geometries extends Intersectable {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance){
+        if (boundingBox != null && !boundingBox.intersects(ray, maxDistance))
+            return null;
         List<GeoPoint> intersections = null;
         for (Intersectable intersectable : geometries) {
             List<GeoPoint> geoPoints = intersectable.findGeoIntersectionsHelper(ray,maxDistance);
@@ -60,4 +183,57 @@ public class Geometries extends Intersectable {
             intersections.stream().sorted(Comparator.comparingDouble(p -> p.point.distance(ray.getHead()))).toList();
         return intersections;
     }
+
+    /**
+     * Finds the closest intersection point between the given ray and the geometries in the collection.
+     * The maximal distance shrinks to the closest point found so far.
+     * In a compiled collection the runs of packed geometries are checked by the batch intersection tests of their
+     * kinds, and the point is created only for the closest one.
+     *
+     * @param ray         The ray to find the intersection with.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (boundingBox != null && !boundingBox.intersects(ray, maxDistance))
+            return null;
+        Compiled compiled = this.compiled;
+        if (compiled != null)
+            return compiled.packed().findClosest(compiled.geometries(), 0, compiled.geometries().length, ray,
+                    maxDistance);
+        GeoPoint closest = null;
+        for (Intersectable intersectable : geometries) {
+            GeoPoint gp = intersectable.findClosestGeoIntersectionHelper(ray, maxDistance);
+            if (gp != null && (closest == null || gp.t < closest.t)) {
+                closest = gp;
+                maxDistance = gp.t;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Calculates the transparency of the geometries along a ray, stopping at the first fully opaque geometry.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param ktr         The transparency accumulated before this collection.
+     * @return The transparency accumulated including this collection.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr) {
+        if (boundingBox != null && !boundingBox.intersects(ray, maxDistance))
+            return ktr;
+        Compiled compiled = this.compiled;
+        if (compiled != null)
+            return compiled.packed().findTransparency(compiled.geometries(), 0, compiled.geometries().length, ray,
+                    maxDistance, ktr);
+        for (Intersectable intersectable : geometries) {
+            ktr = intersectable.findTransparencyHelper(ray, maxDistance, ktr);
+            if (ktr.equals(Double3.ZERO))
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
 }
@@ -1,8 +1,10 @@
 package geometries;
 
 import primitives.Color;
+import primitives.Double3;
 import primitives.Material;
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
 /**
@@ -42,6 +44,17 @@ public abstract class Geometry extends Intersectable {
      */
     public abstract Vector getNormal(Point point);
 
+    /**
+     * Calculates and returns the normal vector at an intersection point on the surface of the geometry.
+     * Geometries which are made of several primitives use the primitive of the intersection.
+     *
+     * @param geoPoint The intersection point on the surface of the geometry.
+     * @return The normal vector at the intersection point.
+     */
+    public Vector getNormal(Intersectable.GeoPoint geoPoint) {
+        return getNormal(geoPoint.point);
+    }
+
     /**
      * Sets the material properties of the geometry.
      *
@@ -61,4 +74,20 @@ public abstract class Geometry extends Intersectable {
     public Material getMaterial() {
         return material;
     }
+
+    /**
+     * Calculates the transparency of the geometry along a ray.
+     * An opaque geometry only has to be hit once, so its closest intersection is enough.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param ktr         The transparency accumulated before this geometry.
+     * @return The transparency accumulated including this geometry.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr) {
+        if (material.kT.equals(Double3.ZERO))
+            return findClosestGeoIntersectionHelper(ray, maxDistance) == null ? ktr : Double3.ZERO;
+        return super.findTransparencyHelper(ray, maxDistance, ktr);
+    }
 }
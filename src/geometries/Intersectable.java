@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
@@ -11,12 +12,19 @@ import java.util.Objects;
  * The Intersectable interface represents a geometric object that can be intersected by a ray.
  */
 public abstract class Intersectable {
+    /**
+     * The axis-aligned bounding box of the object, null if the object is unbounded (e.g. a plane)
+     */
+    protected BoundingBox boundingBox = null;
+
     /**
      * Represents a geometric point of intersection between a ray and a geometry.
      */
     public static class GeoPoint {
         public Geometry geometry; // The intersected geometry
         public Point point; // The point of intersection
+        public double t = Double.NaN; // The distance of the point from the head of the ray, NaN if unknown
+        public int primitive = -1; // The index of the intersected primitive within the geometry, e.g. a triangle of a mesh
 
         public Point getPoint() {
             return point;
@@ -33,6 +41,19 @@ public abstract class Intersectable {
             this.point = point;
         }
 
+        /**
+         * Constructs a GeoPoint object with the given geometry, intersection point and its distance along the ray.
+         *
+         * @param geometry The intersected geometry.
+         * @param point    The point of intersection.
+         * @param t        The distance of the point from the head of the ray.
+         */
+        public GeoPoint(Geometry geometry, Point point, double t) {
+            this.geometry = geometry;
+            this.point = point;
+            this.t = t;
+        }
+
         /**
          * Checks if this GeoPoint is equal to another object.
          *
@@ -60,6 +81,15 @@ public abstract class Intersectable {
         }
     }
 
+    /**
+     * Retrieves the axis-aligned bounding box of the object.
+     *
+     * @return The bounding box of the object, or null if the object is unbounded.
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
     /**
      * Finds the intersection points between the geometric object and a given ray.
      *
@@ -109,4 +139,81 @@ public abstract class Intersectable {
      * @return A list of GeoPoint objects representing the intersection points and the intersected geometries.
      */
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance);
+
+    /**
+     * Finds the closest intersection point between the geometric object and a given ray.
+     *
+     * @param ray The ray for which the intersection is to be found.
+     * @return The closest GeoPoint, with its distance from the head of the ray, or null if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the closest intersection point between the geometric object and a given ray
+     * which is at a distance less than or equal to maxDistance.
+     *
+     * @param ray         The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest GeoPoint, with its distance from the head of the ray, or null if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * Helper method to find the closest intersection point between the geometric object and a given ray.
+     * The default implementation picks the closest point of all the intersection points,
+     * geometries which can calculate the closest point directly override it.
+     *
+     * @param ray         The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest GeoPoint, with its distance from the head of the ray, or null if there is none.
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null)
+            return null;
+        GeoPoint closest = null;
+        for (GeoPoint gp : intersections) {
+            gp.t = gp.point.distance(ray.getHead());
+            if (closest == null || gp.t < closest.t)
+                closest = gp;
+        }
+        return closest;
+    }
+
+    /**
+     * Calculates the transparency of the object along a ray - the product of the transparency coefficients (kT)
+     * of all the geometries which the ray crosses up to a maximal distance.
+     * The calculation stops as soon as a fully opaque geometry is found.
+     *
+     * @param ray         The ray, e.g. from a point towards a light source.
+     * @param maxDistance The maximal distance from the head of the ray, e.g. the distance of the light source.
+     * @return The accumulated transparency coefficient, {@link Double3#ZERO} if the ray is fully blocked.
+     */
+    public final Double3 findTransparency(Ray ray, double maxDistance) {
+        return findTransparencyHelper(ray, maxDistance, Double3.ONE);
+    }
+
+    /**
+     * Helper method to calculate the transparency of the object along a ray.
+     * The default implementation multiplies the transparency of every intersection point.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param ktr         The transparency accumulated before this object.
+     * @return The transparency accumulated including this object.
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections != null)
+            for (GeoPoint gp : intersections) {
+                ktr = ktr.product(gp.geometry.getMaterial().kT);
+                if (ktr.equals(Double3.ZERO))
+                    return Double3.ZERO;
+            }
+        return ktr;
+    }
 }
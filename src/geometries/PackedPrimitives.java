@@ -0,0 +1,336 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The PackedPrimitives class is the compiled form of an array of geometries - the numbers of the spheres, the planes,
+ * the triangles and the polygons copied into one array of primitive numbers per kind of geometry, which are
+ * intersected with a ray by the static intersection test of the kind, the same one the geometries use.<br>
+ * The geometries are expected to be grouped by their kinds, so a range of geometries is made of runs of the same kind,
+ * and every run is checked by one batch loop of its intersection test. When the Vector API is available, the
+ * triangles are copied also into columns, and a run of triangles which fills the SIMD lanes of
+ * {@link TriangleBatch} is checked by them instead of a loop.<br>
+ * A geometry is found by its index in the array it was packed from, so the packing sits beside the array and the
+ * geometries themselves are kept for their materials and normals. A range of the array - a whole collection or a leaf
+ * of a hierarchy - is intersected by {@link #findClosest} and {@link #findTransparency}. Only the exact classes are packed - a subclass may
+ * intersect differently, so it and any other geometry is left to its own methods.<br>
+ * A packing is only valid as long as the array of geometries isn't changed.
+ */
+final class PackedPrimitives {
+    /** The kind of a geometry which isn't packed */
+    static final byte OTHER = 0;
+    /** The kind of a sphere - four numbers: the center and the radius */
+    static final byte SPHERE = 1;
+    /** The kind of a plane - six numbers: the normal and the reference point */
+    static final byte PLANE = 2;
+    /** The kind of a triangle - twelve numbers, see {@link Triangle#closestDistance} */
+    static final byte TRIANGLE = 3;
+    /** The kind of a polygon - six numbers and four more per vertex, see {@link Polygon#closestDistance} */
+    static final byte POLYGON = 4;
+
+    /** The kinds of the geometries */
+    private final byte[] kinds;
+    /** The offsets of the numbers of the geometries in the arrays of their kinds */
+    private final int[] offsets;
+    /** The ends of the runs of the geometries - the index after the last geometry of the same kind, for each one */
+    private final int[] runEnds;
+    /** The numbers of the spheres */
+    private final double[] spheres;
+    /** The numbers of the planes */
+    private final double[] planes;
+    /** The numbers of the triangles */
+    private final double[] triangles;
+    /** The numbers of the polygons */
+    private final double[] polygons;
+    /** The numbers of the triangles in columns, for {@link TriangleBatch}, null if it isn't available */
+    private final double[] triangleColumns;
+
+    /**
+     * Packs the geometries of an array.
+     *
+     * @param geometries The geometries.
+     */
+    PackedPrimitives(Intersectable[] geometries) {
+        int n = geometries.length;
+        kinds = new byte[n];
+        offsets = new int[n];
+        runEnds = new int[n];
+        int sphereCount = 0, planeCount = 0, triangleCount = 0, polygonLength = 0;
+        for (int i = 0; i < n; i++) {
+            kinds[i] = kindOf(geometries[i]);
+            switch (kinds[i]) {
+                case SPHERE -> offsets[i] = 4 * sphereCount++;
+                case PLANE -> offsets[i] = 6 * planeCount++;
+                case TRIANGLE -> offsets[i] = 12 * triangleCount++;
+                case POLYGON -> {
+                    offsets[i] = polygonLength;
+                    polygonLength += ((Polygon) geometries[i]).packedLength();
+                }
+                default -> offsets[i] = -1;
+            }
+        }
+        spheres = new double[4 * sphereCount];
+        planes = new double[6 * planeCount];
+        triangles = new double[12 * triangleCount];
+        polygons = new double[polygonLength];
+        for (int i = n - 1; i >= 0; i--)
+            runEnds[i] = i + 1 < n && kinds[i + 1] == kinds[i] ? runEnds[i + 1] : i + 1;
+        for (int i = 0; i < n; i++)
+            switch (kinds[i]) {
+                case SPHERE -> ((Sphere) geometries[i]).pack(spheres, offsets[i]);
+                case PLANE -> ((Plane) geometries[i]).pack(planes, offsets[i]);
+                case TRIANGLE -> ((Triangle) geometries[i]).pack(triangles, offsets[i]);
+                case POLYGON -> ((Polygon) geometries[i]).pack(polygons, offsets[i]);
+                default -> { }
+            }
+        triangleColumns = TriangleBatch.INSTANCE == null || triangleCount == 0 ? null : columns(triangles, 12);
+    }
+
+    /**
+     * Copies numbers of geometries into columns - the first number of every geometry, then the second one, and so on.
+     *
+     * @param rows   The numbers of the geometries, one geometry after another.
+     * @param length The amount of numbers of a geometry.
+     * @return The numbers in columns.
+     */
+    private static double[] columns(double[] rows, int length) {
+        int count = rows.length / length;
+        double[] columns = new double[rows.length];
+        for (int i = 0; i < count; i++)
+            for (int c = 0; c < length; c++)
+                columns[c * count + i] = rows[i * length + c];
+        return columns;
+    }
+
+    /**
+     * Finds the kind of a geometry.
+     *
+     * @param geometry The geometry.
+     * @return The kind of the geometry, {@link #OTHER} if it isn't packed.
+     */
+    static byte kindOf(Intersectable geometry) {
+        Class<?> type = geometry.getClass();
+        if (type == Sphere.class) return SPHERE;
+        if (type == Plane.class) return PLANE;
+        if (type == Triangle.class) return TRIANGLE;
+        if (type == Polygon.class) return POLYGON;
+        return OTHER;
+    }
+
+    /**
+     * Reorders a range of an array of geometries by their kinds, so the geometries of every kind are consecutive
+     * and a loop over the range runs the same kernel again and again.
+     * The order of the geometries of the same kind is kept.
+     *
+     * @param geometries The geometries.
+     * @param first      The index of the first geometry of the range.
+     * @param count      The amount of geometries in the range.
+     */
+    static void groupByKind(Intersectable[] geometries, int first, int count) {
+        Arrays.sort(geometries, first, first + count, Comparator.comparingInt(PackedPrimitives::kindOf));
+    }
+
+    /**
+     * Checks whether a geometry is packed.
+     *
+     * @param index The index of the geometry.
+     * @return True if the geometry is packed, false if it must be intersected by its own methods.
+     */
+    boolean isPacked(int index) {
+        return kinds[index] != OTHER;
+    }
+
+    /**
+     * Finds the end of the run of the geometries of the same kind as a geometry, within a range.
+     *
+     * @param index The index of the geometry.
+     * @param end   The end of the range - the index after its last geometry.
+     * @return The index after the last geometry of the run.
+     */
+    int runEnd(int index, int end) {
+        return Math.min(runEnds[index], end);
+    }
+
+    /**
+     * Finds the packed geometry of a run which a ray intersects closest to its head, by a batch loop of the intersection
+     * test of the kind of the run. The maximal distance shrinks to the closest point found so far.
+     *
+     * @param from        The index of the first geometry of the run, which must be packed.
+     * @param to          The index after the last geometry of the run, see {@link #runEnd(int, int)}.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The index of the closest intersected geometry, -1 if the ray intersects none of the run.
+     */
+    int closest(int from, int to, double ox, double oy, double oz, double dx, double dy, double dz,
+                double maxDistance) {
+        int closest = -1;
+        double closestT = Double.POSITIVE_INFINITY;
+        switch (kinds[from]) {
+            case SPHERE -> {
+                for (int i = from; i < to; i++) {
+                    int o = offsets[i];
+                    double t = Sphere.closestDistance(spheres[o], spheres[o + 1], spheres[o + 2], spheres[o + 3],
+                            ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (t < closestT) {
+                        closest = i;
+                        closestT = maxDistance = t;
+                    }
+                }
+            }
+            case PLANE -> {
+                for (int i = from; i < to; i++) {
+                    int o = offsets[i];
+                    double t = Plane.closestDistance(planes[o], planes[o + 1], planes[o + 2],
+                            planes[o + 3], planes[o + 4], planes[o + 5], ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (t < closestT) {
+                        closest = i;
+                        closestT = maxDistance = t;
+                    }
+                }
+            }
+            case TRIANGLE -> {
+                if (triangleColumns != null && to - from >= TriangleBatch.INSTANCE.lanes()) {
+                    // the triangles of a run are consecutive in the columns
+                    int first = offsets[from] / 12;
+                    int hit = TriangleBatch.INSTANCE.closest(triangleColumns, triangles.length / 12,
+                            first, first + to - from, ox, oy, oz, dx, dy, dz, maxDistance);
+                    return hit < 0 ? -1 : from + hit - first;
+                }
+                for (int i = from; i < to; i++) {
+                    double t = Triangle.closestDistance(triangles, offsets[i], ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (t < closestT) {
+                        closest = i;
+                        closestT = maxDistance = t;
+                    }
+                }
+            }
+            case POLYGON -> {
+                for (int i = from; i < to; i++) {
+                    double t = Polygon.closestDistance(polygons, offsets[i], ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (t < closestT) {
+                        closest = i;
+                        closestT = maxDistance = t;
+                    }
+                }
+            }
+            default -> throw new IllegalStateException("The geometry " + from + " isn't packed");
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the distance of the closest intersection point of a ray with a packed geometry, by the intersection
+     * test of its kind.
+     *
+     * @param index       The index of the geometry, which must be packed.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance of the closest intersection point from the head of the ray, NaN if there is none.
+     */
+    double intersect(int index, double ox, double oy, double oz, double dx, double dy, double dz,
+                     double maxDistance) {
+        int o = offsets[index];
+        return switch (kinds[index]) {
+            case SPHERE -> Sphere.closestDistance(spheres[o], spheres[o + 1], spheres[o + 2], spheres[o + 3],
+                    ox, oy, oz, dx, dy, dz, maxDistance);
+            case PLANE -> Plane.closestDistance(planes[o], planes[o + 1], planes[o + 2], planes[o + 3], planes[o + 4],
+                    planes[o + 5], ox, oy, oz, dx, dy, dz, maxDistance);
+            case TRIANGLE -> Triangle.closestDistance(triangles, o, ox, oy, oz, dx, dy, dz, maxDistance);
+            case POLYGON -> Polygon.closestDistance(polygons, o, ox, oy, oz, dx, dy, dz, maxDistance);
+            default -> throw new IllegalStateException("The geometry " + index + " isn't packed");
+        };
+    }
+
+    /**
+     * Finds the closest intersection point between a ray and a range of the packed array of geometries.
+     * The runs of packed geometries are checked by the batch tests of their kinds, the other geometries by their own
+     * methods, and the maximal distance shrinks to the closest point found so far. The point is created only for the
+     * closest geometry.
+     *
+     * @param geometries  The array of geometries this packing was made of.
+     * @param from        The index of the first geometry of the range.
+     * @param to          The index after the last geometry of the range.
+     * @param ray         The ray to find the intersection with.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or null if there is none.
+     */
+    GeoPoint findClosest(Intersectable[] geometries, int from, int to, Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        GeoPoint closest = null;
+        int closestPacked = -1;
+        double closestT = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; ) {
+            if (isPacked(i)) {
+                int end = runEnd(i, to);
+                int hit = closest(i, end, ox, oy, oz, dx, dy, dz, maxDistance);
+                if (hit >= 0) {
+                    double t = intersect(hit, ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (t < closestT) {
+                        closestPacked = hit;
+                        closestT = maxDistance = t;
+                    }
+                }
+                i = end;
+            } else {
+                GeoPoint gp = geometries[i++].findClosestGeoIntersectionHelper(ray, maxDistance);
+                if (gp != null && gp.t < closestT) {
+                    closest = gp;
+                    closestPacked = -1;
+                    closestT = maxDistance = gp.t;
+                }
+            }
+        }
+        return closestPacked < 0 ? closest
+                : new GeoPoint((Geometry) geometries[closestPacked], ray.getPoint(closestT), closestT);
+    }
+
+    /**
+     * Calculates the transparency of a range of the packed array of geometries along a ray, stopping at the first
+     * fully opaque geometry. An opaque packed geometry is checked by the intersection test of its kind.
+     *
+     * @param geometries  The array of geometries this packing was made of.
+     * @param from        The index of the first geometry of the range.
+     * @param to          The index after the last geometry of the range.
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param ktr         The transparency accumulated before the range.
+     * @return The transparency accumulated including the range.
+     */
+    Double3 findTransparency(Intersectable[] geometries, int from, int to, Ray ray, double maxDistance, Double3 ktr) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        for (int i = from; i < to; i++) {
+            if (isPacked(i) && ((Geometry) geometries[i]).getMaterial().kT.equals(Double3.ZERO)) {
+                if (!Double.isNaN(intersect(i, ox, oy, oz, dx, dy, dz, maxDistance)))
+                    return Double3.ZERO;
+                continue;
+            }
+            ktr = geometries[i].findTransparencyHelper(ray, maxDistance, ktr);
+            if (ktr.equals(Double3.ZERO))
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
+}
@@ -89,20 +89,77 @@ public class Plane extends Geometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
+        GeoPoint gp = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return gp == null ? null : List.of(gp);
+    }
+
+    /**
+     * Finds the intersection point between the plane and a given ray which is at a maximum distance from the head of the ray.
+     * A ray crosses a plane at most once, so it is the closest intersection point.
+     * @param ray The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The intersection point with its distance from the head of the ray, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double t = closestDistance(normal.getX(), normal.getY(), normal.getZ(),
+                referencePoint.getX(), referencePoint.getY(), referencePoint.getZ(),
+                head.getX(), head.getY(), head.getZ(), direction.getX(), direction.getY(), direction.getZ(),
+                maxDistance);
+        return Double.isNaN(t) ? null : new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**
+     * Copies the normal and the reference point of the plane into an array of numbers, for {@link PackedPrimitives}.
+     *
+     * @param data   The array of numbers.
+     * @param offset The index of the first number of the plane.
+     */
+    void pack(double[] data, int offset) {
+        data[offset] = normal.getX();
+        data[offset + 1] = normal.getY();
+        data[offset + 2] = normal.getZ();
+        data[offset + 3] = referencePoint.getX();
+        data[offset + 4] = referencePoint.getY();
+        data[offset + 5] = referencePoint.getZ();
+    }
+
+    /**
+     * Finds the distance of the intersection point of a ray with a plane given by its numbers,
+     * if it is at a maximum distance from the head of the ray.
+     * It is the intersection test of every plane, of its own and of its packed numbers alike.
+     *
+     * @param nx          The x-coordinate of the normal of the plane.
+     * @param ny          The y-coordinate of the normal of the plane.
+     * @param nz          The z-coordinate of the normal of the plane.
+     * @param px          The x-coordinate of the reference point of the plane.
+     * @param py          The y-coordinate of the reference point of the plane.
+     * @param pz          The z-coordinate of the reference point of the plane.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance of the intersection point from the head of the ray, NaN if there is none.
+     */
+    static double closestDistance(double nx, double ny, double nz, double px, double py, double pz,
+                                  double ox, double oy, double oz, double dx, double dy, double dz,
+                                  double maxDistance) {
         // Check if the ray is parallel or almost parallel to the plane
-        if (isZero(normal.dotProduct(ray.getDirection())))
-            return null;
+        double nv = nx * dx + ny * dy + nz * dz;
+        if (isZero(nv))
+            return Double.NaN;
 
         // Calculate the parameter 't' for the intersection point using the plane equation
-        double t = normal.dotProduct(referencePoint.subtract(ray.getHead())) / normal.dotProduct(ray.getDirection());
-
-        // Check if the intersection point is behind the ray or at the origin
-        if (t < 0 || isZero(t))
-            return null;
+        double t = (nx * (px - ox) + ny * (py - oy) + nz * (pz - oz)) / nv;
 
-        // Return a list containing the intersection point
-        if(alignZero(t-maxDistance) <=0)
-            return List.of(new GeoPoint(this, ray.getPoint(t)));
-        return null;
+        // Check if the intersection point is behind the ray or at the origin, or farther than maxDistance
+        if (t < 0 || isZero(t) || alignZero(t - maxDistance) > 0)
+            return Double.NaN;
+        return t;
     }
 }
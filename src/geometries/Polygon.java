@@ -1,6 +1,5 @@
 package geometries;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.alignZero;
@@ -8,7 +7,6 @@ import static primitives.Util.isZero;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Util;
 import primitives.Vector;
 
 /**
@@ -23,6 +21,13 @@ public class Polygon extends Geometry {
     protected final Plane       plane;
     /** The size of the polygon - the amount of the vertices in the polygon */
     private final int           size;
+    /**
+     * The numbers of the polygon - the coordinates of the normal of the polygon, their product with the first vertex,
+     * the axis which is dropped when the polygon is projected onto a coordinate plane (0 - x, 1 - y, 2 - z) and the
+     * size, followed by the projected coordinates of the vertices (all the u's, then all the v's) and the projected
+     * edges from each vertex to the next one (likewise) - null for a triangle, which has numbers of its own
+     */
+    private final double[]      projection;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -46,6 +51,20 @@ public class Polygon extends Geometry {
      *                                  </ul>
      */
     public Polygon(Point... vertices) {
+        this(true, vertices);
+    }
+
+    /**
+     * Polygon constructor for the subclasses, which may test the intersections by numbers of their own
+     * and then need no projection of the polygon.
+     * @param  projected                whether the projection of the polygon is calculated for the
+     *                                  intersection test of the polygon
+     * @param  vertices                 list of vertices according to their order by
+     *                                  edge path
+     * @throws IllegalArgumentException in any case of illegal combination of
+     *                                  vertices, see {@link #Polygon(Point...)}
+     */
+    protected Polygon(boolean projected, Point... vertices) {
         if (vertices.length < 3)
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         this.vertices = List.of(vertices);
@@ -55,6 +74,9 @@ public class Polygon extends Geometry {
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane         = new Plane(vertices[0], vertices[1], vertices[2]);
+        boundingBox   = BoundingBox.of(this.vertices);
+
+        projection    = projected ? project(this.vertices, plane.getNormal()) : null;
         if (size == 3) return; // no need for more tests for a Triangle
 
         Vector  n        = plane.getNormal();
@@ -84,6 +106,39 @@ public class Polygon extends Geometry {
 
     }
 
+    /**
+     * Calculates the projection of a polygon, see {@link #projection}.
+     *
+     * @param vertices The vertices of the polygon.
+     * @param normal   The normal of the polygon.
+     * @return The numbers of the projection.
+     */
+    private static double[] project(List<Point> vertices, Vector normal) {
+        int     size = vertices.size();
+        // Project the polygon onto the coordinate plane where its area is the largest,
+        // by dropping the axis of the largest coordinate of the normal
+        double  nx = normal.getX(), ny = normal.getY(), nz = normal.getZ();
+        double  ax = Math.abs(nx), ay = Math.abs(ny), az = Math.abs(nz);
+        int     droppedAxis = ax >= ay && ax >= az ? 0 : ay >= az ? 1 : 2;
+        double[] projection = new double[6 + 4 * size];
+        projection[0]       = nx;
+        projection[1]       = ny;
+        projection[2]       = nz;
+        projection[3]       = nx * vertices.get(0).getX() + ny * vertices.get(0).getY() + nz * vertices.get(0).getZ();
+        projection[4]       = droppedAxis;
+        projection[5]       = size;
+        int     us = 6, vs = us + size, edgeUs = vs + size, edgeVs = edgeUs + size;
+        for (int i = 0; i < size; ++i) {
+            projection[us + i] = droppedAxis == 0 ? vertices.get(i).getY() : vertices.get(i).getX();
+            projection[vs + i] = droppedAxis == 2 ? vertices.get(i).getY() : vertices.get(i).getZ();
+        }
+        for (int i = 0; i < size; ++i) {
+            projection[edgeUs + i] = projection[us + (i + 1) % size] - projection[us + i];
+            projection[edgeVs + i] = projection[vs + (i + 1) % size] - projection[vs + i];
+        }
+        return projection;
+    }
+
     /**
      * Gets the normal vector of the convex polygon at a given point. Since the convex polygon lies on a plane,
      * the normal vector is the same as the normal vector of the plane containing the polygon.
@@ -104,37 +159,89 @@ public class Polygon extends Geometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance){
-        // Find intersections with the plane containing the polygon.
-        List<Point> intersectionPoint = plane.findIntersections(ray,maxDistance);
-
-        // If there are no intersections with the plane, return null.
-        if (intersectionPoint == null)
-            return null;
-
-        // Create a list to store vectors from the ray's head to each vertex of the polygon.
-        List<Vector> vectorsList = new LinkedList<>();
-        for (Point vertex : vertices)
-            vectorsList.add(vertex.subtract(ray.getHead()));
-
-        // Create a list to store normals of the edges formed by consecutive vectors.
-        List<Vector> normals = new LinkedList<>();
-        for (int i = 0; i < vectorsList.size(); i++)
-            normals.add(vectorsList.get(i).crossProduct(vectorsList.get((i + 1) % vectorsList.size())));
+        GeoPoint gp = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return gp == null ? null : List.of(gp);
+    }
 
-        // Initialize a flag to check if all normals have the same sign with respect to the ray's direction.
-        boolean flag = true;
+    /**
+     * Finds the intersection point between the polygon and a given ray which is at a maximum distance from the head of the ray.
+     * A ray crosses a polygon at most once, so it is the closest intersection point.
+     * The inside test is done on the polygon projected onto a coordinate plane, with the precomputed edges.
+     * @param ray The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The intersection point with its distance from the head of the ray, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double t = closestDistance(projection, 0, head.getX(), head.getY(), head.getZ(),
+                direction.getX(), direction.getY(), direction.getZ(), maxDistance);
+        return Double.isNaN(t) ? null : new GeoPoint(this, ray.getPoint(t), t);
+    }
 
-        // Check the sign consistency of the dot products between each normal and the ray's direction.
-        for (int i = 0; i < normals.size(); i++)
-            if (!Util.compareSign(normals.get(i).dotProduct(ray.getDirection()), normals.get((i + 1) % normals.size()).dotProduct(ray.getDirection())))
-                flag = false;
+    /**
+     * Copies the numbers of the polygon into an array of numbers, for {@link PackedPrimitives}.
+     *
+     * @param data   The array of numbers.
+     * @param offset The index of the first number of the polygon.
+     */
+    void pack(double[] data, int offset) {
+        System.arraycopy(projection, 0, data, offset, projection.length);
+    }
 
-        // If all dot products have the same sign, return the intersection points.
-        if (flag)
-            return List.of(new GeoPoint(this,intersectionPoint.getFirst()));
+    /**
+     * The amount of the numbers of the polygon.
+     *
+     * @return The amount of the numbers of the polygon.
+     */
+    int packedLength() {
+        return projection.length;
+    }
 
-        // If the signs are inconsistent, return null.
-        return null;
+    /**
+     * Finds the distance of the intersection point of a ray with a polygon given by its numbers,
+     * if it is at a maximum distance from the head of the ray.
+     * The inside test is done on the polygon projected onto a coordinate plane, with the precomputed edges.
+     * It is the intersection test of every polygon, of its own and of its packed numbers alike.
+     *
+     * @param data        The array of the numbers of the polygon, laid out as in a polygon.
+     * @param o           The index of the first number of the polygon.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance of the intersection point from the head of the ray, NaN if there is none.
+     */
+    static double closestDistance(double[] data, int o, double ox, double oy, double oz,
+                                  double dx, double dy, double dz, double maxDistance) {
+        // Find the intersection with the plane containing the polygon.
+        double nx = data[o], ny = data[o + 1], nz = data[o + 2];
+        double denominator = nx * dx + ny * dy + nz * dz;
+        if (isZero(denominator))
+            return Double.NaN;
+        double t = (data[o + 3] - nx * ox - ny * oy - nz * oz) / denominator;
+        if (t < 0 || isZero(t) || alignZero(t - maxDistance) > 0)
+            return Double.NaN;
+
+        // Project the intersection point the same way as the vertices.
+        int droppedAxis = (int) data[o + 4], size = (int) data[o + 5];
+        double x = ox + t * dx, y = oy + t * dy, z = oz + t * dz;
+        double u = droppedAxis == 0 ? y : x;
+        double v = droppedAxis == 2 ? y : z;
+
+        // The point is inside the convex polygon if it is strictly on the same side of all the edges.
+        int us = o + 6, vs = us + size, edgeUs = vs + size, edgeVs = edgeUs + size;
+        boolean positive = data[edgeUs] * (v - data[vs]) - data[edgeVs] * (u - data[us]) > 0;
+        for (int i = 0; i < size; ++i) {
+            double side = data[edgeUs + i] * (v - data[vs + i]) - data[edgeVs + i] * (u - data[us + i]);
+            if (side == 0 || (side > 0) != positive)
+                return Double.NaN;
+        }
+        return t;
     }
 
 }
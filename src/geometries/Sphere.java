@@ -15,6 +15,7 @@ import java.util.List;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
+import static primitives.VectorMath.dotDifference;
 
 /**
  * The Sphere class represents a three-dimensional spherical geometry.
@@ -36,6 +37,8 @@ public class Sphere extends RadialGeometry {
     public Sphere(double radius, Point center) {
         super(radius);
         this.center = center;
+        boundingBox = new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
     }
 
     /**
@@ -58,12 +61,12 @@ public class Sphere extends RadialGeometry {
      */
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
         double d = 0, tm = 0;
+        Point head = ray.getHead();
         //if head is not the center, calculate tm (the scaling product to get to the point in the middle of the ray part inside the sphere)
         //and d (tm point's distance from center)
-        if (!ray.getHead().equals(center)) {
-            Vector vector = center.subtract(ray.getHead());
-            tm = alignZero(ray.getDirection().dotProduct(vector));
-            d = alignZero(Math.sqrt(vector.lengthSquared() - tm * tm));
+        if (!head.equals(center)) {
+            tm = alignZero(dotDifference(ray.getDirection(), center, head));
+            d = alignZero(Math.sqrt(center.distanceSquared(head) - tm * tm));
         }
 
         if (d < radius) {    //if the ray is inside the sphere
@@ -75,7 +78,7 @@ public class Sphere extends RadialGeometry {
                 Point p1 = ray.getPoint(t1);
                 if (t2 > 0 && alignZero(t2-maxDistance)<=0) {   //if t2 is in the ray's direction
                     Point p2 = ray.getPoint(t2);
-                    if (p1.distance(ray.getHead()) < p2.distance(ray.getHead()))
+                    if (p1.distanceSquared(head) < p2.distanceSquared(head))
                         return List.of(new GeoPoint(this, p1), new GeoPoint(this, p2));
                     return List.of(new GeoPoint(this, p2), new GeoPoint(this, p1));
                 }
@@ -88,4 +91,74 @@ public class Sphere extends RadialGeometry {
         }
         return null;
     }
+
+    /**
+     * Finds the closest intersection point between the given ray and the sphere which is at a maximum distance from the head of the ray.
+     * @param ray The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point with its distance from the head of the ray, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double t = closestDistance(center.getX(), center.getY(), center.getZ(), radius,
+                head.getX(), head.getY(), head.getZ(), direction.getX(), direction.getY(), direction.getZ(),
+                maxDistance);
+        return Double.isNaN(t) ? null : new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**
+     * Copies the center and the radius of the sphere into an array of numbers, for {@link PackedPrimitives}.
+     *
+     * @param data   The array of numbers.
+     * @param offset The index of the first number of the sphere.
+     */
+    void pack(double[] data, int offset) {
+        data[offset] = center.getX();
+        data[offset + 1] = center.getY();
+        data[offset + 2] = center.getZ();
+        data[offset + 3] = radius;
+    }
+
+    /**
+     * Finds the distance of the closest intersection point of a ray with a sphere given by its numbers,
+     * which is at a maximum distance from the head of the ray.
+     * It is the intersection test of every sphere, of its own and of its packed numbers alike.
+     *
+     * @param cx          The x-coordinate of the center of the sphere.
+     * @param cy          The y-coordinate of the center of the sphere.
+     * @param cz          The z-coordinate of the center of the sphere.
+     * @param radius      The radius of the sphere.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance of the closest intersection point from the head of the ray, NaN if there is none.
+     */
+    static double closestDistance(double cx, double cy, double cz, double radius,
+                                  double ox, double oy, double oz, double dx, double dy, double dz,
+                                  double maxDistance) {
+        // The vector from the head of the ray to the center
+        double lx = cx - ox, ly = cy - oy, lz = cz - oz;
+        double d = 0, tm = 0;
+        if (!(isZero(lx) && isZero(ly) && isZero(lz))) {
+            tm = alignZero(dx * lx + dy * ly + dz * lz);
+            d = alignZero(Math.sqrt(lx * lx + ly * ly + lz * lz - tm * tm));
+        }
+        if (d >= radius)
+            return Double.NaN;
+        double th = alignZero(Math.sqrt(radius * radius - d * d));
+        // t2 is never farther than t1, so it is the closest point whenever it is in the ray's direction
+        double t2 = tm - th;
+        if (t2 > 0 && alignZero(t2 - maxDistance) <= 0)
+            return t2;
+        double t1 = tm + th;
+        if (t1 > 0 && alignZero(t1 - maxDistance) <= 0)
+            return t1;
+        return Double.NaN;
+    }
 }
@@ -2,12 +2,9 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Util;
 import primitives.Vector;
 
-import java.util.LinkedList;
-import java.util.List;
-
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -16,56 +13,115 @@ import static primitives.Util.isZero;
  */
 public class Triangle extends Polygon {
 
+    /**
+     * The numbers of the triangle - the coordinates of the first vertex, of the edge from it to the second vertex,
+     * of the edge from it to the third vertex and of the normal of the triangle
+     */
+    private final double[] numbers;
+
     /**
      * Constructs a Triangle with three specified vertices.
+     * The edges are calculated once, so the intersection test needs no allocations, and the projection of
+     * the polygon isn't calculated, since a triangle is intersected by these numbers only.
      *
      * @param vertex1 The first vertex of the triangle.
      * @param vertex2 The second vertex of the triangle.
      * @param vertex3 The third vertex of the triangle.
      */
     public Triangle(Point vertex1, Point vertex2, Point vertex3) {
-        super(vertex1, vertex2, vertex3);
+        super(false, vertex1, vertex2, vertex3);
+        double x0 = vertex1.getX(), y0 = vertex1.getY(), z0 = vertex1.getZ();
+        Vector normal = plane.getNormal();
+        numbers = new double[] {
+                x0, y0, z0,
+                vertex2.getX() - x0, vertex2.getY() - y0, vertex2.getZ() - z0,
+                vertex3.getX() - x0, vertex3.getY() - y0, vertex3.getZ() - z0,
+                normal.getX(), normal.getY(), normal.getZ() };
+    }
+
+    /**
+     * Finds the intersection point between the given ray and the triangle which is at a maximum distance from the head of the ray.
+     * A point on an edge or a vertex is not an intersection.
+     * @param ray The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The intersection point with its distance from the head of the ray, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double t = closestDistance(numbers, 0, head.getX(), head.getY(), head.getZ(),
+                direction.getX(), direction.getY(), direction.getZ(), maxDistance);
+        return Double.isNaN(t) ? null : new GeoPoint(this, ray.getPoint(t), t);
     }
 
     /**
-     * Finds the intersection points between the given ray and the triangle which are at a maximum distance from the head of the ray.
-     * @param ray The ray for which intersections are to be found.
-     * @param maxDistance
-     * @return  A list of intersection points if they exist, or null if no intersections are found.
+     * Copies the numbers of the triangle into an array of numbers, for {@link PackedPrimitives}.
+     *
+     * @param data   The array of numbers.
+     * @param offset The index of the first number of the triangle.
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance){
-        // Find intersections with the plane containing the polygon.
-        List<Point> intersectionPoint = plane.findIntersections(ray,maxDistance);
+    void pack(double[] data, int offset) {
+        System.arraycopy(numbers, 0, data, offset, numbers.length);
+    }
 
-        // If there are no intersections with the plane, return null.
-        if (intersectionPoint == null)
-            return null;
-        Point point=intersectionPoint.getFirst();
-        // Create a list to store vectors from the ray's head to each vertex of the polygon.
-        List<Vector> vectorsList = new LinkedList<>();
-        for (Point vertex : vertices)
-            vectorsList.add(vertex.subtract(ray.getHead()));
+    /**
+     * The amount of the numbers of the triangle.
+     *
+     * @return The amount of the numbers of the triangle.
+     */
+    @Override
+    int packedLength() {
+        return numbers.length;
+    }
 
-        // Create a list to store normals of the edges formed by consecutive vectors.
-        List<Vector> normals = new LinkedList<>();
-        for (int i = 0; i < 3; i++)
-            normals.add(vectorsList.get(i).crossProduct(vectorsList.get((i + 1) % vectorsList.size())));
+    /**
+     * Finds the distance of the intersection point of a ray with a triangle given by its numbers,
+     * if it is at a maximum distance from the head of the ray.
+     * The point is found by the Moller-Trumbore algorithm - the barycentric coordinates of the point and its distance
+     * are solved together from the precomputed edges.
+     * It is the intersection test of every triangle, of its own and of its packed numbers alike.
+     *
+     * @param data        The array of the numbers of the triangle, laid out as in a triangle.
+     * @param o           The index of the first number of the triangle.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance of the intersection point from the head of the ray, NaN if there is none.
+     */
+    static double closestDistance(double[] data, int o, double ox, double oy, double oz,
+                                  double dx, double dy, double dz, double maxDistance) {
+        // The ray is parallel or almost parallel to the triangle
+        if (isZero(data[o + 9] * dx + data[o + 10] * dy + data[o + 11] * dz))
+            return Double.NaN;
+        double e1x = data[o + 3], e1y = data[o + 4], e1z = data[o + 5];
+        double e2x = data[o + 6], e2y = data[o + 7], e2z = data[o + 8];
 
-        // Initialize a flag to check if all normals have the same sign with respect to the ray's direction.
-        boolean flag = true;
+        // p = direction x e2, det = e1 . p
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double inverse = 1 / (e1x * px + e1y * py + e1z * pz);
 
-        // Check the sign consistency of the dot products between each normal and the ray's direction.
-        for (int i = 0; i < 3; i++)
-            if (!Util.compareSign(normals.get(i).dotProduct(ray.getDirection()), normals.get((i + 1) % normals.size()).dotProduct(ray.getDirection())))
-                flag = false;
+        // s = head - first vertex, u = s . p / det
+        double sx = ox - data[o], sy = oy - data[o + 1], sz = oz - data[o + 2];
+        double u = (sx * px + sy * py + sz * pz) * inverse;
+        if (u <= 0)
+            return Double.NaN;
 
-        // If all dot products have the same sign, return the intersection points.
-        if (flag)
-            return List.of(new GeoPoint(this, point));
+        // q = s x e1, v = direction . q / det
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inverse;
+        if (v <= 0 || u + v >= 1)
+            return Double.NaN;
 
-        // If the signs are inconsistent, return null.
-        return null;
+        // t = e2 . q / det, the point must be in the ray's direction and not farther than maxDistance
+        double t = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+        if (t < 0 || isZero(t) || alignZero(t - maxDistance) > 0)
+            return Double.NaN;
+        return t;
     }
-
 }
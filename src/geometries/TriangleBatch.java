@@ -0,0 +1,61 @@
+package geometries;
+
+/**
+ * The TriangleBatch interface is an intersection test of a ray with several triangles at once, by the SIMD lanes of
+ * the CPU. The triangles are given by their numbers in columns - the twelve numbers of {@link Triangle#closestDistance}
+ * of all the triangles, one column after another, so the same number of consecutive triangles is loaded into the
+ * lanes of a vector at once.<br>
+ * The implementation is written with the Vector API of the incubator module {@code jdk.incubator.vector}, in the source
+ * folder {@code src-vector}, which is compiled and run with {@code --add-modules jdk.incubator.vector}. It is loaded
+ * only when the module is present - otherwise {@link #INSTANCE} is null and the triangles are intersected one by one
+ * by {@link Triangle#closestDistance}, which stays the definition of the test.
+ */
+interface TriangleBatch {
+    /** The batch test of the running JVM, null if the Vector API isn't available */
+    TriangleBatch INSTANCE = load();
+
+    /**
+     * The amount of triangles which are tested at once. A shorter run of triangles, such as a leaf of a hierarchy,
+     * fills too few lanes to gain on the loop of {@link Triangle#closestDistance}.
+     *
+     * @return The amount of lanes.
+     */
+    int lanes();
+
+    /**
+     * Finds the triangle of a range which a ray intersects closest to its head. Every triangle is tested exactly as
+     * {@link Triangle#closestDistance} tests it, and of triangles at the same distance the first one is found.
+     *
+     * @param columns     The numbers of the triangles, in twelve columns of count numbers each.
+     * @param count       The amount of triangles in the columns.
+     * @param first       The index of the first triangle of the range.
+     * @param end         The index after the last triangle of the range.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The index of the closest intersected triangle, -1 if the ray intersects none of the range.
+     */
+    int closest(double[] columns, int count, int first, int end, double ox, double oy, double oz,
+                double dx, double dy, double dz, double maxDistance);
+
+    /**
+     * Loads the implementation by the Vector API, if its module is present.
+     * The implementation is loaded by its name, so this interface doesn't depend on the incubator module.
+     *
+     * @return The batch test, null if the module or the implementation is missing.
+     */
+    private static TriangleBatch load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return null;
+        try {
+            return (TriangleBatch) Class.forName("geometries.VectorTriangleBatch").getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * The TriangleMesh class represents a surface made of many triangles which share their vertices.
+ * The vertices are kept in a single array of coordinates and the triangles in an array of vertex indices,
+ * so a triangle costs a few numbers instead of a {@link Triangle} object with its own points and plane.
+ * All the triangles of the mesh share the material and the emission of the mesh.
+ * A mesh may also have a normal per vertex, which are interpolated over the triangles for smooth shading.
+ * The triangles are intersected through an internal flat bounding volume hierarchy over their indices.
+ * <p>
+ * For meshes of millions of triangles the vertices, the normals and the bounds of the hierarchy may be stored in
+ * single precision, which halves their memory and the memory traffic of the traversal. The bounds are then rounded
+ * outwards, so a box always contains its triangles, and the edges of the triangles are widened by a tiny epsilon,
+ * so a ray which passes exactly between two neighbouring triangles hits both of them instead of slipping through.
+ * The calculations themselves are always done in double precision.
+ */
+public class TriangleMesh extends Geometry {
+    /** The tolerance of the edge tests of the triangles in single precision, in barycentric coordinates */
+    private static final double EDGE_EPSILON = 1e-7;
+
+    /** The coordinates of the vertices - three numbers per vertex, null in single precision */
+    private final double[] positions;
+    /** The coordinates of the vertices in single precision, null in double precision */
+    private final float[] floatPositions;
+    /** The normals of the vertices - three numbers per vertex, null for flat triangles or in single precision */
+    private final double[] normals;
+    /** The normals of the vertices in single precision, null for flat triangles or in double precision */
+    private final float[] floatNormals;
+    /** The indices of the vertices of the triangles - three indices per triangle, ordered by the leaves */
+    private final int[] indices;
+    /** The bounds of the nodes of the hierarchy, see {@link FlatBVH}, null in single precision */
+    private final double[] bounds;
+    /** The bounds of the nodes of the hierarchy rounded outwards to single precision, null in double precision */
+    private final float[] floatBounds;
+    /** The offsets of the nodes of the hierarchy, see {@link FlatBVH} */
+    private final int[] offsets;
+    /** The traversal stack of each thread, as deep as the tree */
+    private final ThreadLocal<int[]> stacks;
+
+    /**
+     * Constructs a mesh from its vertices and triangles.
+     * The array of coordinates is used by the mesh as is, and must not be changed afterwards.
+     *
+     * @param positions The coordinates of the vertices - x, y and z of each vertex.
+     * @param indices   The indices of the vertices of the triangles - three indices per triangle,
+     *                  ordered like the vertices of a {@link Triangle}.
+     * @throws IllegalArgumentException if the arrays are not made of triples, there are no triangles
+     *                                  or an index is not of a vertex.
+     */
+    public TriangleMesh(double[] positions, int[] indices) {
+        this(positions, null, indices);
+    }
+
+    /**
+     * Constructs a mesh from its vertices, the normals of its vertices and its triangles.
+     * The arrays of coordinates and normals are used by the mesh as is, and must not be changed afterwards.
+     *
+     * @param positions The coordinates of the vertices - x, y and z of each vertex.
+     * @param normals   The normals of the vertices - x, y and z of each vertex, null for flat triangles.
+     * @param indices   The indices of the vertices of the triangles - three indices per triangle,
+     *                  ordered like the vertices of a {@link Triangle}.
+     * @throws IllegalArgumentException if the arrays are not made of triples, there are no triangles,
+     *                                  an index is not of a vertex or there is not a normal for every vertex.
+     */
+    public TriangleMesh(double[] positions, double[] normals, int[] indices) {
+        this(positions, null, normals, null, indices);
+    }
+
+    /**
+     * Constructs a mesh from its vertices and triangles, stored in single precision.
+     * The array of coordinates is used by the mesh as is, and must not be changed afterwards.
+     *
+     * @param positions The coordinates of the vertices - x, y and z of each vertex.
+     * @param indices   The indices of the vertices of the triangles - three indices per triangle,
+     *                  ordered like the vertices of a {@link Triangle}.
+     * @throws IllegalArgumentException if the arrays are not made of triples, there are no triangles
+     *                                  or an index is not of a vertex.
+     */
+    public TriangleMesh(float[] positions, int[] indices) {
+        this(positions, null, indices);
+    }
+
+    /**
+     * Constructs a mesh from its vertices, the normals of its vertices and its triangles, stored in single precision.
+     * The arrays of coordinates and normals are used by the mesh as is, and must not be changed afterwards.
+     *
+     * @param positions The coordinates of the vertices - x, y and z of each vertex.
+     * @param normals   The normals of the vertices - x, y and z of each vertex, null for flat triangles.
+     * @param indices   The indices of the vertices of the triangles - three indices per triangle,
+     *                  ordered like the vertices of a {@link Triangle}.
+     * @throws IllegalArgumentException if the arrays are not made of triples, there are no triangles,
+     *                                  an index is not of a vertex or there is not a normal for every vertex.
+     */
+    public TriangleMesh(float[] positions, float[] normals, int[] indices) {
+        this(null, positions, null, normals, indices);
+    }
+
+    /**
+     * Constructs a mesh in double precision or in single precision - exactly one of the arrays of the coordinates
+     * is given, and the normals, if any, are given in the same precision.
+     *
+     * @param positions      The coordinates of the vertices in double precision, null in single precision.
+     * @param floatPositions The coordinates of the vertices in single precision, null in double precision.
+     * @param normals        The normals of the vertices in double precision, null if there are none.
+     * @param floatNormals   The normals of the vertices in single precision, null if there are none.
+     * @param indices        The indices of the vertices of the triangles.
+     * @throws IllegalArgumentException if the arrays are not made of triples, there are no triangles,
+     *                                  an index is not of a vertex or there is not a normal for every vertex.
+     */
+    private TriangleMesh(double[] positions, float[] floatPositions, double[] normals, float[] floatNormals,
+                         int[] indices) {
+        int length = positions != null ? positions.length : floatPositions.length;
+        if ((normals != null && normals.length != length) || (floatNormals != null && floatNormals.length != length))
+            throw new IllegalArgumentException("A mesh must have a normal for every vertex");
+        if (length % 3 != 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("The coordinates and the indices of a mesh must be triples");
+        if (indices.length == 0)
+            throw new IllegalArgumentException("A mesh must have at least one triangle");
+        int vertices = length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertices)
+                throw new IllegalArgumentException("The index " + index + " is not of a vertex of the mesh");
+        this.positions = positions;
+        this.floatPositions = floatPositions;
+        this.normals = normals;
+        this.floatNormals = floatNormals;
+
+        int size = indices.length / 3;
+        double[] boxes = new double[size * 6];
+        for (int i = 0; i < size; i++)
+            for (int axis = 0; axis < 3; axis++) {
+                double a = position(indices[3 * i] * 3 + axis);
+                double b = position(indices[3 * i + 1] * 3 + axis);
+                double c = position(indices[3 * i + 2] * 3 + axis);
+                boxes[i * 6 + axis] = Math.min(a, Math.min(b, c));
+                boxes[i * 6 + 3 + axis] = Math.max(a, Math.max(b, c));
+            }
+        BVHBuilder.Layout layout = new BVHBuilder(BVHBuilder.Strategy.SAH).buildLayout(boxes);
+
+        // keep the triangles in the order of the leaves, so a leaf is a range of the indices
+        this.indices = new int[indices.length];
+        for (int i = 0; i < size; i++)
+            System.arraycopy(indices, layout.order()[i] * 3, this.indices, i * 3, 3);
+        double[] layoutBounds = layout.bounds();
+        if (positions != null) {
+            bounds = layoutBounds;
+            floatBounds = null;
+        } else {
+            bounds = null;
+            floatBounds = new float[layoutBounds.length];
+            for (int i = 0; i < layoutBounds.length; i += 6)
+                for (int axis = 0; axis < 3; axis++) {
+                    floatBounds[i + axis] = roundDown(layoutBounds[i + axis]);
+                    floatBounds[i + 3 + axis] = roundUp(layoutBounds[i + 3 + axis]);
+                }
+        }
+        offsets = layout.offsets();
+        int depth = layout.depth();
+        stacks = ThreadLocal.withInitial(() -> new int[depth + 1]);
+        boundingBox = new BoundingBox(layoutBounds[0], layoutBounds[1], layoutBounds[2],
+                layoutBounds[3], layoutBounds[4], layoutBounds[5]);
+    }
+
+    /**
+     * Rounds a minimal bound down to single precision, and one more step down so the box test of the traversal,
+     * which is not exact, can't miss a triangle on the boundary of the box.
+     *
+     * @param value The bound.
+     * @return The rounded bound, not bigger than the bound.
+     */
+    private static float roundDown(double value) {
+        float rounded = (float) value;
+        return Math.nextDown(rounded > value ? Math.nextDown(rounded) : rounded);
+    }
+
+    /**
+     * Rounds a maximal bound up to single precision, and one more step up, see {@link #roundDown(double)}.
+     *
+     * @param value The bound.
+     * @return The rounded bound, not smaller than the bound.
+     */
+    private static float roundUp(double value) {
+        float rounded = (float) value;
+        return Math.nextUp(rounded < value ? Math.nextUp(rounded) : rounded);
+    }
+
+    /**
+     * Retrieves a coordinate of a vertex, in the precision in which the mesh is stored.
+     *
+     * @param index The index of the coordinate - three times the index of the vertex plus the axis.
+     * @return The coordinate.
+     */
+    private double position(int index) {
+        return positions != null ? positions[index] : floatPositions[index];
+    }
+
+    /**
+     * Retrieves a coordinate of the normal of a vertex, in the precision in which the mesh is stored.
+     *
+     * @param index The index of the coordinate - three times the index of the vertex plus the axis.
+     * @return The coordinate.
+     */
+    private double normal(int index) {
+        return normals != null ? normals[index] : floatNormals[index];
+    }
+
+    /**
+     * Checks whether the mesh is stored in single precision.
+     *
+     * @return True if the vertices, the normals and the bounds are stored in single precision, false otherwise.
+     */
+    public boolean isSinglePrecision() {
+        return positions == null;
+    }
+
+    /**
+     * Retrieves the amount of triangles in the mesh.
+     *
+     * @return The amount of triangles.
+     */
+    public int size() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Calculates the normal of the mesh at a point on its surface.
+     * The triangle of the point is searched through the hierarchy - it is the triangle which contains the point,
+     * the nearest one to its plane if the point is on an edge of several triangles - and its normal is calculated
+     * like by {@link #getNormal(GeoPoint)}. An intersection point knows its triangle, so its normal should be
+     * calculated by {@link #getNormal(GeoPoint)}, without the search.
+     *
+     * @param point The point on the surface.
+     * @return The normal at the point.
+     * @throws IllegalArgumentException if the point is not on the surface of the mesh.
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        int triangle = findTriangle(point);
+        if (triangle < 0)
+            throw new IllegalArgumentException("The point is not on the surface of the mesh");
+        return triangleNormal(triangle, point);
+    }
+
+    /**
+     * Calculates the normal of the triangle of an intersection point.
+     * Without normals of the vertices, the normal is directed like the normal of a {@link Triangle} with the
+     * same vertices. Otherwise, the normals of the vertices are interpolated by the barycentric coordinates of the point.
+     *
+     * @param geoPoint The intersection point, with the index of its triangle.
+     * @return The normal at the point.
+     */
+    @Override
+    public Vector getNormal(GeoPoint geoPoint) {
+        return triangleNormal(geoPoint.primitive, geoPoint.point);
+    }
+
+    /**
+     * Calculates the normal of a triangle of the mesh at a point on it, see {@link #getNormal(GeoPoint)}.
+     *
+     * @param triangle The index of the triangle.
+     * @param point    The point on the triangle.
+     * @return The normal at the point.
+     */
+    private Vector triangleNormal(int triangle, Point point) {
+        int a = indices[triangle * 3] * 3;
+        int b = indices[triangle * 3 + 1] * 3;
+        int c = indices[triangle * 3 + 2] * 3;
+        double ax = position(a), ay = position(a + 1), az = position(a + 2);
+        double e1x = position(b) - ax, e1y = position(b + 1) - ay, e1z = position(b + 2) - az;
+        double e2x = position(c) - ax, e2y = position(c + 1) - ay, e2z = position(c + 2) - az;
+        if (normals != null || floatNormals != null) {
+            double px = point.getX() - ax, py = point.getY() - ay, pz = point.getZ() - az;
+            double d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+            double d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+            double d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+            double dp1 = px * e1x + py * e1y + pz * e1z;
+            double dp2 = px * e2x + py * e2y + pz * e2z;
+            double denominator = d11 * d22 - d12 * d12;
+            double v = (d22 * dp1 - d12 * dp2) / denominator;
+            double w = (d11 * dp2 - d12 * dp1) / denominator;
+            double u = 1 - v - w;
+            double nx = u * normal(a) + v * normal(b) + w * normal(c);
+            double ny = u * normal(a + 1) + v * normal(b + 1) + w * normal(c + 1);
+            double nz = u * normal(a + 2) + v * normal(b + 2) + w * normal(c + 2);
+            // opposite normals of the vertices may cancel each other - the triangle itself decides then
+            if (!isZero(nx * nx + ny * ny + nz * nz))
+                return new Vector(nx, ny, nz).normalize();
+        }
+        return new Vector(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x).normalize();
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = new ArrayList<>();
+        traverse(ray, maxDistance, false, intersections);
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        return traverse(ray, maxDistance, false, null);
+    }
+
+    /**
+     * Calculates the transparency of the mesh along a ray.
+     * An opaque mesh stops at its first triangle on the ray, whichever it is.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param ktr         The transparency accumulated before this mesh.
+     * @return The transparency accumulated including this mesh.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr) {
+        if (getMaterial().kT.equals(Double3.ZERO))
+            return traverse(ray, maxDistance, true, null) == null ? ktr : Double3.ZERO;
+        return super.findTransparencyHelper(ray, maxDistance, ktr);
+    }
+
+    /**
+     * Traverses the hierarchy of the mesh with a ray.
+     * Without a list of intersections the closest intersection is searched, and the maximal distance shrinks to
+     * the closest point found so far, unless any intersection is enough.
+     *
+     * @param ray           The ray.
+     * @param maxDistance   The maximal distance from the head of the ray.
+     * @param any           Whether to stop at the first intersection found.
+     * @param intersections The list to collect all the intersections into, null to find a single intersection.
+     * @return The closest (or the first) intersection, null if there is none or the intersections are collected.
+     */
+    private GeoPoint traverse(Ray ray, double maxDistance, boolean any, List<GeoPoint> intersections) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+
+        int closest = -1;
+        int[] stack = stacks.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (bounds != null ? FlatBVH.hits(bounds, node, ox, oy, oz, dx, dy, dz, ix, iy, iz, maxDistance)
+                    : FlatBVH.hits(floatBounds, node, ox, oy, oz, dx, dy, dz, ix, iy, iz, maxDistance)) {
+                int first = offsets[2 * node], count = offsets[2 * node + 1];
+                if (count < 0) {
+                    double d = switch (-count - 1) {
+                        case 0 -> dx;
+                        case 1 -> dy;
+                        default -> dz;
+                    };
+                    if (d < 0) {
+                        stack[top++] = node + 1;
+                        node = first;
+                    } else {
+                        stack[top++] = first;
+                        ++node;
+                    }
+                    continue;
+                }
+                for (int triangle = first; triangle < first + count; triangle++) {
+                    double t = intersect(triangle, ox, oy, oz, dx, dy, dz, maxDistance);
+                    if (Double.isNaN(t))
+                        continue;
+                    if (intersections != null)
+                        intersections.add(geoPoint(ray, t, triangle));
+                    else if (any)
+                        return geoPoint(ray, t, triangle);
+                    else if (closest < 0 || t < maxDistance) {
+                        closest = triangle;
+                        maxDistance = t;
+                    }
+                }
+            }
+            if (top == 0)
+                return closest < 0 ? null : geoPoint(ray, maxDistance, closest);
+            node = stack[--top];
+        }
+    }
+
+    /**
+     * Finds the triangle of the mesh which contains a point, through the hierarchy.
+     * A point is on a triangle if its barycentric coordinates are inside the triangle and its distance from the plane
+     * of the triangle is tiny relatively to the size of the mesh - the point may have been calculated with a
+     * rounding error. Of several such triangles, e.g. on a shared edge, the nearest to the point is taken.
+     *
+     * @param point The point.
+     * @return The index of the triangle, -1 if the point is on no triangle.
+     */
+    private int findTriangle(Point point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        double dx = bound(3) - bound(0), dy = bound(4) - bound(1), dz = bound(5) - bound(2);
+        double tolerance = 1e-9 * Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+        int found = -1;
+        double foundDistance = Double.POSITIVE_INFINITY;
+        int[] stack = stacks.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            int b = node * 6;
+            if (x >= bound(b) - tolerance && x <= bound(b + 3) + tolerance
+                    && y >= bound(b + 1) - tolerance && y <= bound(b + 4) + tolerance
+                    && z >= bound(b + 2) - tolerance && z <= bound(b + 5) + tolerance) {
+                int first = offsets[2 * node], count = offsets[2 * node + 1];
+                if (count < 0) {
+                    stack[top++] = first;
+                    ++node;
+                    continue;
+                }
+                for (int triangle = first; triangle < first + count; triangle++) {
+                    double distance = distance(triangle, x, y, z, tolerance);
+                    if (distance <= tolerance && distance < foundDistance) {
+                        found = triangle;
+                        foundDistance = distance;
+                    }
+                }
+            }
+            if (top == 0)
+                return found;
+            node = stack[--top];
+        }
+    }
+
+    /**
+     * Retrieves a bound of a node of the hierarchy, in either precision.
+     *
+     * @param index The index of the bound, six per node.
+     * @return The bound.
+     */
+    private double bound(int index) {
+        return bounds != null ? bounds[index] : floatBounds[index];
+    }
+
+    /**
+     * Calculates the distance of a point from the plane of a triangle of the mesh, if the point is projected inside
+     * the triangle.
+     *
+     * @param triangle  The index of the triangle.
+     * @param x         The x-coordinate of the point.
+     * @param y         The y-coordinate of the point.
+     * @param z         The z-coordinate of the point.
+     * @param tolerance The tolerance of the edges of the triangle, in units of length.
+     * @return The distance from the plane, infinity if the point is outside the triangle.
+     */
+    private double distance(int triangle, double x, double y, double z, double tolerance) {
+        int a = indices[triangle * 3] * 3, b = indices[triangle * 3 + 1] * 3, c = indices[triangle * 3 + 2] * 3;
+        double ax = position(a), ay = position(a + 1), az = position(a + 2);
+        double e1x = position(b) - ax, e1y = position(b + 1) - ay, e1z = position(b + 2) - az;
+        double e2x = position(c) - ax, e2y = position(c + 1) - ay, e2z = position(c + 2) - az;
+        double px = x - ax, py = y - ay, pz = z - az;
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (isZero(length))
+            return Double.POSITIVE_INFINITY;
+
+        // the barycentric coordinates of the projection of the point, widened by the tolerance
+        double d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+        double d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+        double d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+        double dp1 = px * e1x + py * e1y + pz * e1z;
+        double dp2 = px * e2x + py * e2y + pz * e2z;
+        double denominator = d11 * d22 - d12 * d12;
+        double v = (d22 * dp1 - d12 * dp2) / denominator;
+        double w = (d11 * dp2 - d12 * dp1) / denominator;
+        double epsilon = tolerance / Math.sqrt(Math.min(d11, d22));
+        if (v < -epsilon || w < -epsilon || v + w > 1 + epsilon)
+            return Double.POSITIVE_INFINITY;
+        return Math.abs(px * nx + py * ny + pz * nz) / length;
+    }
+
+    /**
+     * Creates an intersection point of a triangle of the mesh.
+     *
+     * @param ray      The ray.
+     * @param t        The distance of the point from the head of the ray.
+     * @param triangle The index of the triangle.
+     * @return The intersection point.
+     */
+    private GeoPoint geoPoint(Ray ray, double t, int triangle) {
+        GeoPoint geoPoint = new GeoPoint(this, ray.getPoint(t), t);
+        geoPoint.primitive = triangle;
+        return geoPoint;
+    }
+
+    /**
+     * Intersects a ray with a triangle of the mesh by the Moller-Trumbore algorithm, like {@link Triangle}.
+     * A point on an edge or a vertex is not an intersection, except in single precision, where the edges are
+     * widened by {@link #EDGE_EPSILON} so the neighbouring triangles overlap and leave no holes between them.
+     *
+     * @param triangle    The index of the triangle.
+     * @param ox          The x-coordinate of the head of the ray.
+     * @param oy          The y-coordinate of the head of the ray.
+     * @param oz          The z-coordinate of the head of the ray.
+     * @param dx          The x-coordinate of the direction of the ray.
+     * @param dy          The y-coordinate of the direction of the ray.
+     * @param dz          The z-coordinate of the direction of the ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance of the intersection point from the head of the ray, NaN if there is none.
+     */
+    private double intersect(int triangle, double ox, double oy, double oz, double dx, double dy, double dz,
+                             double maxDistance) {
+        int a = indices[triangle * 3] * 3, b = indices[triangle * 3 + 1] * 3, c = indices[triangle * 3 + 2] * 3;
+        double x0 = position(a), y0 = position(a + 1), z0 = position(a + 2);
+        double e1x = position(b) - x0, e1y = position(b + 1) - y0, e1z = position(b + 2) - z0;
+        double e2x = position(c) - x0, e2y = position(c + 1) - y0, e2z = position(c + 2) - z0;
+        // the edges of a triangle in single precision are widened, so its neighbours overlap it
+        double epsilon = positions != null ? 0 : EDGE_EPSILON;
+
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the ray is parallel to the triangle
+        if (isZero(det))
+            return Double.NaN;
+        double inverse = 1 / det;
+
+        double sx = ox - x0, sy = oy - y0, sz = oz - z0;
+        double u = (sx * px + sy * py + sz * pz) * inverse;
+        if (u <= -epsilon)
+            return Double.NaN;
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inverse;
+        if (v <= -epsilon || u + v >= 1 + epsilon)
+            return Double.NaN;
+
+        double t = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+        if (t < 0 || isZero(t) || alignZero(t - maxDistance) > 0)
+            return Double.NaN;
+        return t;
+    }
+}
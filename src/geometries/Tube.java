@@ -1,7 +1,3 @@
-/**
- * The Tube class represents a three-dimensional tube-like geometry.
- * It extends the RadialGeometry abstract class and implements the Geometry interface.
- */
 package geometries;
 
 import primitives.*;
@@ -55,15 +51,101 @@ public class Tube extends RadialGeometry {
     }
 
     /**
-     * This method is overridden from the Intersectable interface.
-     * It returns null, Because I chose not to exercise it
+     * Finds the intersection points between the given ray and the tube which are at a maximum distance from the head of the ray.
      *
-     * @param ray The ray to find intersections with.
-     * @return Always returns null.
+     * @param ray         The ray to find intersections with.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return A list of intersection points ordered by their distance from the head of the ray, or null if there are none.
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
-        return null;
+        double[] distances = new double[2];
+        int count = findDistances(ray, maxDistance, distances);
+        if (count == 0)
+            return null;
+        GeoPoint first = new GeoPoint(this, ray.getPoint(distances[0]), distances[0]);
+        return count == 1 ? List.of(first)
+                : List.of(first, new GeoPoint(this, ray.getPoint(distances[1]), distances[1]));
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the tube which is at a maximum distance from the head of the ray.
+     *
+     * @param ray         The ray to find the intersection with.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point with its distance from the head of the ray, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double[] distances = new double[2];
+        return findDistances(ray, maxDistance, distances) == 0 ? null
+                : new GeoPoint(this, ray.getPoint(distances[0]), distances[0]);
+    }
+
+    /**
+     * Finds the distances of the intersection points of a ray with the surface of the tube.
+     * The ray and the axis are split into their components along the axis and perpendicular to it,
+     * so the points at the radius from the axis are the roots of a quadratic equation:
+     * |q + t*w|^2 = r^2, where q and w are the perpendicular components of the head and the direction of the ray.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param distances   The array to write the distances into, at least two elements long.
+     * @return The amount of the distances written, ordered from the closest.
+     */
+    protected int findDistances(Ray ray, double maxDistance, double[] distances) {
+        Point head = ray.getHead();
+        Point base = axis.getHead();
+        Vector v = ray.getDirection();
+        Vector va = axis.getDirection();
+        double ax = va.getX(), ay = va.getY(), az = va.getZ();
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+        double px = head.getX() - base.getX(), py = head.getY() - base.getY(), pz = head.getZ() - base.getZ();
+
+        // the components of the direction and of the head of the ray along the axis
+        double vva = vx * ax + vy * ay + vz * az;
+        double pva = px * ax + py * ay + pz * az;
+        // the components perpendicular to the axis
+        double wx = vx - vva * ax, wy = vy - vva * ay, wz = vz - vva * az;
+        double qx = px - pva * ax, qy = py - pva * ay, qz = pz - pva * az;
+
+        int count = 0;
+        double a = wx * wx + wy * wy + wz * wz;
+        // a ray which is parallel to the axis never crosses the side of the tube
+        if (!Util.isZero(a)) {
+            double b = wx * qx + wy * qy + wz * qz;
+            double c = qx * qx + qy * qy + qz * qz - radius * radius;
+            double discriminant = Util.alignZero(b * b - a * c);
+            if (discriminant > 0) {
+                double root = Math.sqrt(discriminant);
+                double t1 = (-b - root) / a, t2 = (-b + root) / a;
+                if (isInRange(t1, maxDistance) && isOnSide(pva + t1 * vva))
+                    distances[count++] = t1;
+                if (isInRange(t2, maxDistance) && isOnSide(pva + t2 * vva))
+                    distances[count++] = t2;
+            }
+        }
+        return count;
     }
 
+    /**
+     * Checks whether a point on the infinite surface of the tube belongs to the geometry.
+     *
+     * @param height The position of the point along the axis, from the head of the axis.
+     * @return True for a tube, which is infinite.
+     */
+    protected boolean isOnSide(double height) {
+        return true;
+    }
+
+    /**
+     * Checks whether a distance along a ray is in the ray's direction and not farther than a maximal distance.
+     *
+     * @param t           The distance.
+     * @param maxDistance The maximal distance.
+     * @return True if the distance is in range, false otherwise.
+     */
+    protected static boolean isInRange(double t, double maxDistance) {
+        return t > 0 && !Util.isZero(t) && Util.alignZero(t - maxDistance) <= 0;
+    }
 }
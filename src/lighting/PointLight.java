@@ -13,6 +13,7 @@ import renderer.Grid;
  */
 public class PointLight extends Light implements LightSource {
     public boolean softShadow =false;
+    public boolean adaptiveSoftShadow = false;
     public Grid grid;
     public Point position;
     private double kL = 0;
@@ -23,6 +24,18 @@ public class PointLight extends Light implements LightSource {
         return this;
     }
 
+    /**
+     * Sets the adaptive sampling of the soft shadow. The corners of the grid of the light are sampled first,
+     * and only regions of the grid whose corners see the light differently are subdivided and sampled further.
+     *
+     * @param adaptiveSoftShadow True for adaptive sampling, false for sampling all the cells of the grid.
+     * @return The PointLight object with the updated sampling.
+     */
+    public PointLight setAdaptiveSoftShadow(boolean adaptiveSoftShadow) {
+        this.adaptiveSoftShadow = adaptiveSoftShadow;
+        return this;
+    }
+
     public PointLight setRootNumberOfRays(int rootNumberOfRays,double radius) {
         this.grid=new Grid(rootNumberOfRays,radius*2,radius*2);
         return this;
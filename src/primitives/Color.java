@@ -36,14 +36,13 @@ public class Color {
     }
 
     /**
-     * Constructor to generate a color according to RGB components Each component
-     * in
-     * range 0..255 (for printed white color) or more [for lights]
-     * @param rgb triad of Red/Green/Blue components
+     * Constructor to generate a color according to RGB components, without the check of negative components.
+     * It serves the results of the operations, which are known not to be negative - sums of colors, and products
+     * of colors by factors which were checked - so the check is done once at the public constructors and the
+     * factors rather than on every operation.
+     * @param rgb triad of Red/Green/Blue components, none of them negative
      */
     private Color(Double3 rgb) {
-        if (rgb.d1 < 0 || rgb.d2 < 0 || rgb.d3 < 0)
-            throw new IllegalArgumentException("Negative color component is illegal");
         this.rgb = rgb;
     }
 
@@ -65,6 +64,24 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * Red component getter
+     * @return the red component, without the limit of 255
+     */
+    public double getRed() { return rgb.d1; }
+
+    /**
+     * Green component getter
+     * @return the green component, without the limit of 255
+     */
+    public double getGreen() { return rgb.d2; }
+
+    /**
+     * Blue component getter
+     * @return the blue component, without the limit of 255
+     */
+    public double getBlue() { return rgb.d3; }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      * @param  colors one or more other colors to add
@@ -79,7 +96,7 @@ public class Color {
             rg += c.rgb.d2;
             rb += c.rgb.d3;
         }
-        return new Color(rr, rg, rb);
+        return new Color(new Double3(rr, rg, rb));
     }
 
     /**
@@ -32,6 +32,33 @@ public class Point {
         this.xyz = xyz;
     }
 
+    /**
+     * Retrieves the x-coordinate of the point.
+     *
+     * @return The x-coordinate.
+     */
+    public double getX() {
+        return xyz.d1;
+    }
+
+    /**
+     * Retrieves the y-coordinate of the point.
+     *
+     * @return The y-coordinate.
+     */
+    public double getY() {
+        return xyz.d2;
+    }
+
+    /**
+     * Retrieves the z-coordinate of the point.
+     *
+     * @return The z-coordinate.
+     */
+    public double getZ() {
+        return xyz.d3;
+    }
+
     /**
      * Checks if this Point is equal to another object.
      *
@@ -83,7 +110,7 @@ public class Point {
      * @param point The other point.
      * @return The squared distance between the points.
      */
-    public Double distanceSquared(Point point){
+    public double distanceSquared(Point point){
         return (xyz.d1 - point.xyz.d1) * (xyz.d1 - point.xyz.d1) +
                 (xyz.d2 - point.xyz.d2) * (xyz.d2 - point.xyz.d2) +
                 (xyz.d3 - point.xyz.d3) * (xyz.d3 - point.xyz.d3);
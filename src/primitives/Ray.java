@@ -41,7 +41,7 @@ public class Ray {
      */
     public Ray(Point point, Vector v, Vector n) {
         double nv = v.dotProduct(n);
-        this.head = (isZero(nv) ? point : point.add(n.scale(nv < 0 ? -DELTA : DELTA)));
+        this.head = (isZero(nv) ? point : VectorMath.along(point, n, nv < 0 ? -DELTA : DELTA));
         this.direction = v.normalize();
     }
     /**
@@ -71,7 +71,7 @@ public class Ray {
     public Point getPoint(double t) {
         if (isZero(t))
             return head;
-        return head.add(direction.scale(t));
+        return VectorMath.along(head, direction, t);
     }
 
     /**
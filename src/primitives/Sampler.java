@@ -0,0 +1,168 @@
+package primitives;
+
+/**
+ * Sampler class provides deterministic low-discrepancy sequences of points in the unit square,
+ * for anti-aliasing and for area lights.<br>
+ * A sequence is the same in every run and in every thread. To decorrelate neighbouring pixels or shaded points,
+ * each one rotates the sequence by its own Cranley-Patterson offset, which is derived from a seed - every
+ * coordinate is shifted by the offset and wrapped around the unit square.
+ */
+public final class Sampler {
+    /**
+     * The low-discrepancy sequences
+     */
+    public enum Sequence {
+        /** The Halton sequence - the radical inverses in bases 2 and 3 */
+        HALTON,
+        /** The Sobol sequence - the first two dimensions, a (0,2)-sequence in base 2 */
+        SOBOL,
+        /** The R2 sequence - the additive recurrence of the inverse of the plastic number */
+        R2
+    }
+
+    /** The plastic number - the real root of x^3 = x + 1 */
+    private static final double PLASTIC = 1.32471795724474602596;
+    /** The step of the first coordinate of the R2 sequence */
+    private static final double R2_STEP_X = 1 / PLASTIC;
+    /** The step of the second coordinate of the R2 sequence */
+    private static final double R2_STEP_Y = 1 / (PLASTIC * PLASTIC);
+    /** 2^-32, for converting 32 bits to a number in [0, 1) */
+    private static final double INVERSE_2_32 = 1.0 / (1L << 32);
+    /** 2^-53, for converting 53 bits to a number in [0, 1) */
+    private static final double INVERSE_2_53 = 1.0 / (1L << 53);
+
+    /** Don't let anyone instantiate this class. */
+    private Sampler() {}
+
+    /**
+     * Writes points of a sequence, rotated by the offset of a seed, into a buffer of the caller.
+     *
+     * @param sequence The sequence.
+     * @param count    The amount of points.
+     * @param seed     The seed of the rotation - the same seed gives the same points.
+     * @param points   The buffer of the points - the two coordinates of every point, of at least 2 * count numbers.
+     * @throws IllegalArgumentException if the buffer is too small.
+     */
+    public static void fill(Sequence sequence, int count, long seed, double[] points) {
+        fill(sequence, 0, count, seed, points);
+    }
+
+    /**
+     * Writes points of a sequence from a given index on, rotated by the offset of a seed, into a buffer of the
+     * caller - so a sequence can be continued, e.g. one point in every pass of a progressive rendering.
+     *
+     * @param sequence The sequence.
+     * @param first    The index of the first point in the sequence.
+     * @param count    The amount of points.
+     * @param seed     The seed of the rotation - the same seed gives the same points.
+     * @param points   The buffer of the points - the two coordinates of every point, of at least 2 * count numbers.
+     * @throws IllegalArgumentException if the buffer is too small or the first index is negative.
+     */
+    public static void fill(Sequence sequence, int first, int count, long seed, double[] points) {
+        if (points.length < 2 * count)
+            throw new IllegalArgumentException("The buffer of the points is too small");
+        if (first < 0)
+            throw new IllegalArgumentException("The first index must not be negative");
+        long hash = mix(seed);
+        double rotationX = (hash >>> 11) * INVERSE_2_53;
+        double rotationY = (mix(hash) >>> 11) * INVERSE_2_53;
+        for (int k = 0; k < count; k++) {
+            int i = first + k;
+            double x, y;
+            switch (sequence) {
+                case HALTON -> {
+                    x = radicalInverse(2, i);
+                    y = radicalInverse(3, i);
+                }
+                case SOBOL -> {
+                    x = vanDerCorput(i);
+                    y = sobol(i);
+                }
+                default -> {
+                    x = 0.5 + R2_STEP_X * i;
+                    y = 0.5 + R2_STEP_Y * i;
+                }
+            }
+            points[2 * k] = fraction(x + rotationX);
+            points[2 * k + 1] = fraction(y + rotationY);
+        }
+    }
+
+    /**
+     * Calculates the radical inverse of an index - its digits in a base mirrored around the point.
+     *
+     * @param base  The base, 2 or more.
+     * @param index The index, not negative.
+     * @return The radical inverse, in [0, 1).
+     */
+    public static double radicalInverse(int base, long index) {
+        double inverse = 1.0 / base, factor = inverse, result = 0;
+        while (index > 0) {
+            result += (index % base) * factor;
+            index /= base;
+            factor *= inverse;
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the van der Corput sequence - the radical inverse in base 2, by reversing the bits.
+     *
+     * @param index The index.
+     * @return The number of the index, in [0, 1).
+     */
+    public static double vanDerCorput(int index) {
+        return (Integer.reverse(index) & 0xFFFFFFFFL) * INVERSE_2_32;
+    }
+
+    /**
+     * Calculates the second dimension of the Sobol sequence.
+     *
+     * @param index The index.
+     * @return The number of the index, in [0, 1).
+     */
+    public static double sobol(int index) {
+        int result = 0;
+        for (int v = 1 << 31; index != 0; index >>>= 1, v ^= v >>> 1)
+            if ((index & 1) != 0)
+                result ^= v;
+        return (result & 0xFFFFFFFFL) * INVERSE_2_32;
+    }
+
+    /**
+     * Creates a seed of a point, so samples around the same point are the same in every run.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate.
+     * @return The seed.
+     */
+    public static long seed(double x, double y, double z) {
+        long seed = Double.doubleToLongBits(x);
+        seed = mix(seed) ^ Double.doubleToLongBits(y);
+        return mix(seed) ^ Double.doubleToLongBits(z);
+    }
+
+    /**
+     * Mixes the bits of a number, so close numbers give unrelated results (the finalizer of SplitMix64).
+     *
+     * @param value The number.
+     * @return The mixed number.
+     */
+    public static long mix(long value) {
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Calculates the fraction of a non-negative number.
+     *
+     * @param value The number.
+     * @return The fraction, in [0, 1).
+     */
+    private static double fraction(double value) {
+        return value - Math.floor(value);
+    }
+}
@@ -1,5 +1,7 @@
 package primitives;
 
+import static primitives.Util.isZero;
+
 /**
  * The Vector class represents a vector in three-dimensional space.
  * It inherits from the Point class.
@@ -17,7 +19,7 @@ public class Vector extends Point {
      */
     public Vector(double x, double y, double z) {
         super(x, y, z);
-        if (xyz.equals(Double3.ZERO))
+        if (isZero(x) && isZero(y) && isZero(z))
             throw new IllegalArgumentException("IllegalArgumentException");
     }
 
@@ -30,10 +32,22 @@ public class Vector extends Point {
      */
     public Vector(Double3 d3) {
         super(d3);
-        if (d3.equals(Double3.ZERO))
+        if (isZero(d3.d1) && isZero(d3.d2) && isZero(d3.d3))
             throw new IllegalArgumentException("IllegalArgumentException");
     }
 
+    /**
+     * Constructs a Vector without the check of the zero vector, for results which are known not to be the zero
+     * vector, such as a normalized vector. The check is kept at the public constructors, which are the boundary
+     * of the API, and is skipped on the hot paths inside the primitives.
+     *
+     * @param d3      The Double3 object to initialize the Vector, not the zero vector.
+     * @param trusted Marker of the constructor without the check.
+     */
+    private Vector(Double3 d3, boolean trusted) {
+        super(d3);
+    }
+
     /**
      * Performs vector addition with another vector.
      *
@@ -61,8 +75,7 @@ public class Vector extends Point {
      * @return The dot product of the vectors.
      */
     public double dotProduct(Vector vector) {
-        Double3 helper =vector.xyz.product(xyz);
-        return helper.d1+ helper.d2+ helper.d3;
+        return VectorMath.dot(xyz.d1, xyz.d2, xyz.d3, vector.xyz.d1, vector.xyz.d2, vector.xyz.d3);
     }
 
     /**
@@ -83,7 +96,7 @@ public class Vector extends Point {
      * @return The squared length of the vector.
      */
     public double lengthSquared() {
-        return (xyz.d1 * xyz.d1) + (xyz.d2 * xyz.d2) + (xyz.d3 * xyz.d3);
+        return VectorMath.lengthSquared(xyz.d1, xyz.d2, xyz.d3);
     }
 
     /**
@@ -101,7 +114,8 @@ public class Vector extends Point {
      * @return A new vector representing the normalized vector.
      */
     public Vector normalize() {
-        return new Vector(xyz.scale(1/length()));
+        // a vector which isn't zero has a positive length, so its normalized vector has a length of one
+        return new Vector(xyz.scale(1/length()), true);
     }
 
     /**
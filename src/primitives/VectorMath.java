@@ -0,0 +1,86 @@
+package primitives;
+
+/**
+ * VectorMath class provides static kernels of vector math over plain {@code double} coordinates, for the hot paths
+ * of the intersections and the shading.<br>
+ * Every operation of {@link Point}, {@link Vector} and {@link Double3} returns a new immutable object, which is
+ * right for building scenes but produces garbage on every ray. The kernels take and return only numbers, so a
+ * calculation of several steps allocates nothing, and only its final result is wrapped in a new object.
+ */
+public final class VectorMath {
+    /** Don't let anyone instantiate this class. */
+    private VectorMath() {}
+
+    /**
+     * Calculates the dot product of two vectors given by their coordinates.
+     *
+     * @param ax The x coordinate of the first vector.
+     * @param ay The y coordinate of the first vector.
+     * @param az The z coordinate of the first vector.
+     * @param bx The x coordinate of the second vector.
+     * @param by The y coordinate of the second vector.
+     * @param bz The z coordinate of the second vector.
+     * @return The dot product.
+     */
+    public static double dot(double ax, double ay, double az, double bx, double by, double bz) {
+        return ax * bx + ay * by + az * bz;
+    }
+
+    /**
+     * Calculates the dot product of a vector and the vector from a point to another point, without creating
+     * the vector between the points.
+     *
+     * @param vector The vector.
+     * @param head   The point the vector between the points goes to.
+     * @param tail   The point the vector between the points starts at.
+     * @return The dot product.
+     */
+    public static double dotDifference(Vector vector, Point head, Point tail) {
+        return vector.xyz.d1 * (head.xyz.d1 - tail.xyz.d1)
+                + vector.xyz.d2 * (head.xyz.d2 - tail.xyz.d2)
+                + vector.xyz.d3 * (head.xyz.d3 - tail.xyz.d3);
+    }
+
+    /**
+     * Calculates the squared length of a vector given by its coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate.
+     * @return The squared length.
+     */
+    public static double lengthSquared(double x, double y, double z) {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * Calculates the point at a distance along a direction from a point - the point of a ray at a parameter -
+     * allocating only the result.
+     *
+     * @param point     The starting point.
+     * @param direction The direction.
+     * @param t         The distance, in units of the length of the direction.
+     * @return The point.
+     */
+    public static Point along(Point point, Vector direction, double t) {
+        return new Point(point.xyz.d1 + t * direction.xyz.d1,
+                point.xyz.d2 + t * direction.xyz.d2,
+                point.xyz.d3 + t * direction.xyz.d3);
+    }
+
+    /**
+     * Calculates the reflection of a vector about a normal, r = v - 2 (v . n) n, allocating only the result.
+     *
+     * @param v  The vector.
+     * @param n  The normal, of unit length.
+     * @param vn The dot product of the vector and the normal.
+     * @return The reflected vector.
+     * @throws IllegalArgumentException if the reflected vector is the zero vector.
+     */
+    public static Vector reflect(Vector v, Vector n, double vn) {
+        double scale = 2 * vn;
+        return new Vector(v.xyz.d1 - scale * n.xyz.d1,
+                v.xyz.d2 - scale * n.xyz.d2,
+                v.xyz.d3 - scale * n.xyz.d3);
+    }
+}
@@ -0,0 +1,78 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * AccumulationBuffer class sums the samples of the pixels of an image over the passes of a progressive rendering.<br/>
+ * Every pass adds one sample to every pixel, so all the pixels share one amount of samples, and the image is the
+ * sum divided by the amount of passes. The sums are kept in floats, three per pixel, which is enough for the
+ * thousands of samples of a preview and takes half the memory of doubles.
+ * The threads of a pass add the samples of different pixels, so the buffer needs no locks.
+ */
+class AccumulationBuffer {
+    /** The amount of pixel columns */
+    private final int nX;
+    /** The amount of pixel rows */
+    private final int nY;
+    /** The sums of the red, green and blue samples of the pixels, row after row */
+    private final float[] sums;
+    /** The amount of finished passes */
+    private int passes = 0;
+
+    /**
+     * Constructs an empty buffer of an image.
+     *
+     * @param nX The amount of pixel columns.
+     * @param nY The amount of pixel rows.
+     */
+    AccumulationBuffer(int nX, int nY) {
+        this.nX = nX;
+        this.nY = nY;
+        sums = new float[3 * nX * nY];
+    }
+
+    /**
+     * Adds a sample to a pixel.
+     *
+     * @param x     The column of the pixel.
+     * @param y     The row of the pixel.
+     * @param color The color of the sample.
+     */
+    void add(int x, int y, Color color) {
+        int index = 3 * (y * nX + x);
+        sums[index] += (float) color.getRed();
+        sums[index + 1] += (float) color.getGreen();
+        sums[index + 2] += (float) color.getBlue();
+    }
+
+    /**
+     * Finishes a pass, after a sample was added to every pixel.
+     */
+    void passDone() {
+        ++passes;
+    }
+
+    /**
+     * Gets the amount of finished passes, which is the amount of samples of every pixel.
+     *
+     * @return The amount of passes.
+     */
+    int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Writes the average of the samples of every pixel into an image writer.
+     * Nothing is written before the first pass is finished.
+     *
+     * @param imageWriter The image writer.
+     */
+    void resolve(ImageWriter imageWriter) {
+        if (passes == 0) return;
+        double scale = 1d / passes;
+        for (int y = 0, index = 0; y < nY; ++y)
+            for (int x = 0; x < nX; ++x, index += 3)
+                imageWriter.writePixel(x, y,
+                        new Color(sums[index] * scale, sums[index + 1] * scale, sums[index + 2] * scale));
+    }
+}
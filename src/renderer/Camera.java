@@ -3,11 +3,7 @@ package renderer;
 import primitives.*;
 import scene.Scene;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.MissingResourceException;
-import java.util.stream.IntStream;
 
 import static primitives.Util.isZero;
 
@@ -18,6 +14,9 @@ import static primitives.Util.isZero;
  */
 public class Camera implements Cloneable {
     int rootNumberOfRays = 1;
+    int minSamples = 0;
+    int maxSamples = 0;
+    double maxError = 0;
     Grid grid;
     boolean adaptiveSuperSampling = false;
     boolean AntiAliasing = false;
@@ -55,6 +54,30 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the variance driven adaptive sampling of the pixels, which takes precedence over the other
+         * anti-aliasing modes. Every pixel is sampled by a low-discrepancy sequence, keeping the running mean and
+         * variance of its color, until the standard error of the mean of every component is at most the maximal
+         * error, but not less than the minimal amount of samples and not more than the maximal amount.
+         * So uniform pixels take few samples, and the samples go to the edges and to the noisy pixels.
+         *
+         * @param minSamples The minimal amount of samples of a pixel, at least 2.
+         * @param maxSamples The maximal amount of samples of a pixel, at least the minimal amount.
+         * @param maxError   The maximal standard error of a color component, in the units of the color (0-255).
+         * @return The Builder instance.
+         * @throws IllegalArgumentException if the amounts of samples or the error are illegal.
+         */
+        public Builder setAdaptiveSampling(int minSamples, int maxSamples, double maxError) {
+            if (minSamples < 2 || maxSamples < minSamples)
+                throw new IllegalArgumentException("The amounts of samples must satisfy 2 <= min <= max");
+            if (maxError < 0)
+                throw new IllegalArgumentException("The maximal error must not be negative");
+            camera.minSamples = minSamples;
+            camera.maxSamples = maxSamples;
+            camera.maxError = maxError;
+            return this;
+        }
+
         /**
          * Sets the location of the camera.
          *
@@ -351,35 +374,227 @@ public class Camera implements Cloneable {
     /**
      * Casts a ray for a given pixel in the image and traces it through the scene.
      *
-     * @param Nx The total number of pixels in the X direction.
-     * @param Ny The total number of pixels in the Y direction.
-     * @param i  The pixel's X coordinate.
-     * @param j  The pixel's Y coordinate.
+     * @param Nx      The total number of pixels in the X direction.
+     * @param Ny      The total number of pixels in the Y direction.
+     * @param i       The pixel's X coordinate.
+     * @param j       The pixel's Y coordinate.
+     * @param samples The buffer of the samples of the grid or of the adaptive sampling, null if there are none.
+     * @param lattice The lattice of the adaptive supersampling of the tile, null if there is no adaptive supersampling.
      */
-    private void castRay(int Nx, int Ny, int i, int j) {
+    private void castRay(int Nx, int Ny, int i, int j, double[] samples, Lattice lattice) {
         Color averageOfColors = Color.BLACK;
-        if (!AntiAliasing && !adaptiveSuperSampling)
+        if (maxSamples > 0)
+            imageWriter.writePixel(i, j, adaptiveSampling(Nx, Ny, i, j, samples));
+        else if (!AntiAliasing && !adaptiveSuperSampling)
             imageWriter.writePixel(i, j, rayTracer.traceRay(constructRay(Nx, Ny, i, j)));
         else if (AntiAliasing && adaptiveSuperSampling) {
-            ArrayList<ColorPoint> colorPoints = new ArrayList<>();
-            List<Point> squareGrid = generateSquareGridPoints(rootNumberOfRays, width / Nx, getCenterPoint(Nx, Ny, i,j));
-            for (int k = 0; k < rootNumberOfRays * rootNumberOfRays; k++) {
-                colorPoints.add(new ColorPoint(squareGrid.get(k), null));
-            }
-            imageWriter.writePixel(i, j, adaptiveSuperSampling(colorPoints, rootNumberOfRays, 0, 0));
+            if (rootNumberOfRays < 2)
+                imageWriter.writePixel(i, j, rayTracer.traceRay(constructRay(Nx, Ny, i, j)));
+            else
+                imageWriter.writePixel(i, j, adaptiveSuperSampling(lattice, Nx, Ny,
+                        i * (rootNumberOfRays - 1), j * (rootNumberOfRays - 1), rootNumberOfRays));
         } else if (!adaptiveSuperSampling) {
-            grid.rayBeam(getCenterPoint(Nx, Ny, i, j), Vup, Vto);
-            for (Point point : grid.grid) {
+            Point center = getCenterPoint(Nx, Ny, i, j);
+            int size = grid.sample(samples, (long) j * Nx + i);
+            for (int k = 0; k < size; k++) {
+                Point point = Grid.offset(center, Vup, Vright, samples[2 * k], samples[2 * k + 1]);
                 averageOfColors = averageOfColors.add(rayTracer.traceRay(new Ray(cameraLocation, point.subtract(cameraLocation))));
             }
-            imageWriter.writePixel(i, j, averageOfColors.scale((double) 1 / (grid.rootNumberOfRays * grid.rootNumberOfRays)));
+            imageWriter.writePixel(i, j, averageOfColors.scale((double) 1 / size));
+        }
+    }
+
+    /**
+     * Samples a pixel until the standard error of the mean of its color is small enough, see
+     * {@link Builder#setAdaptiveSampling(int, int, double)}. The mean and the variance are updated with every
+     * sample by Welford's method, and the samples are the points of the Halton sequence rotated by the pixel.
+     *
+     * @param Nx      The total number of pixels in the X direction.
+     * @param Ny      The total number of pixels in the Y direction.
+     * @param i       The pixel's X coordinate.
+     * @param j       The pixel's Y coordinate.
+     * @param samples The buffer of the samples, of at least 2 * maxSamples numbers.
+     * @return The mean color of the samples.
+     */
+    private Color adaptiveSampling(int Nx, int Ny, int i, int j, double[] samples) {
+        Sampler.fill(Sampler.Sequence.HALTON, maxSamples, (long) j * Nx + i, samples);
+        Point center = getCenterPoint(Nx, Ny, i, j);
+        double pixelWidth = width / Nx, pixelHeight = height / Ny;
+        double maxVariance = maxError * maxError;
+        double meanR = 0, meanG = 0, meanB = 0, m2R = 0, m2G = 0, m2B = 0;
+        int count = 0;
+        while (count < maxSamples) {
+            Color color = traceSample(center, pixelWidth, pixelHeight, samples[2 * count], samples[2 * count + 1]);
+            ++count;
+            double delta = color.getRed() - meanR;
+            meanR += delta / count;
+            m2R += delta * (color.getRed() - meanR);
+            delta = color.getGreen() - meanG;
+            meanG += delta / count;
+            m2G += delta * (color.getGreen() - meanG);
+            delta = color.getBlue() - meanB;
+            meanB += delta / count;
+            m2B += delta * (color.getBlue() - meanB);
+            // the variance of the mean is the variance of the samples divided by their amount
+            if (count >= minSamples) {
+                double limit = maxVariance * (count - 1) * count;
+                if (m2R <= limit && m2G <= limit && m2B <= limit)
+                    break;
+            }
         }
-        Pixel.pixelDone();
+        return new Color(Math.max(0, meanR), Math.max(0, meanG), Math.max(0, meanB));
+    }
+
+    /**
+     * Traces a ray through a point of a pixel.
+     *
+     * @param center      The center of the pixel.
+     * @param pixelWidth  The width of a pixel.
+     * @param pixelHeight The height of a pixel.
+     * @param u           The horizontal position of the point in the pixel, from 0 at the left edge to 1 at the right.
+     * @param v           The vertical position of the point in the pixel, from 0 at the top edge to 1 at the bottom.
+     * @return The color of the ray.
+     */
+    private Color traceSample(Point center, double pixelWidth, double pixelHeight, double u, double v) {
+        Point point = Grid.offset(center, Vup, Vright, (u - 0.5) * pixelWidth, (0.5 - v) * pixelHeight);
+        return rayTracer.traceRay(new Ray(cameraLocation, point.subtract(cameraLocation)));
+    }
+
+    /**
+     * Casts the rays of all the pixels of a tile of the image.
+     * The buffers of the samples belong to the tile, so the threads never share them.
+     *
+     * @param tile The tile.
+     */
+    void renderTile(TileManager.Tile tile) {
+        final int nX = imageWriter.getNx();
+        final int nY = imageWriter.getNy();
+        double[] samples = maxSamples > 0 ? new double[2 * maxSamples]
+                : grid == null ? null : new double[2 * grid.size()];
+        Lattice lattice = AntiAliasing && adaptiveSuperSampling && rootNumberOfRays >= 2
+                ? new Lattice(tile, rootNumberOfRays - 1, cameraLocation.add(Vto.scale(VpDistance)))
+                : null;
+        for (int i = tile.y0(); i < tile.y1(); ++i)
+            for (int j = tile.x0(); j < tile.x1(); ++j)
+                castRay(nX, nY, j, i, samples, lattice);
+    }
+
+    /**
+     * Adds one sample to every pixel of a tile in a pass of a progressive rendering. The sample of a pass is the
+     * point of the Halton sequence of the pass, rotated by the pixel, so the passes of a pixel never repeat a point.
+     *
+     * @param tile   The tile.
+     * @param pass   The index of the pass.
+     * @param buffer The accumulation buffer of the image.
+     */
+    private void renderProgressiveTile(TileManager.Tile tile, int pass, AccumulationBuffer buffer) {
+        final int nX = imageWriter.getNx();
+        final int nY = imageWriter.getNy();
+        double pixelWidth = width / nX, pixelHeight = height / nY;
+        double[] sample = new double[2];
+        for (int i = tile.y0(); i < tile.y1(); ++i)
+            for (int j = tile.x0(); j < tile.x1(); ++j) {
+                Sampler.fill(Sampler.Sequence.HALTON, pass, 1, (long) i * nX + j, sample);
+                buffer.add(j, i, traceSample(getCenterPoint(nX, nY, j, i), pixelWidth, pixelHeight,
+                        sample[0], sample[1]));
+            }
+    }
+
+    /**
+     * The colors of the samples of the adaptive supersampling of a tile.
+     * The samples of every pixel are the points of a square lattice which spans the pixel from edge to edge,
+     * so the lattices of neighbouring pixels share their borders. All the pixels of the tile use one lattice,
+     * and every point of it is traced at most once.
+     */
+    private static class Lattice {
+        /** The first column of the lattice of the tile, in the lattice of the whole image */
+        final int x0;
+        /** The first row of the lattice of the tile, in the lattice of the whole image */
+        final int y0;
+        /** The amount of points in a row of the lattice of the tile */
+        final int cols;
+        /** The amount of cells of the lattice along a side of a pixel */
+        final int cells;
+        /** The center of the view plane */
+        final Point center;
+        /** The colors of the points of the lattice, row after row, null for points which weren't traced */
+        final Color[] colors;
+
+        /**
+         * Constructs the empty lattice of a tile.
+         *
+         * @param tile   The tile.
+         * @param cells  The amount of cells of the lattice along a side of a pixel.
+         * @param center The center of the view plane.
+         */
+        Lattice(TileManager.Tile tile, int cells, Point center) {
+            this.cells = cells;
+            this.center = center;
+            x0 = tile.x0() * cells;
+            y0 = tile.y0() * cells;
+            cols = (tile.x1() - tile.x0()) * cells + 1;
+            colors = new Color[cols * ((tile.y1() - tile.y0()) * cells + 1)];
+        }
+    }
+
+    /**
+     * Calculates the color of a point of the lattice of the adaptive supersampling, tracing it only once.
+     *
+     * @param lattice The lattice of the tile.
+     * @param Nx      The total number of pixels in the X direction.
+     * @param Ny      The total number of pixels in the Y direction.
+     * @param x       The column of the point in the lattice of the whole image.
+     * @param y       The row of the point in the lattice of the whole image.
+     * @return The color of the point.
+     */
+    private Color latticeColor(Lattice lattice, int Nx, int Ny, int x, int y) {
+        int index = (y - lattice.y0) * lattice.cols + x - lattice.x0;
+        Color color = lattice.colors[index];
+        if (color == null) {
+            double xOffset = ((double) x / lattice.cells - Nx / 2d) * (width / Nx);
+            double yOffset = -((double) y / lattice.cells - Ny / 2d) * (height / Ny);
+            Point point = Grid.offset(lattice.center, Vup, Vright, xOffset, yOffset);
+            color = rayTracer.traceRay(new Ray(cameraLocation, point.subtract(cameraLocation)));
+            lattice.colors[index] = color;
+        }
+        return color;
+    }
+
+    /**
+     * Calculates the color of a square of the lattice of the adaptive supersampling. If the colors of the corners
+     * of the square are the same, it is the color of the square, otherwise the square is split into four
+     * overlapping squares, down to squares of 2 x 2 points.
+     *
+     * @param lattice The lattice of the tile.
+     * @param Nx      The total number of pixels in the X direction.
+     * @param Ny      The total number of pixels in the Y direction.
+     * @param x       The first column of the square in the lattice of the whole image.
+     * @param y       The first row of the square in the lattice of the whole image.
+     * @param side    The amount of points along a side of the square.
+     * @return The color of the square.
+     */
+    private Color adaptiveSuperSampling(Lattice lattice, int Nx, int Ny, int x, int y, int side) {
+        int last = side - 1;
+        Color topLeft = latticeColor(lattice, Nx, Ny, x, y);
+        Color topRight = latticeColor(lattice, Nx, Ny, x + last, y);
+        Color bottomLeft = latticeColor(lattice, Nx, Ny, x, y + last);
+        Color bottomRight = latticeColor(lattice, Nx, Ny, x + last, y + last);
+        if (topLeft.equals(topRight) && topRight.equals(bottomLeft) && bottomLeft.equals(bottomRight))
+            return topLeft;
+        if (side <= 2)
+            return topLeft.add(topRight, bottomLeft, bottomRight).reduce(4);
+        int half = side / 2, sub = (side + 1) / 2;
+        return adaptiveSuperSampling(lattice, Nx, Ny, x, y, sub)
+                .add(adaptiveSuperSampling(lattice, Nx, Ny, x + half, y, sub),
+                        adaptiveSuperSampling(lattice, Nx, Ny, x, y + half, sub),
+                        adaptiveSuperSampling(lattice, Nx, Ny, x + half, y + half, sub))
+                .reduce(4);
     }
 
     private int threadsCount = 0;
     final int SPARE_THREADS = 2;
     double printInterval = 0;
+    private int tileSize = 16;
 
 
     public Camera setMultithreading(int threads) {
@@ -398,146 +613,87 @@ public class Camera implements Cloneable {
     }
 
 
-    record Pixel(int row, int col) {
-        private static int maxRows = 0;
-        private static int maxCols = 0;
-        private static long totalPixels = 0l;
-        private static volatile int cRow = 0;
-        private static volatile int cCol = -1;
-        private static volatile long pixels = 0l;
-        private static volatile int lastPrinted = 0;
-        private static boolean print = false;
-        private static long printInterval = 100l;
-        private static final String PRINT_FORMAT = "%5.1f%%\r";
-        private static Object mutexNext = new Object();
-        private static Object mutexPixels = new Object();
-
-        static void initialize(int maxRows, int maxCols, double interval) {
-            Pixel.maxRows = maxRows;
-            Pixel.maxCols = maxCols;
-            Pixel.totalPixels = (long) maxRows * maxCols;
-            printInterval = (int) (interval * 10);
-            if (print = printInterval != 0) System.out.printf(PRINT_FORMAT, 0d);
-        }
-
-
-        static Pixel nextPixel() {
-            synchronized (mutexNext) {
-                if (cRow == maxRows) return null;
-                ++cCol;
-                if (cCol < maxCols) return new Pixel(cRow, cCol);
-                cCol = 0;
-                ++cRow;
-                if (cRow < maxRows) return new Pixel(cRow, cCol);
-            }
-            return null;
-        }
-
-        static void pixelDone() {
-            boolean flag = false;
-            int percentage = 0;
-            synchronized (mutexPixels) {
-                ++pixels;
-                if (print) {
-                    percentage = (int) (1000l * pixels / totalPixels);
-                    if (percentage - lastPrinted >= printInterval) {
-                        lastPrinted = percentage;
-                        flag = true;
-                    }
-                }
-            }
-            if (flag) System.out.printf(PRINT_FORMAT, percentage / 10d);
-        }
-    }
-
-    public Camera renderImage() {
-        final int nX = imageWriter.getNx();
-        final int nY = imageWriter.getNy();
-        Pixel.initialize(nY, nX, printInterval);
-        if (threadsCount == 0)
-            for (int i = 0; i < nY; ++i)
-                for (int j = 0; j < nX; ++j)
-                    castRay(nX, nY, j, i);
-        else if (threadsCount == -1) {
-            IntStream.range(0, nY).parallel() //
-                    .forEach(i -> IntStream.range(0, nX).parallel() //
-                            .forEach(j -> castRay(nX, nY, j, i)));
-        } else {
-            var threads = new LinkedList<Thread>();
-            while (threadsCount-- > 0)
-                threads.add(new Thread(() -> {
-                    Pixel pixel;
-                    while ((pixel = Pixel.nextPixel()) != null)
-                        castRay(nX, nY, pixel.col(), pixel.row());
-                }));
-            for (var thread : threads) thread.start();
-            try {
-                for (var thread : threads) thread.join();
-            } catch (InterruptedException ignore) {
-            }
-        }
+    /**
+     * Sets the size of the side of the square tiles which the image is split into for rendering.
+     * A tile is the unit of work of a thread and of the progress accounting.
+     *
+     * @param tileSize The size of the side of a tile in pixels.
+     * @return This Camera instance.
+     * @throws IllegalArgumentException if the tile size is not positive.
+     */
+    public Camera setTileSize(int tileSize) {
+        if (tileSize <= 0) throw new IllegalArgumentException("The tile size must be positive");
+        this.tileSize = tileSize;
         return this;
     }
 
-    public Color adaptiveSuperSampling(ArrayList<ColorPoint> calculatedPoints, int gridSideLength, int gridRow, int gridColumn) {
-        List<Integer> cornerIndices = corners(gridSideLength, gridRow, gridColumn);
-        boolean isUniformColor = true;
-        for (int index = 0; index < cornerIndices.size(); index++) {
-            if (calculatedPoints.get(cornerIndices.get(index)).color == null)
-                calculatedPoints.set(cornerIndices.get(index), new ColorPoint(calculatedPoints.get(cornerIndices.get(index)).point, rayTracer.traceRay(new Ray(cameraLocation, calculatedPoints.get(cornerIndices.get(index)).point.subtract(cameraLocation)))));
-            if (index != 0)
-                if (!calculatedPoints.get(cornerIndices.get(index)).color.equals(calculatedPoints.get(cornerIndices.get(index - 1)).color)) {
-                    isUniformColor = false;
-                }
-        }
-        if (isUniformColor)
-            return calculatedPoints.get(cornerIndices.get(0)).color;
-        Color combinedColor = Color.BLACK;
-        if (gridSideLength > 2)
-            combinedColor = combinedColor.add(adaptiveSuperSampling(calculatedPoints, (gridSideLength+1)/ 2 , gridRow, gridColumn))
-                    .add(adaptiveSuperSampling(calculatedPoints, (gridSideLength+1) /2 , gridRow + gridSideLength / 2, gridColumn))
-                    .add(adaptiveSuperSampling(calculatedPoints, (gridSideLength+1) / 2 , gridRow, gridColumn + gridSideLength / 2))
-                    .add(adaptiveSuperSampling(calculatedPoints, (gridSideLength+1) / 2, gridRow + gridSideLength / 2, gridColumn + gridSideLength / 2));
-        else
-            for (int i = 0; i < 4; i++)
-                combinedColor = combinedColor.add(calculatedPoints.get(cornerIndices.get(i)).color);
-        return combinedColor.reduce(4);
+    /**
+     * Creates a job which renders the image of the camera tile by tile, with the current multithreading,
+     * tile size and debug print settings. The job is independent of any other job, so jobs of cameras
+     * with different image writers can run at the same time, and can be followed and cancelled.
+     * The geometries of the scene are compiled for the rendering when the job is created.
+     *
+     * @return The job, which wasn't started yet.
+     */
+    public RenderJob createRenderJob() {
+        rayTracer.prepare();
+        return new RenderJob(this,
+                new TileManager(imageWriter.getNx(), imageWriter.getNy(), tileSize, printInterval), threadsCount,
+                this::renderTile);
     }
 
-    public List<Integer> corners(int gridSide, int initialRow, int initialColumn) {
-        return List.of(
-                initialRow + initialColumn * rootNumberOfRays,
-                initialRow + gridSide - 1 + initialColumn * rootNumberOfRays,
-                initialRow + (initialColumn + gridSide - 1) * rootNumberOfRays,
-                initialRow + gridSide - 1 + (initialColumn + gridSide - 1) * rootNumberOfRays
-        );
+    /**
+     * Renders the image tile by tile. With -1 threads the tiles are rendered by the common fork/join pool with
+     * work stealing, with a positive amount of threads every thread takes the next tile from an atomic counter.
+     * A rendering which should be cancellable or have a time limit is run through {@link #createRenderJob()}.
+     *
+     * @return This Camera instance.
+     */
+    public Camera renderImage() {
+        createRenderJob().run();
+        return this;
     }
 
-
-    public List<Point> generateSquareGridPoints(int sampleCount, double gridSideLength, Point gridCenter) {
-        double pixelStep = gridSideLength / sampleCount;
-        double yPos, xPos;
-        Point gridPoint;
-        List<Point> pointsList = new ArrayList<>();
-        for (int i = 0; i < sampleCount; i++) {
-            for (int j = 0; j < sampleCount; j++) {
-                yPos = (-(i - (sampleCount - 1.0) / 2.0) * pixelStep);
-                xPos = ((j - (sampleCount - 1.0) / 2.0) * pixelStep);
-                // gridPoint - center point in the sub-pixel i,j
-                if (!Util.isZero(xPos) && !Util.isZero(yPos))
-                    gridPoint = gridCenter.add(Vright.scale(xPos).add(Vup.scale(yPos)));
-                else if (!Util.isZero(xPos))
-                    gridPoint = gridCenter.add(Vright.scale(xPos));
-                else if (!Util.isZero(yPos))
-                    gridPoint = gridCenter.add(Vup.scale(yPos));
-                else
-                    gridPoint = gridCenter;
-
-                pointsList.add(gridPoint);
+    /**
+     * Renders the image progressively, for previews: every pass adds one sample to every pixel of the whole image
+     * into an accumulation buffer, so a noisy image of the whole frame is ready after the first pass and is refined
+     * by every following pass. The passes stop when the target amount of samples per pixel is reached or when the
+     * time budget is over - a pass which was started is always finished, so all the pixels have the same amount of
+     * samples. The anti-aliasing and the adaptive sampling settings are ignored, every pass takes a single sample.
+     *
+     * @param targetSamples The target amount of samples per pixel, 0 for no target.
+     * @param budgetMillis  The time budget in milliseconds, 0 for no budget.
+     * @param flushInterval The amount of passes between writes of the intermediate image into the image file,
+     *                      0 for writing only into the image writer after the last pass.
+     * @return This Camera instance.
+     * @throws IllegalArgumentException if a value is negative, or if there is neither a target nor a budget.
+     */
+    public Camera renderProgressive(int targetSamples, long budgetMillis, int flushInterval) {
+        if (targetSamples < 0 || budgetMillis < 0 || flushInterval < 0)
+            throw new IllegalArgumentException("The target, the budget and the flush interval must not be negative");
+        if (targetSamples == 0 && budgetMillis == 0)
+            throw new IllegalArgumentException("A progressive rendering needs a target amount of samples or a budget");
+        final int nX = imageWriter.getNx();
+        final int nY = imageWriter.getNy();
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        AccumulationBuffer buffer = new AccumulationBuffer(nX, nY);
+        rayTracer.prepare();
+        do {
+            final int pass = buffer.getPasses();
+            RenderJob job = new RenderJob(this, new TileManager(nX, nY, tileSize, 0), threadsCount,
+                    tile -> renderProgressiveTile(tile, pass, buffer));
+            job.run();
+            if (job.isCancelled()) break;
+            buffer.passDone();
+            if (flushInterval > 0 && buffer.getPasses() % flushInterval == 0) {
+                buffer.resolve(imageWriter);
+                imageWriter.writeToImage();
             }
-        }
-        return pointsList;
+            if (printInterval != 0)
+                System.out.printf("%d spp\r", buffer.getPasses());
+        } while ((targetSamples == 0 || buffer.getPasses() < targetSamples)
+                && (budgetMillis == 0 || System.nanoTime() - deadline < 0));
+        buffer.resolve(imageWriter);
+        return this;
     }
 }
-
-
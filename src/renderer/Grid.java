@@ -1,19 +1,21 @@
 package renderer;
 
 import primitives.Point;
+import primitives.Sampler;
 import primitives.Vector;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import static primitives.Util.isZero;
-import static primitives.Util.random;
 
 
 public class Grid {
     public int rootNumberOfRays = 1;
     public double width = 0;
     public double height = 0;
+    /** The low-discrepancy sequence which places the samples inside their cells */
+    private Sampler.Sequence sequence = Sampler.Sequence.HALTON;
 
     public Grid(int rootNumberOfRays, double width, double height) {
         this.rootNumberOfRays = rootNumberOfRays == 0 ? 1 : rootNumberOfRays;
@@ -21,37 +23,97 @@ public class Grid {
         this.height = height;
     }
 
-    List<Point> grid;
-
-    public void rayBeam(Point p, Vector vUp, Vector vRight) {
-        if (rootNumberOfRays == 1)
-            grid = List.of(p);
-        else {
-            grid = new LinkedList<Point>();
-            // Pixel aspect ratio
-            double rH = height / rootNumberOfRays;
-            double rW = width / rootNumberOfRays;
-
-            // Calculate pixel coordinates in camera space
-            for (int i = 0; i < rootNumberOfRays; i++)
-                for (int j = 0; j < rootNumberOfRays; j++) {
-                    double yOffset = -(i - (double) (rootNumberOfRays - 1) / 2) * rH- rH / 2;
-                    double xOffset = (j - (double) (rootNumberOfRays - 1) / 2) * rW - rW / 2;
-
-                    double xMove = random(0, rW);
-                    double yMove = random(0, rH);
-
+    /**
+     * Gets the amount of samples of the grid - one sample in every cell.
+     *
+     * @return The amount of samples.
+     */
+    public int size() {
+        return rootNumberOfRays * rootNumberOfRays;
+    }
 
-                    Point point = p;
+    /**
+     * Sets the low-discrepancy sequence which places the samples inside their cells.
+     *
+     * @param sequence The sequence.
+     * @return The grid.
+     */
+    public Grid setSequence(Sampler.Sequence sequence) {
+        this.sequence = sequence;
+        return this;
+    }
 
-                    if (!isZero(xOffset)|| !isZero(xMove))
-                        point=point.add(vRight.scale(xOffset  +xMove));
-                    if (!isZero(yOffset) || !isZero(yMove))
-                        point=point.add(vUp.scale(yOffset + yMove));
+    /**
+     * Writes offsets from the center of the grid, one in every cell, into a buffer of the caller -
+     * the right offset and the up offset of every sample, row after row from the top.
+     * Every sample is moved inside its cell by the next point of the low-discrepancy sequence of the grid,
+     * rotated by the seed. So the samples stay stratified, their positions inside the cells are spread evenly,
+     * and the same seed gives the same samples in every run and in every thread. Nothing is allocated.
+     * A grid with a single cell has the single offset (0, 0).
+     *
+     * @param offsets The buffer of the offsets, of at least 2 * {@link #size()} numbers.
+     * @param seed    The seed of the rotation of the sequence, e.g. of the pixel or of the shaded point.
+     * @return The amount of samples which were written.
+     * @throws IllegalArgumentException if the buffer is too small.
+     */
+    public int sample(double[] offsets, long seed) {
+        int size = size();
+        if (offsets.length < 2 * size)
+            throw new IllegalArgumentException("The buffer of the offsets is too small");
+        if (rootNumberOfRays == 1) {
+            offsets[0] = 0;
+            offsets[1] = 0;
+            return 1;
+        }
+        Sampler.fill(sequence, size, seed, offsets);
+        double rH = height / rootNumberOfRays;
+        double rW = width / rootNumberOfRays;
+        int k = 0;
+        for (int i = 0; i < rootNumberOfRays; i++)
+            for (int j = 0; j < rootNumberOfRays; j++) {
+                offsets[k] = (j + offsets[k]) * rW - width / 2;
+                ++k;
+                offsets[k] = height / 2 - (i + offsets[k]) * rH;
+                ++k;
+            }
+        return size;
+    }
 
+    /**
+     * Creates a beam of jittered points around a center point, one point in every cell of the grid.
+     * The points are returned rather than kept in the grid, so a grid may be shared by threads and by renders.
+     * The samples are seeded by the center point, so the beam around the same point is the same in every run.
+     *
+     * @param p      The center of the grid.
+     * @param vUp    The up direction of the grid.
+     * @param vRight The right direction of the grid.
+     * @return The points of the beam.
+     */
+    public List<Point> rayBeam(Point p, Vector vUp, Vector vRight) {
+        double[] offsets = new double[2 * size()];
+        int size = sample(offsets, Sampler.seed(p.getX(), p.getY(), p.getZ()));
+        List<Point> grid = new ArrayList<>(size);
+        for (int k = 0; k < size; k++)
+            grid.add(offset(p, vUp, vRight, offsets[2 * k], offsets[2 * k + 1]));
+        return grid;
+    }
 
-                    grid.addLast(point);
-                }
-        }
+    /**
+     * Moves a point by an offset in the plane of the grid.
+     *
+     * @param p      The point.
+     * @param vUp    The up direction of the grid.
+     * @param vRight The right direction of the grid.
+     * @param right  The offset along the right direction.
+     * @param up     The offset along the up direction.
+     * @return The moved point.
+     */
+    public static Point offset(Point p, Vector vUp, Vector vRight, double right, double up) {
+        Point point = p;
+        if (!isZero(right))
+            point = point.add(vRight.scale(right));
+        if (!isZero(up))
+            point = point.add(vUp.scale(up));
+        return point;
     }
 }
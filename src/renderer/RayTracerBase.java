@@ -22,6 +22,15 @@ public abstract class RayTracerBase {
         this.scene = scene;
     }
 
+    /**
+     * Prepares the scene for the tracing of the rays of a rendering, by compiling its geometries.
+     * It is called when a rendering starts, and does nothing if the scene wasn't changed since the last rendering.
+     */
+    public void prepare() {
+        if (scene != null && scene.geometries != null)
+            scene.geometries.compile();
+    }
+
     /**
      * Traces the given ray through the scene and computes the color of the intersection point.
      *
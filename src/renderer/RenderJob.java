@@ -0,0 +1,194 @@
+package renderer;
+
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * The RenderJob class is a single rendering of the image of a camera.
+ * All the state of the rendering - the distribution of the tiles, the progress and the cancellation - belongs
+ * to the job, so jobs of different cameras can run at the same time, also on a shared scene.
+ * A job may be run once, by {@link #run()} directly or by any executor, and may be followed and cancelled
+ * from other threads while it runs. The cancellation is cooperative: the threads check it, and the time limit
+ * of the job, whenever they finish a tile, so a stopped job leaves whole tiles rendered and the others untouched,
+ * and the partial image can be written by {@link #writeToImage()}.
+ */
+public class RenderJob implements Runnable {
+    /** The camera which renders the image */
+    private final Camera camera;
+    /** The tiles of the image */
+    private final TileManager tiles;
+    /** The renderer of a tile */
+    private final Consumer<TileManager.Tile> renderer;
+    /** The amount of threads - 0 for the calling thread only, -1 for the common fork/join pool */
+    private final int threadsCount;
+    /** Flag of a job which was started */
+    private final AtomicBoolean started = new AtomicBoolean();
+    /** Flag of a job which finished running */
+    private volatile boolean done = false;
+    /** The time limit of the job in milliseconds, 0 for no limit */
+    private long timeLimit = 0;
+
+    /**
+     * Constructs a job of a camera.
+     *
+     * @param camera       The camera.
+     * @param tiles        The tiles of the image of the camera.
+     * @param threadsCount The amount of threads - 0 for the calling thread only, -1 for the common fork/join pool.
+     * @param renderer     The renderer of a tile.
+     */
+    RenderJob(Camera camera, TileManager tiles, int threadsCount, Consumer<TileManager.Tile> renderer) {
+        this.camera = camera;
+        this.tiles = tiles;
+        this.threadsCount = threadsCount;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Renders the image of the camera, and returns after all the tiles are rendered or the job is cancelled.
+     * If the running thread is interrupted while waiting for the threads of the job, the job is cancelled, and
+     * it still returns only after the threads finished the tiles they were rendering, with the interrupt status set.
+     *
+     * @throws IllegalStateException if the job was already started.
+     */
+    @Override
+    public void run() {
+        if (!started.compareAndSet(false, true))
+            throw new IllegalStateException("A render job may be run only once");
+        if (timeLimit > 0)
+            tiles.setDeadline(System.nanoTime() + timeLimit * 1_000_000);
+        try {
+            if (threadsCount == 0)
+                renderTiles();
+            else if (threadsCount == -1)
+                IntStream.range(0, tiles.getTileCount()).parallel().forEach(index -> {
+                    if (tiles.isStopped()) return;
+                    TileManager.Tile tile = tiles.getTile(index);
+                    renderer.accept(tile);
+                    tiles.tileDone(tile);
+                });
+            else {
+                var threads = new LinkedList<Thread>();
+                for (int t = 0; t < threadsCount; ++t)
+                    threads.add(new Thread(this::renderTiles));
+                for (var thread : threads) thread.start();
+                boolean interrupted = false;
+                for (var thread : threads)
+                    // after an interrupt the threads are cancelled, but the job is done only when they finish
+                    // their tiles - until then they still write pixels
+                    while (true) {
+                        try {
+                            thread.join();
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                            tiles.cancel();
+                        }
+                    }
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+            }
+        } finally {
+            done = true;
+        }
+    }
+
+    /**
+     * Renders tiles until the tile manager runs out of tiles.
+     */
+    private void renderTiles() {
+        TileManager.Tile tile;
+        while ((tile = tiles.nextTile()) != null) {
+            renderer.accept(tile);
+            tiles.tileDone(tile);
+        }
+    }
+
+    /**
+     * Sets the time limit of the job, counted from the start of {@link #run()}. When the time is over no tile is
+     * started anymore, the tiles which are being rendered are finished and the job is cancelled.
+     *
+     * @param millis The time limit in milliseconds, 0 for no limit.
+     * @return This RenderJob instance.
+     * @throws IllegalArgumentException if the time limit is negative.
+     * @throws IllegalStateException    if the job was already started.
+     */
+    public RenderJob setTimeLimit(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("The time limit must not be negative");
+        if (started.get())
+            throw new IllegalStateException("The time limit must be set before the job is run");
+        timeLimit = millis;
+        return this;
+    }
+
+    /**
+     * Cancels the job - the tiles which are being rendered are finished, and the other tiles stay as they are.
+     */
+    public void cancel() {
+        tiles.cancel();
+    }
+
+    /**
+     * Checks whether the job was cancelled, either by {@link #cancel()}, by an interrupt or by its time limit.
+     *
+     * @return True if the job was cancelled, false otherwise.
+     */
+    public boolean isCancelled() {
+        return tiles.isCancelled();
+    }
+
+    /**
+     * Checks whether the job was stopped by its time limit.
+     *
+     * @return True if the time was over before all the tiles were started, false otherwise.
+     */
+    public boolean isTimedOut() {
+        return tiles.isTimedOut();
+    }
+
+    /**
+     * Checks whether the job rendered the whole image.
+     *
+     * @return True if all the pixels were rendered, false otherwise.
+     */
+    public boolean isComplete() {
+        return tiles.getProgress() == 1;
+    }
+
+    /**
+     * Checks whether the job finished running, either after rendering all the tiles or after a cancellation.
+     *
+     * @return True if the job finished running, false otherwise.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Calculates the part of the pixels of the image which have been rendered.
+     *
+     * @return The progress, between 0 and 1.
+     */
+    public double getProgress() {
+        return tiles.getProgress();
+    }
+
+    /**
+     * Writes the image of the camera into its file - after a cancellation, the pixels of the tiles which weren't
+     * rendered are left black.
+     */
+    public void writeToImage() {
+        camera.writeToImage();
+    }
+
+    /**
+     * Gets the camera of the job.
+     *
+     * @return The camera.
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+}
@@ -1,13 +1,13 @@
 package renderer;
 
-import geometries.Intersectable;
 import lighting.LightSource;
 import lighting.PointLight;
 import primitives.*;
 import scene.Scene;
 import geometries.Intersectable.GeoPoint;
 
-import java.util.List;
+import java.util.Arrays;
+
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -24,6 +24,33 @@ public class SimpleRayTracer extends RayTracerBase {
     private static final double MIN_CALC_COLOR_K = 0.001;
     public static final Double3 INITIAL_K = Double3.ONE;
 
+    /** The buffers of the samples of the area lights, one set of buffers per thread */
+    private final ThreadLocal<LightSamples> lightSamples = ThreadLocal.withInitial(LightSamples::new);
+
+    /**
+     * The buffers of the samples of an area light at a shaded point.
+     */
+    private static class LightSamples {
+        /** The right and up offsets of the samples in the plane of the light - two numbers per sample */
+        double[] offsets = new double[0];
+        /** The vectors from the shaded point to the samples - three numbers per sample */
+        double[] directions = new double[0];
+        /** The transparency towards every sample, null for a sample which wasn't traced yet */
+        Double3[] transparency = new Double3[0];
+
+        /**
+         * Makes sure the buffers are big enough for a grid.
+         *
+         * @param size The amount of samples of the grid.
+         */
+        void ensure(int size) {
+            if (transparency.length >= size) return;
+            offsets = new double[2 * size];
+            directions = new double[3 * size];
+            transparency = new Double3[size];
+        }
+    }
+
     /**
      * Constructs a SimpleRayTracer with the given scene.
      *
@@ -41,10 +68,8 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
-        var intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null) return scene.background;
-        Intersectable.GeoPoint closestPoint = ray.findClosestGeoPoint(intersections);
-        return calcColor(closestPoint, ray);
+        GeoPoint closestPoint = findClosestIntersection(ray);
+        return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
     }
 
     /**
@@ -109,7 +134,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The closest intersection point with objects in the scene.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        return ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
     /**
@@ -120,7 +145,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The refracted ray.
      */
     private Ray constructRefractedRay(GeoPoint gp, Ray ray) {
-        return new Ray(gp.point, ray.getDirection(), gp.geometry.getNormal(gp.point));
+        return new Ray(gp.point, ray.getDirection(), gp.geometry.getNormal(gp));
     }
 
     /**
@@ -131,11 +156,9 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The reflected ray.
      */
     private Ray constructReflectedRay(GeoPoint gp, Ray ray) {
-        Vector n = gp.geometry.getNormal(gp.point);
+        Vector n = gp.geometry.getNormal(gp);
         Vector v = ray.getDirection();
-        double nv = v.dotProduct(n);
-        Vector r = v.subtract(n.scale(2 * nv));
-        return new Ray(gp.point, r, n);
+        return new Ray(gp.point, VectorMath.reflect(v, n, v.dotProduct(n)), n);
     }
 
     /**
@@ -149,7 +172,7 @@ public class SimpleRayTracer extends RayTracerBase {
     private Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
         Color color = gp.geometry.getEmission();    //geometry's emission
 
-        Vector n = gp.geometry.getNormal(gp.point);
+        Vector n = gp.geometry.getNormal(gp);
         Vector v = ray.getDirection();
         double nv = alignZero(n.dotProduct(v));
         if (isZero(nv)) //if the ray is tangent to the gemetry there is no specular and diffusive effects
@@ -165,7 +188,7 @@ public class SimpleRayTracer extends RayTracerBase {
                     Color iL = lightSource.getIntensity(gp.point).scale(ktr);
                     color = color.add(
                             iL.scale(calcDiffusive(material, nl)
-                                    .add(calcSpecular(material, n, l, nl, v))));
+                                    .add(calcSpecular(material, nl, nv, l.dotProduct(v)))));
                 }
             }
         }
@@ -187,17 +210,17 @@ public class SimpleRayTracer extends RayTracerBase {
 
     /**
      * Calculates the specular reflection component at an intersection point.
+     * The reflection of the light vector is r = l - 2 (n . l) n, so -v . r = 2 (n . l) (n . v) - l . v is found
+     * from the dot products alone, without building r.
      *
      * @param material The material of the intersected geometry.
-     * @param n        The normal vector at the intersection point.
-     * @param l        The light vector.
      * @param nl       The dot product of the normal vector and the light vector.
-     * @param v        The view vector.
+     * @param nv       The dot product of the normal vector and the view vector.
+     * @param lv       The dot product of the light vector and the view vector.
      * @return The specular reflection component.
      */
-    private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-        Vector r = l.subtract(n.scale(2 * nl));
-        return material.kS.scale(Math.pow(Math.max(0, -v.dotProduct(r)), material.shininess));
+    private Double3 calcSpecular(Material material, double nl, double nv, double lv) {
+        return material.kS.scale(Math.pow(Math.max(0, 2 * nl * nv - lv), material.shininess));
     }
 
     /**
@@ -213,47 +236,123 @@ public class SimpleRayTracer extends RayTracerBase {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(geoPoint.point, lightDirection, n);
         double lightD = lightSource.getDistance(geoPoint.point);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, lightD);
-        if (intersections == null)
+        Double3 ktr = scene.geometries.findTransparency(lightRay, lightD);
+        // the penumbra is sampled only around points whose central shadow ray is blocked
+        if (ktr.equals(Double3.ONE))
             return Double3.ONE;
-        Double3 ktr = Double3.ONE;
-        if (((PointLight) lightSource).softShadow)
-            return softShadow(((PointLight) lightSource), lightDirection, geoPoint.point, n);
-        else
-            for (GeoPoint gp : intersections) {
-                ktr = ktr.product(gp.geometry.getMaterial().kT);
-                if (ktr.equals(Double3.ZERO))
-                    break;
-            }
+        if (lightSource instanceof PointLight pointLight && pointLight.softShadow && pointLight.grid != null)
+            return softShadow(pointLight, lightDirection, geoPoint.point, n);
         return ktr;
     }
 
-    private Double3 softShadow(PointLight pointLight, Vector lightDirection, Point point,Vector n) {
-        Double3 avrageKtr = Double3.ZERO;
-        Vector vUp, vRight;
-        if (lightDirection.equals(new Vector(1, 0, 0)) || lightDirection.equals(new Vector(-1, 0, 0)))
-            vUp = new Vector(0, 0, 1);
-        else
-            vUp = lightDirection.crossProduct(new Vector(1, 0, 0));
-        vRight = vUp.crossProduct(lightDirection);
-        pointLight.grid.rayBeam(pointLight.position, vUp, vRight);
-        for (Point gridPoint : pointLight.grid.grid) {
-            Double3 ktr = Double3.ONE;
-            Ray lightRay = new Ray(point,gridPoint.subtract(point), n);
-            double lightD = gridPoint.distance(point);
-            List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, lightD);
-            if (intersections == null)
-                ktr = Double3.ONE;
-            else
-                for (GeoPoint gp : intersections) {
-                    ktr = ktr.product(gp.geometry.getMaterial().kT);
-                    if (ktr.equals(Double3.ZERO))
-                        break;
-                }
-            avrageKtr = avrageKtr.add(ktr);
+    /**
+     * Calculates the transparency between a point and the area of a light source, by averaging the shadow rays
+     * to jittered samples in the cells of the grid of the light. The grid lies in the plane perpendicular to
+     * the direction to the light, and the samples are drawn into buffers of the calling thread, so threads
+     * never share samples and no point is allocated per sample.
+     * With adaptive sampling only the regions of the grid whose corners disagree are sampled further.
+     *
+     * @param pointLight     The light source.
+     * @param lightDirection The direction from the point towards the light source.
+     * @param point          The point.
+     * @param n              The normal at the point.
+     * @return The average transparency of the samples.
+     */
+    private Double3 softShadow(PointLight pointLight, Vector lightDirection, Point point, Vector n) {
+        Grid grid = pointLight.grid;
+        LightSamples samples = lightSamples.get();
+        samples.ensure(grid.size());
+        int size = grid.sample(samples.offsets, Sampler.seed(point.getX(), point.getY(), point.getZ()));
+
+        // an orthonormal basis of the plane of the light
+        Vector vUp = isZero(lightDirection.getY()) && isZero(lightDirection.getZ())
+                ? new Vector(0, 0, 1)
+                : lightDirection.crossProduct(new Vector(1, 0, 0)).normalize();
+        Vector vRight = vUp.crossProduct(lightDirection).normalize();
+        double ux = vUp.getX(), uy = vUp.getY(), uz = vUp.getZ();
+        double rx = vRight.getX(), ry = vRight.getY(), rz = vRight.getZ();
+        double px = pointLight.position.getX() - point.getX();
+        double py = pointLight.position.getY() - point.getY();
+        double pz = pointLight.position.getZ() - point.getZ();
+        double[] offsets = samples.offsets, directions = samples.directions;
+        for (int k = 0; k < size; k++) {
+            double right = offsets[2 * k], up = offsets[2 * k + 1];
+            directions[3 * k] = px + right * rx + up * ux;
+            directions[3 * k + 1] = py + right * ry + up * uy;
+            directions[3 * k + 2] = pz + right * rz + up * uz;
+        }
+
+        Arrays.fill(samples.transparency, 0, size, null);
+        Double3 sum;
+        if (pointLight.adaptiveSoftShadow) {
+            sum = adaptiveSoftShadow(samples, grid.rootNumberOfRays, point, n,
+                    0, 0, grid.rootNumberOfRays, grid.rootNumberOfRays);
+        } else {
+            sum = Double3.ZERO;
+            for (int k = 0; k < size; k++)
+                sum = sum.add(sampleTransparency(samples, k, point, n));
         }
-        return avrageKtr.scale(1 / (Math.pow(pointLight.grid.rootNumberOfRays, 2)));
+        return sum.scale(1d / size);
     }
 
+    /**
+     * Sums the transparency towards the samples of a rectangle of cells of the grid of a light.
+     * The corners of the rectangle are traced first. If they agree, all the cells of the rectangle are taken to
+     * have the same transparency, otherwise the rectangle is split into four and each part is summed the same
+     * way. Every sample is traced at most once, since corners shared by parts are cached.
+     *
+     * @param samples The samples of the light at the point, with the cache of the traced samples.
+     * @param side    The amount of cells in a row of the grid.
+     * @param point   The point.
+     * @param n       The normal at the point.
+     * @param row     The first row of the rectangle.
+     * @param col     The first column of the rectangle.
+     * @param rows    The amount of rows of the rectangle.
+     * @param cols    The amount of columns of the rectangle.
+     * @return The sum of the transparency towards all the cells of the rectangle.
+     */
+    private Double3 adaptiveSoftShadow(LightSamples samples, int side, Point point, Vector n,
+                                       int row, int col, int rows, int cols) {
+        if (rows == 0 || cols == 0)
+            return Double3.ZERO;
+        if (rows * cols <= 4) {
+            Double3 sum = Double3.ZERO;
+            for (int i = row; i < row + rows; i++)
+                for (int j = col; j < col + cols; j++)
+                    sum = sum.add(sampleTransparency(samples, i * side + j, point, n));
+            return sum;
+        }
+        int lastRow = row + rows - 1, lastCol = col + cols - 1;
+        Double3 corner = sampleTransparency(samples, row * side + col, point, n);
+        if (corner.equals(sampleTransparency(samples, row * side + lastCol, point, n))
+                && corner.equals(sampleTransparency(samples, lastRow * side + col, point, n))
+                && corner.equals(sampleTransparency(samples, lastRow * side + lastCol, point, n)))
+            return corner.scale(rows * cols);
+        int halfRows = rows / 2, halfCols = cols / 2;
+        return adaptiveSoftShadow(samples, side, point, n, row, col, halfRows, halfCols)
+                .add(adaptiveSoftShadow(samples, side, point, n, row, col + halfCols, halfRows, cols - halfCols))
+                .add(adaptiveSoftShadow(samples, side, point, n, row + halfRows, col, rows - halfRows, halfCols))
+                .add(adaptiveSoftShadow(samples, side, point, n, row + halfRows, col + halfCols,
+                        rows - halfRows, cols - halfCols));
+    }
 
+    /**
+     * Calculates the transparency towards a sample of a light, tracing the shadow ray only once per sample.
+     *
+     * @param samples The samples of the light at the point, with the cache of the traced samples.
+     * @param k       The index of the sample.
+     * @param point   The point.
+     * @param n       The normal at the point.
+     * @return The transparency towards the sample.
+     */
+    private Double3 sampleTransparency(LightSamples samples, int k, Point point, Vector n) {
+        Double3 ktr = samples.transparency[k];
+        if (ktr != null)
+            return ktr;
+        double dx = samples.directions[3 * k], dy = samples.directions[3 * k + 1], dz = samples.directions[3 * k + 2];
+        Ray lightRay = new Ray(point, new Vector(dx, dy, dz), n);
+        ktr = scene.geometries.findTransparency(lightRay, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        samples.transparency[k] = ktr;
+        return ktr;
+    }
 }
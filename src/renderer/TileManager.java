@@ -0,0 +1,194 @@
+package renderer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TileManager is a helper class for multi-threading in the renderer and for following up its progress.<br/>
+ * The image is split into square tiles, which are handed out to the threads through an atomic counter,
+ * so the threads never wait on a lock for their next piece of work. The progress is accounted once per
+ * tile rather than once per pixel.
+ */
+class TileManager {
+    /**
+     * Immutable record of a tile of the image - the pixels from (x0, y0) up to but not including (x1, y1).
+     *
+     * @param x0 The first column of the tile.
+     * @param y0 The first row of the tile.
+     * @param x1 The column after the last column of the tile.
+     * @param y1 The row after the last row of the tile.
+     */
+    record Tile(int x0, int y0, int x1, int y1) {
+        /**
+         * Calculates the amount of pixels in the tile.
+         *
+         * @return The amount of pixels.
+         */
+        int pixels() {
+            return (x1 - x0) * (y1 - y0);
+        }
+    }
+
+    /** Printing format */
+    private static final String PRINT_FORMAT = "%5.1f%%\r";
+
+    /** Maximum columns of pixels */
+    private final int maxCols;
+    /** Maximum rows of pixels */
+    private final int maxRows;
+    /** The size of the side of a tile in pixels */
+    private final int tileSize;
+    /** The amount of tiles in a row of tiles */
+    private final int tilesPerRow;
+    /** The total amount of tiles */
+    private final int tileCount;
+    /** Total amount of pixels in the generated image */
+    private final long totalPixels;
+
+    /** The index of the next tile to hand out */
+    private final AtomicInteger nextTile = new AtomicInteger();
+    /** Amount of pixels that have been processed */
+    private final AtomicLong pixels = new AtomicLong();
+    /** Last printed progress update, in tenths of percent */
+    private final AtomicInteger lastPrinted = new AtomicInteger();
+    /** Flag of cancellation - no tile is handed out after the cancellation */
+    private volatile boolean cancelled = false;
+    /** Flag of a rendering which was stopped by its deadline */
+    private volatile boolean timedOut = false;
+    /** The deadline of the rendering in terms of {@link System#nanoTime()}, meaningful only if there is a deadline */
+    private volatile long deadline;
+    /** Flag of a rendering with a deadline */
+    private volatile boolean hasDeadline = false;
+
+    /** Flag of debug printing of progress percentage */
+    private final boolean print;
+    /** Progress percentage printing interval, in tenths of percent */
+    private final int printInterval;
+
+    /**
+     * Initializes the tile manager data for multi-threading.
+     *
+     * @param maxCols  The amount of pixel columns.
+     * @param maxRows  The amount of pixel rows.
+     * @param tileSize The size of the side of a tile in pixels.
+     * @param interval Print interval in percents, 0 if printing is not required.
+     * @throws IllegalArgumentException if the tile size is not positive.
+     */
+    TileManager(int maxCols, int maxRows, int tileSize, double interval) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("The tile size must be positive");
+        this.maxCols = maxCols;
+        this.maxRows = maxRows;
+        this.tileSize = tileSize;
+        tilesPerRow = (maxCols + tileSize - 1) / tileSize;
+        tileCount = tilesPerRow * ((maxRows + tileSize - 1) / tileSize);
+        totalPixels = (long) maxRows * maxCols;
+        printInterval = (int) (interval * 10);
+        if (print = printInterval != 0) System.out.printf(PRINT_FORMAT, 0d);
+    }
+
+    /**
+     * Gets the total amount of tiles.
+     *
+     * @return The amount of tiles.
+     */
+    int getTileCount() {
+        return tileCount;
+    }
+
+    /**
+     * Gets a tile by its index - the tiles are numbered row by row.
+     *
+     * @param index The index of the tile.
+     * @return The tile.
+     */
+    Tile getTile(int index) {
+        int x0 = (index % tilesPerRow) * tileSize;
+        int y0 = (index / tilesPerRow) * tileSize;
+        return new Tile(x0, y0, Math.min(x0 + tileSize, maxCols), Math.min(y0 + tileSize, maxRows));
+    }
+
+    /**
+     * Hands out the next tile which wasn't handed out yet. The function is thread-safe and lock-free.
+     *
+     * @return The next tile, or null if all the tiles were handed out or the rendering was cancelled.
+     */
+    Tile nextTile() {
+        if (isStopped()) return null;
+        int index = nextTile.getAndIncrement();
+        return index < tileCount ? getTile(index) : null;
+    }
+
+    /**
+     * Finishes the processing of a tile by updating and printing the progress percentage.
+     *
+     * @param tile The tile which was processed.
+     */
+    void tileDone(Tile tile) {
+        long done = pixels.addAndGet(tile.pixels());
+        if (!print) return;
+        int percentage = (int) (1000L * done / totalPixels);
+        int last = lastPrinted.get();
+        // only the thread which advances the last printed percentage prints it
+        if (percentage - last >= printInterval && lastPrinted.compareAndSet(last, percentage))
+            System.out.printf(PRINT_FORMAT, percentage / 10d);
+    }
+
+    /**
+     * Cancels the rendering - the tiles which are being rendered are finished, and no other tile is handed out.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the rendering was cancelled, either explicitly or by its deadline.
+     *
+     * @return True if the rendering was cancelled, false otherwise.
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Sets the deadline of the rendering - no tile is handed out after the deadline.
+     *
+     * @param deadline The deadline in terms of {@link System#nanoTime()}.
+     */
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+        hasDeadline = true;
+    }
+
+    /**
+     * Checks whether the rendering should stop, at the boundary of a tile - if it was cancelled or its deadline
+     * passed. A passed deadline cancels the rendering.
+     *
+     * @return True if the rendering should stop, false otherwise.
+     */
+    boolean isStopped() {
+        if (!cancelled && hasDeadline && System.nanoTime() - deadline >= 0) {
+            timedOut = true;
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+    /**
+     * Checks whether the rendering was stopped by its deadline.
+     *
+     * @return True if the deadline passed before all the tiles were handed out, false otherwise.
+     */
+    boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Calculates the part of the pixels which have been processed.
+     *
+     * @return The progress, between 0 and 1.
+     */
+    double getProgress() {
+        return totalPixels == 0 ? 1 : (double) pixels.get() / totalPixels;
+    }
+}
@@ -0,0 +1,452 @@
+package scene;
+
+import geometries.TriangleMesh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The ObjLoader class loads a Wavefront OBJ file into a {@link TriangleMesh}.
+ * The file is streamed through a byte buffer and parsed straight into arrays of primitive numbers,
+ * so no object is created per vertex or per face.
+ * The vertices ({@code v}), the normals of the vertices ({@code vn}) and the faces ({@code f}) are loaded,
+ * faces with more than three vertices are split into a fan of triangles, and all the other lines are skipped.
+ * A vertex gets the normal of the last face which refers to both of them.
+ */
+public final class ObjLoader {
+    /** The size of the buffer of the file */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** The exact powers of ten in double precision, used for the fast parsing of numbers */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /** The stream of the file */
+    private final InputStream input;
+    /** Flag of a mesh stored in single precision */
+    private final boolean singlePrecision;
+    /** The buffer of the file */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    /** The position of the next byte in the buffer */
+    private int position = 0;
+    /** The amount of bytes in the buffer */
+    private int limit = 0;
+    /** The number of the current line, for the error messages */
+    private int line = 1;
+    /** The characters of the current number, for numbers which the fast parsing can't handle */
+    private final char[] number = new char[64];
+
+    /** The coordinates of the vertices - three numbers per vertex */
+    private double[] positions = new double[3 * 1024];
+    /** The amount of numbers in the coordinates of the vertices */
+    private int positionCount = 0;
+    /** The normals in the file - three numbers per normal */
+    private double[] normals = new double[3 * 1024];
+    /** The amount of numbers in the normals */
+    private int normalCount = 0;
+    /** The index of the normal of each vertex, -1 if the vertex has no normal */
+    private int[] vertexNormals = new int[1024];
+    /** The indices of the vertices of the triangles */
+    private int[] indices = new int[3 * 1024];
+    /** The amount of the indices of the vertices of the triangles */
+    private int indexCount = 0;
+    /** The vertices of the current face */
+    private int[] face = new int[16];
+
+    /**
+     * Constructs a loader of a stream.
+     *
+     * @param input           The stream of the file.
+     * @param singlePrecision Whether the mesh is stored in single precision.
+     */
+    private ObjLoader(InputStream input, boolean singlePrecision) {
+        this.input = input;
+        this.singlePrecision = singlePrecision;
+        Arrays.fill(vertexNormals, -1);
+    }
+
+    /**
+     * Loads an OBJ file into a triangle mesh.
+     *
+     * @param path The path of the file.
+     * @return The mesh of the file.
+     * @throws IllegalArgumentException if the file is malformed or has no faces.
+     * @throws IllegalStateException    if the file can't be read.
+     */
+    public static TriangleMesh load(Path path) {
+        return load(path, false);
+    }
+
+    /**
+     * Loads an OBJ file into a triangle mesh, which may be stored in single precision, see {@link TriangleMesh}.
+     *
+     * @param path            The path of the file.
+     * @param singlePrecision Whether the mesh is stored in single precision.
+     * @return The mesh of the file.
+     * @throws IllegalArgumentException if the file is malformed or has no faces.
+     * @throws IllegalStateException    if the file can't be read.
+     */
+    public static TriangleMesh load(Path path, boolean singlePrecision) {
+        try (InputStream input = Files.newInputStream(path)) {
+            return new ObjLoader(input, singlePrecision).load();
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - may be missing file " + path, e);
+        }
+    }
+
+    /**
+     * Loads an OBJ stream into a triangle mesh. The stream is read to its end, and is not closed.
+     *
+     * @param input The stream of the file.
+     * @return The mesh of the file.
+     * @throws IllegalArgumentException if the stream is malformed or has no faces.
+     * @throws IllegalStateException    if the stream can't be read.
+     */
+    public static TriangleMesh load(InputStream input) {
+        return load(input, false);
+    }
+
+    /**
+     * Loads an OBJ stream into a triangle mesh, which may be stored in single precision, see {@link TriangleMesh}.
+     * The stream is read to its end, and is not closed.
+     *
+     * @param input           The stream of the file.
+     * @param singlePrecision Whether the mesh is stored in single precision.
+     * @return The mesh of the file.
+     * @throws IllegalArgumentException if the stream is malformed or has no faces.
+     * @throws IllegalStateException    if the stream can't be read.
+     */
+    public static TriangleMesh load(InputStream input, boolean singlePrecision) {
+        try {
+            return new ObjLoader(input, singlePrecision).load();
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error while reading an OBJ stream", e);
+        }
+    }
+
+    /**
+     * Parses the whole stream and creates the mesh.
+     *
+     * @return The mesh.
+     * @throws IOException if the stream can't be read.
+     */
+    private TriangleMesh load() throws IOException {
+        while (true) {
+            skipSpaces();
+            int c = read();
+            if (c < 0)
+                break;
+            if (c == 'v' && isSpace(peek()))
+                parseVertex();
+            else if (c == 'v' && peek() == 'n') {
+                read();
+                parseNormal();
+            } else if (c == 'f' && isSpace(peek()))
+                parseFace();
+            else if (c != '\n')
+                skipLine();
+            if (c == '\n')
+                ++line;
+        }
+        return createMesh();
+    }
+
+    /**
+     * Creates the mesh of the parsed vertices, normals and faces.
+     *
+     * @return The mesh.
+     */
+    private TriangleMesh createMesh() {
+        int vertices = positionCount / 3;
+        double[] meshNormals = null;
+        for (int i = 0; i < vertices && meshNormals == null; i++)
+            if (vertexNormals[i] >= 0)
+                meshNormals = new double[positionCount];
+        if (meshNormals != null)
+            for (int i = 0; i < vertices; i++)
+                if (vertexNormals[i] >= 0)
+                    System.arraycopy(normals, vertexNormals[i] * 3, meshNormals, i * 3, 3);
+        int[] meshIndices = Arrays.copyOf(indices, indexCount);
+        if (singlePrecision)
+            return new TriangleMesh(toFloat(positions, positionCount), meshNormals == null ? null
+                    : toFloat(meshNormals, meshNormals.length), meshIndices);
+        return new TriangleMesh(Arrays.copyOf(positions, positionCount), meshNormals, meshIndices);
+    }
+
+    /**
+     * Converts the beginning of an array of numbers to single precision.
+     *
+     * @param values The numbers.
+     * @param length The amount of numbers to convert.
+     * @return The numbers in single precision.
+     */
+    private static float[] toFloat(double[] values, int length) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++)
+            result[i] = (float) values[i];
+        return result;
+    }
+
+    /**
+     * Parses the coordinates of a vertex, a fourth weight coordinate is skipped.
+     *
+     * @throws IOException if the stream can't be read.
+     */
+    private void parseVertex() throws IOException {
+        if (positionCount + 3 > positions.length)
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        for (int i = 0; i < 3; i++)
+            positions[positionCount++] = parseDouble();
+        if (positionCount / 3 > vertexNormals.length) {
+            int length = vertexNormals.length;
+            vertexNormals = Arrays.copyOf(vertexNormals, length * 2);
+            Arrays.fill(vertexNormals, length, length * 2, -1);
+        }
+        skipLine();
+    }
+
+    /**
+     * Parses the coordinates of a normal.
+     *
+     * @throws IOException if the stream can't be read.
+     */
+    private void parseNormal() throws IOException {
+        if (normalCount + 3 > normals.length)
+            normals = Arrays.copyOf(normals, normals.length * 2);
+        for (int i = 0; i < 3; i++)
+            normals[normalCount++] = parseDouble();
+        skipLine();
+    }
+
+    /**
+     * Parses a face and splits it into a fan of triangles around its first vertex.
+     * A vertex of a face is "v", "v/vt", "v//vn" or "v/vt/vn", and the indices may be negative - relative to the end.
+     *
+     * @throws IOException if the stream can't be read.
+     */
+    private void parseFace() throws IOException {
+        int size = 0;
+        while (true) {
+            skipSpaces();
+            int c = peek();
+            if (c < 0 || c == '\n' || c == '\r' || c == '#')
+                break;
+            int vertex = index(parseInt(), positionCount / 3);
+            if (peek() == '/') {
+                read();
+                if (peek() != '/')
+                    parseInt(); // the texture coordinates are not used
+                if (peek() == '/') {
+                    read();
+                    vertexNormals[vertex] = index(parseInt(), normalCount / 3);
+                }
+            }
+            if (size == face.length)
+                face = Arrays.copyOf(face, size * 2);
+            face[size++] = vertex;
+        }
+        if (size < 3)
+            throw new IllegalArgumentException("A face with less than 3 vertices in line " + line);
+        if (indexCount + 3 * (size - 2) > indices.length)
+            indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indexCount + 3 * (size - 2)));
+        for (int i = 1; i < size - 1; i++) {
+            indices[indexCount++] = face[0];
+            indices[indexCount++] = face[i];
+            indices[indexCount++] = face[i + 1];
+        }
+        skipLine();
+    }
+
+    /**
+     * Converts an index of the file, which starts from 1 or is negative from the end, to an index from 0.
+     *
+     * @param index The index in the file.
+     * @param count The amount of the elements which are already defined.
+     * @return The index from 0.
+     */
+    private int index(int index, int count) {
+        int result = index > 0 ? index - 1 : count + index;
+        if (index == 0 || result < 0 || result >= count)
+            throw new IllegalArgumentException("The index " + index + " in line " + line + " is not defined");
+        return result;
+    }
+
+    /**
+     * Parses an integer.
+     *
+     * @return The integer.
+     * @throws IOException if the stream can't be read.
+     */
+    private int parseInt() throws IOException {
+        boolean negative = peek() == '-';
+        if (negative)
+            read();
+        int c = peek();
+        if (c < '0' || c > '9')
+            throw new IllegalArgumentException("Malformed index in line " + line);
+        int result = 0;
+        while (c >= '0' && c <= '9') {
+            result = result * 10 + (read() - '0');
+            c = peek();
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses a floating point number.
+     * Numbers with up to 18 significant digits and a small exponent are calculated exactly from their digits,
+     * other numbers are parsed by {@link Double#parseDouble(String)}.
+     *
+     * @return The number.
+     * @throws IOException              if the stream can't be read.
+     * @throws IllegalArgumentException if the number is malformed, too long or too large to be finite.
+     */
+    private double parseDouble() throws IOException {
+        skipSpaces();
+        int length = 0;
+        long mantissa = 0;
+        int digits = 0, exponent = 0;
+        boolean negative = false, fast = true;
+
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            number[length++] = (char) read();
+            c = peek();
+        }
+        boolean fraction = false, any = false;
+        while ((c >= '0' && c <= '9') || (c == '.' && !fraction)) {
+            read();
+            if (length < number.length)
+                number[length++] = (char) c;
+            else
+                fast = false;
+            if (c == '.')
+                fraction = true;
+            else {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0)
+                        ++digits;
+                    if (fraction)
+                        --exponent;
+                } else if (!fraction)
+                    ++exponent;
+            }
+            c = peek();
+        }
+        if (!any)
+            throw new IllegalArgumentException("Malformed number in line " + line);
+        if (c == 'e' || c == 'E') {
+            read();
+            if (length < number.length)
+                number[length++] = (char) c;
+            c = peek();
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') {
+                read();
+                if (length < number.length)
+                    number[length++] = (char) c;
+                c = peek();
+            }
+            if (c < '0' || c > '9')
+                throw new IllegalArgumentException("Malformed number in line " + line);
+            int value = 0;
+            while (c >= '0' && c <= '9') {
+                read();
+                if (length < number.length)
+                    number[length++] = (char) c;
+                value = Math.min(value * 10 + (c - '0'), 10000);
+                c = peek();
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (fast && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            double result = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -result : result;
+        }
+        if (length == number.length)
+            throw new IllegalArgumentException("Too long number in line " + line);
+        double result = Double.parseDouble(new String(number, 0, length));
+        if (Double.isInfinite(result))
+            throw new IllegalArgumentException("Too large number in line " + line);
+        return result;
+    }
+
+    /**
+     * Skips the spaces and the tabs before the next byte.
+     *
+     * @throws IOException if the stream can't be read.
+     */
+    private void skipSpaces() throws IOException {
+        while (isSpace(peek()))
+            read();
+    }
+
+    /**
+     * Skips the rest of the current line, not including its end.
+     *
+     * @throws IOException if the stream can't be read.
+     */
+    private void skipLine() throws IOException {
+        int c = peek();
+        while (c >= 0 && c != '\n') {
+            read();
+            c = peek();
+        }
+    }
+
+    /**
+     * Checks whether a byte is a space or a tab.
+     *
+     * @param c The byte.
+     * @return True if the byte is a space or a tab, false otherwise.
+     */
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Retrieves the next byte without consuming it.
+     *
+     * @return The next byte, or -1 at the end of the stream.
+     * @throws IOException if the stream can't be read.
+     */
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position] & 0xff;
+    }
+
+    /**
+     * Consumes the next byte.
+     *
+     * @return The next byte, or -1 at the end of the stream.
+     * @throws IOException if the stream can't be read.
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position++] & 0xff;
+    }
+
+    /**
+     * Fills the buffer from the stream.
+     *
+     * @return False at the end of the stream, true otherwise.
+     * @throws IOException if the stream can't be read.
+     */
+    private boolean fill() throws IOException {
+        int count = input.read(buffer, 0, buffer.length);
+        if (count <= 0)
+            return false;
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package complexImages;
+
+import geometries.BVHBuilder;
+import geometries.Geometries;
+import geometries.Intersectable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of the acceleration structures of the geometries - the plain list, the tree of objects, the
+ * flat hierarchy and the triangle mesh - by casting the primary rays of the teapot and the billiard table scenes.
+ * It runs only when the system property {@code benchmark} is {@code true}, not in the unit tests.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BVHBenchmark {
+    /** The amount of times the rays are cast at the hierarchies - the first rounds warm up the JIT compiler */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Constructs the primary rays of a camera, one per pixel
+     *
+     * @param camera the camera builder, without image writer and ray tracer
+     * @param nX     the amount of pixels in a row
+     * @param nY     the amount of pixels in a column
+     * @return the rays
+     */
+    private static List<Ray> primaryRays(Camera.Builder camera, int nX, int nY) {
+        Camera built = camera.setImageWriter(new ImageWriter("benchmark", nX, nY))
+                .setRayTracer(new SimpleRayTracer(new Scene("benchmark"))).build();
+        List<Ray> rays = new ArrayList<>(nX * nY);
+        for (int i = 0; i < nY; i++)
+            for (int j = 0; j < nX; j++)
+                rays.add(built.constructRay(nX, nY, j, i));
+        return rays;
+    }
+
+    /**
+     * Casts the rays at the geometries and returns the total amount of intersections
+     *
+     * @param geometries the geometries
+     * @param rays       the rays
+     * @return the amount of intersections
+     */
+    private static long cast(Intersectable geometries, List<Ray> rays) {
+        long hits = 0;
+        for (Ray ray : rays) {
+            var intersections = geometries.findGeoIntersections(ray);
+            if (intersections != null) hits += intersections.size();
+        }
+        return hits;
+    }
+
+    /**
+     * Finds the closest intersections of the rays with the geometries and returns the sum of their distances
+     *
+     * @param geometries the geometries
+     * @param rays       the rays
+     * @return the sum of the distances of the closest intersections
+     */
+    private static double castClosest(Intersectable geometries, List<Ray> rays) {
+        double sum = 0;
+        for (Ray ray : rays) {
+            var closest = geometries.findClosestGeoIntersection(ray);
+            if (closest != null) sum += closest.t;
+        }
+        return sum;
+    }
+
+    /**
+     * Casts the rays at each layout of the geometries, prints the timing and checks that all the layouts
+     * find the same intersections. The closest intersections are found also in the compiled list and the compiled
+     * flat hierarchy, which must find the same closest intersections as the list
+     *
+     * @param name       the name of the scene
+     * @param geometries a supplier of fresh geometries of the scene
+     * @param mesh       the scene as a triangle mesh, null if it is not made of triangles only
+     * @param rays       the rays
+     */
+    private static void compare(String name, Supplier<Intersectable[]> geometries, Intersectable mesh, List<Ray> rays) {
+        BVHBuilder treeBuilder = new BVHBuilder(BVHBuilder.Strategy.SAH);
+        BVHBuilder flatBuilder = new BVHBuilder(BVHBuilder.Strategy.SAH).setFlat(true);
+        Intersectable[] layouts = {
+                new Geometries(geometries.get()),
+                new Geometries(geometries.get()).buildBVH(treeBuilder),
+                new Geometries(geometries.get()).buildBVH(flatBuilder),
+                mesh};
+        String[] names = {"list", "tree", "flat", "mesh"};
+
+        System.out.println(name + ": " + rays.size() + " rays");
+        System.out.println("  " + treeBuilder.getStatistics());
+        long expected = cast(layouts[0], rays);
+        for (int i = 0; i < layouts.length; i++) {
+            if (layouts[i] == null) continue;
+            long best = Long.MAX_VALUE;
+            // the plain list is slow enough to be measured once
+            for (int round = 0; round < (i == 0 ? 1 : ROUNDS); round++) {
+                long start = System.nanoTime();
+                assertEquals(expected, cast(layouts[i], rays), "Different intersections in " + names[i] + " layout");
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("  %-5s %8.2f ms%n", names[i], best / 1e6);
+        }
+
+        Geometries[] closestLayouts = {
+                new Geometries(geometries.get()),
+                new Geometries(geometries.get()).compile(),
+                new Geometries(geometries.get()).buildBVH(flatBuilder),
+                new Geometries(geometries.get()).buildBVH(flatBuilder).compile()};
+        String[] closestNames = {"list", "compiled list", "flat", "compiled flat"};
+        System.out.println("  closest intersections:");
+        double expectedSum = castClosest(closestLayouts[0], rays);
+        for (int i = 0; i < closestLayouts.length; i++) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                assertEquals(expectedSum, castClosest(closestLayouts[i], rays), 1e-6,
+                        "Different closest intersections in " + closestNames[i] + " layout");
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("  %-13s %8.2f ms%n", closestNames[i], best / 1e6);
+        }
+    }
+
+    /**
+     * Benchmark of the teapot scene
+     */
+    @Test
+    void teapot() {
+        compare("teapot", TeapotTest::teapotTriangles, TeapotTest.teapotMesh(), primaryRays(Camera.getBuilder()
+                .setCameraLocation(new Point(0, 0, -1000))
+                .setDirection(new Vector(0, 0, 1), new Vector(0, 1, 0))
+                .setVpDistance(1000)
+                .setVpSize(200, 200), 500, 500));
+    }
+
+    /**
+     * Benchmark of the billiard table scene
+     */
+    @Test
+    void billiardTable() {
+        compare("billiard table", () -> new BillardTable().tableGeometries(), null, primaryRays(Camera.getBuilder()
+                .setCameraLocation(new Point(0, 150, 100))
+                .setDirection(Point.ZERO, new Vector(0, 0, 1))
+                .setVpSize(150, 150)
+                .setVpDistance(100), 500, 500));
+    }
+}
@@ -1,5 +1,6 @@
 package complexImages;
 
+import geometries.Intersectable;
 import geometries.Plane;
 import geometries.Polygon;
 import geometries.Sphere;
@@ -174,9 +175,14 @@ public class BillardTable {
         Plane floor = new Plane(Point.ZERO,new Vector(0,0,1));
         final Color color = new Color(164,116,73);
         final Material mat = new Material().setkD(0.5).setkS(0.5).setShininess(60);
-    @Test
-    public void BilliardTable1(){
-        scene.geometries.add(rectangle1.setMaterial(mat).setEmission(color),
+    /**
+     * Creates the geometries of the billiard table scene
+     *
+     * @return the legs, the surface and the balls of the table and the floor
+     */
+    Intersectable[] tableGeometries() {
+        return new Intersectable[]{
+                rectangle1.setMaterial(mat).setEmission(color),
                 rectangle2.setMaterial(mat).setEmission(color),
                 rectangle3.setMaterial(mat).setEmission(color),
                 rectangle4.setMaterial(mat).setEmission(color),
@@ -211,7 +217,12 @@ public class BillardTable {
 //                woodenBeam2.setMaterial(mat).setEmission(color),
 //                woodenBeam3.setMaterial(mat).setEmission(color),
 //                woodenBeam4.setMaterial(mat).setEmission(color)
-        );
+        };
+    }
+
+    @Test
+    public void BilliardTable1(){
+        scene.geometries.add(tableGeometries());
         scene.lights.add(
                 new PointLight(new Color(1000, 600, 0), new Point(-100, -100, 500))
                         .setkL(0.0004).setkQ(0.0000006));
@@ -223,42 +234,7 @@ public class BillardTable {
     }
     @Test
     public void BillardTable2() {
-        scene.geometries.add(rectangle1.setMaterial(mat).setEmission(color),
-                rectangle2.setMaterial(mat).setEmission(color),
-                rectangle3.setMaterial(mat).setEmission(color),
-                rectangle4.setMaterial(mat).setEmission(color),
-                rectangle1_2.setMaterial(mat).setEmission(color),
-                rectangle2_2.setMaterial(mat).setEmission(color),
-                rectangle3_2.setMaterial(mat).setEmission(color),
-                rectangle4_2.setMaterial(mat).setEmission(color),
-                rectangle1_3.setMaterial(mat).setEmission(color),
-                rectangle2_3.setMaterial(mat).setEmission(color),
-                rectangle3_3.setMaterial(mat).setEmission(color),
-                rectangle4_3.setMaterial(mat).setEmission(color),
-                rectangle1_4.setMaterial(mat).setEmission(color),
-                rectangle2_4.setMaterial(mat).setEmission(color),
-                rectangle3_4.setMaterial(mat).setEmission(color),
-                rectangle4_4.setMaterial(mat).setEmission(color),
-                floor.setMaterial(mat).setEmission(new Color(0, 165, 255)),
-                tableFloor.setMaterial(mat).setEmission(color),
-                tableFloorSide1.setMaterial(mat).setEmission(color),
-                tableFloorSide2.setMaterial(mat).setEmission(color),
-                tableFloorSide3.setMaterial(mat).setEmission(color),
-                tableFloorSide4.setMaterial(mat).setEmission(color),
-                ball1.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball2.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball3.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball4.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball5.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball6.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball7.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball8.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball9.setMaterial(mat).setEmission(new Color(java.awt.Color.RED))
-//                ,woodenBeam1.setMaterial(mat).setEmission(color),
-//                woodenBeam2.setMaterial(mat).setEmission(color),
-//                woodenBeam3.setMaterial(mat).setEmission(color),
-//                woodenBeam4.setMaterial(mat).setEmission(color)
-        );
+        scene.geometries.add(tableGeometries());
         scene.lights.add(
                 new PointLight(new Color(1000, 600, 0), new Point(-100, -100, 500))
                         .setkL(0.0004).setkQ(0.0000006));
@@ -270,42 +246,7 @@ public class BillardTable {
     }
     @Test
     public void BillardTable3() {
-        scene.geometries.add(rectangle1.setMaterial(mat).setEmission(color),
-                rectangle2.setMaterial(mat).setEmission(color),
-                rectangle3.setMaterial(mat).setEmission(color),
-                rectangle4.setMaterial(mat).setEmission(color),
-                rectangle1_2.setMaterial(mat).setEmission(color),
-                rectangle2_2.setMaterial(mat).setEmission(color),
-                rectangle3_2.setMaterial(mat).setEmission(color),
-                rectangle4_2.setMaterial(mat).setEmission(color),
-                rectangle1_3.setMaterial(mat).setEmission(color),
-                rectangle2_3.setMaterial(mat).setEmission(color),
-                rectangle3_3.setMaterial(mat).setEmission(color),
-                rectangle4_3.setMaterial(mat).setEmission(color),
-                rectangle1_4.setMaterial(mat).setEmission(color),
-                rectangle2_4.setMaterial(mat).setEmission(color),
-                rectangle3_4.setMaterial(mat).setEmission(color),
-                rectangle4_4.setMaterial(mat).setEmission(color),
-                floor.setMaterial(mat).setEmission(new Color(0, 165, 255)),
-                tableFloor.setMaterial(mat).setEmission(color),
-                tableFloorSide1.setMaterial(mat).setEmission(color),
-                tableFloorSide2.setMaterial(mat).setEmission(color),
-                tableFloorSide3.setMaterial(mat).setEmission(color),
-                tableFloorSide4.setMaterial(mat).setEmission(color),
-                ball1.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball2.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball3.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball4.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball5.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball6.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball7.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball8.setMaterial(mat).setEmission(new Color(java.awt.Color.RED)),
-                ball9.setMaterial(mat).setEmission(new Color(java.awt.Color.RED))
-//                ,woodenBeam1.setMaterial(mat).setEmission(color),
-//                woodenBeam2.setMaterial(mat).setEmission(color),
-//                woodenBeam3.setMaterial(mat).setEmission(color),
-//                woodenBeam4.setMaterial(mat).setEmission(color)
-        );
+        scene.geometries.add(tableGeometries());
         scene.lights.add(
                 new PointLight(new Color(1000, 600, 0), new Point(-100, -100, 500))
                         .setkL(0.0004).setkQ(0.0000006).setSoftShadow(true).setRootNumberOfRays(13,3));
@@ -0,0 +1,124 @@
+package complexImages;
+
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import scene.ObjLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of the loading of a large OBJ file - the parse throughput and the peak heap of the loading.
+ * The amount of faces is set by the system property {@code obj.faces} (50,000 by default - a large file, e.g. of
+ * 5,000,000 faces, needs a heap of about 2 GB).
+ * It runs only when the system property {@code benchmark} is {@code true}, not in the unit tests.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ObjLoaderBenchmark {
+    /** The amount of faces of the generated file */
+    private static final int FACES = Integer.getInteger("obj.faces", 50_000);
+
+    /**
+     * Generates an OBJ file of a wavy grid - half of its cells are quads and half are pairs of triangles,
+     * and every vertex has a normal
+     *
+     * @param path  the path of the file
+     * @param faces the amount of triangles
+     * @return the amount of triangles in the file
+     * @throws IOException if the file can't be written
+     */
+    private static int generate(Path path, int faces) throws IOException {
+        int size = Math.max(1, (int) Math.sqrt(faces / 2.0));
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# generated grid of " + size + "x" + size + " cells\n");
+            for (int i = 0; i <= size; i++)
+                for (int j = 0; j <= size; j++)
+                    writer.write(String.format(Locale.ROOT, "v %.6f %.6f %.6f\nvn 0 0 1\n",
+                            i * 0.01, j * 0.01, Math.sin(i * 0.1) * Math.cos(j * 0.1)));
+            for (int i = 0; i < size; i++)
+                for (int j = 0; j < size; j++) {
+                    int a = i * (size + 1) + j + 1, b = a + size + 1;
+                    if ((i + j) % 2 == 0)
+                        writer.write("f " + a + "//" + a + " " + b + "//" + b + " " + (b + 1) + "//" + (b + 1) + " "
+                                + (a + 1) + "//" + (a + 1) + "\n");
+                    else
+                        writer.write("f " + a + " " + b + " " + (b + 1) + "\nf " + a + " " + (b + 1) + " " + (a + 1) + "\n");
+                }
+        }
+        return 2 * size * size;
+    }
+
+    /**
+     * Retrieves the sum of the peak usage of the heap memory pools since their last reset
+     *
+     * @return the peak heap in bytes
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                peak += pool.getPeakUsage().getUsed();
+        return peak;
+    }
+
+    /**
+     * Loads a generated OBJ file and prints the parse throughput and the peak heap
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Test
+    void load() throws IOException {
+        load(false);
+    }
+
+    /**
+     * Loads a generated OBJ file into a mesh in single precision and prints the parse throughput and the peak heap
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Test
+    void loadSinglePrecision() throws IOException {
+        load(true);
+    }
+
+    /**
+     * Loads a generated OBJ file and prints the parse throughput and the peak heap
+     *
+     * @param singlePrecision whether the mesh is stored in single precision
+     * @throws IOException if the file can't be written
+     */
+    private static void load(boolean singlePrecision) throws IOException {
+        Path path = Files.createTempFile("benchmark", ".obj");
+        try {
+            int faces = generate(path, FACES);
+            double megabytes = Files.size(path) / (1024.0 * 1024.0);
+
+            System.gc();
+            long before = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+                pool.resetPeakUsage();
+            long start = System.nanoTime();
+            TriangleMesh mesh = ObjLoader.load(path, singlePrecision);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long peak = peakHeap();
+            System.gc();
+            long retained = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() - before;
+
+            assertEquals(faces, mesh.size(), "Wrong amount of triangles");
+            System.out.printf("OBJ%s: %d faces, %.1f MB loaded in %.2f s - %.1f MB/s, peak heap %.1f MB (%.1f MB before), "
+                            + "mesh %.1f MB%n", singlePrecision ? " (single precision)" : "", faces, megabytes, seconds,
+                    megabytes / seconds, peak / (1024.0 * 1024.0), before / (1024.0 * 1024.0), retained / (1024.0 * 1024.0));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import static java.awt.Color.YELLOW;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Intersectable;
 import geometries.Triangle;
+import geometries.TriangleMesh;
 import lighting.PointLight;
 import primitives.Color;
 import primitives.Material;
@@ -570,1005 +572,174 @@ class TeapotTest {
             new Point(34.8094, 17.1865, -35.0864) //
     };
 
+    /** The indices of the vertices of the triangles of the 3D model in {@link #pnts} - three indices per triangle */
+    private static final int[] faces = new int[] { //
+            7, 6, 1, 1, 2, 7, 8, 7, 2, 2, 3, 8, 9, 8, 3, 3, 4, 9, 10, 9, 4, 4, 5, 10, //
+            12, 11, 6, 6, 7, 12, 13, 12, 7, 7, 8, 13, 14, 13, 8, 8, 9, 14, 15, 14, 9, 9, 10, 15, //
+            17, 16, 11, 11, 12, 17, 18, 17, 12, 12, 13, 18, 19, 18, 13, 13, 14, 19, 20, 19, 14, 14, 15, 20, //
+            22, 21, 16, 16, 17, 22, 23, 22, 17, 17, 18, 23, 24, 23, 18, 18, 19, 24, 25, 24, 19, 19, 20, 25, //
+            27, 26, 21, 21, 22, 27, 28, 27, 22, 22, 23, 28, 29, 28, 23, 23, 24, 29, 30, 29, 24, 24, 25, 30, //
+            32, 31, 26, 26, 27, 32, 33, 32, 27, 27, 28, 33, 34, 33, 28, 28, 29, 34, 35, 34, 29, 29, 30, 35, //
+            37, 36, 31, 31, 32, 37, 38, 37, 32, 32, 33, 38, 39, 38, 33, 33, 34, 39, 40, 39, 34, 34, 35, 40, //
+            42, 41, 36, 36, 37, 42, 43, 42, 37, 37, 38, 43, 44, 43, 38, 38, 39, 44, 45, 44, 39, 39, 40, 45, //
+            47, 46, 41, 41, 42, 47, 48, 47, 42, 42, 43, 48, 49, 48, 43, 43, 44, 49, 50, 49, 44, 44, 45, 50, //
+            52, 51, 46, 46, 47, 52, 53, 52, 47, 47, 48, 53, 54, 53, 48, 48, 49, 54, 55, 54, 49, 49, 50, 55, //
+            57, 56, 51, 51, 52, 57, 58, 57, 52, 52, 53, 58, 59, 58, 53, 53, 54, 59, 60, 59, 54, 54, 55, 60, //
+            62, 61, 56, 56, 57, 62, 63, 62, 57, 57, 58, 63, 64, 63, 58, 58, 59, 64, 65, 64, 59, 59, 60, 65, //
+            67, 66, 61, 61, 62, 67, 68, 67, 62, 62, 63, 68, 69, 68, 63, 63, 64, 69, 70, 69, 64, 64, 65, 70, //
+            72, 71, 66, 66, 67, 72, 73, 72, 67, 67, 68, 73, 74, 73, 68, 68, 69, 74, 75, 74, 69, 69, 70, 75, //
+            77, 76, 71, 71, 72, 77, 78, 77, 72, 72, 73, 78, 79, 78, 73, 73, 74, 79, 80, 79, 74, 74, 75, 80, //
+            2, 1, 76, 76, 77, 2, 3, 2, 77, 77, 78, 3, 4, 3, 78, 78, 79, 4, 5, 4, 79, 79, 80, 5, //
+            85, 10, 5, 5, 81, 85, 86, 85, 81, 81, 82, 86, 87, 86, 82, 82, 83, 87, 88, 87, 83, 83, 84, 88, //
+            89, 15, 10, 10, 85, 89, 90, 89, 85, 85, 86, 90, 91, 90, 86, 86, 87, 91, 92, 91, 87, 87, 88, 92, //
+            93, 20, 15, 15, 89, 93, 94, 93, 89, 89, 90, 94, 95, 94, 90, 90, 91, 95, 96, 95, 91, 91, 92, 96, //
+            97, 25, 20, 20, 93, 97, 98, 97, 93, 93, 94, 98, 99, 98, 94, 94, 95, 99, 100, 99, 95, 95, 96, 100, //
+            101, 30, 25, 25, 97, 101, 102, 101, 97, 97, 98, 102, 103, 102, 98, 98, 99, 103, 104, 103, 99, 99, 100, 104, //
+            105, 35, 30, 30, 101, 105, 106, 105, 101, 101, 102, 106, 107, 106, 102, 102, 103, 107, 108, 107, 103, 103, 104, 108, //
+            109, 40, 35, 35, 105, 109, 110, 109, 105, 105, 106, 110, 111, 110, 106, 106, 107, 111, 112, 111, 107, 107, 108, 112, //
+            113, 45, 40, 40, 109, 113, 114, 113, 109, 109, 110, 114, 115, 114, 110, 110, 111, 115, 116, 115, 111, 111, 112, 116, //
+            117, 50, 45, 45, 113, 117, 118, 117, 113, 113, 114, 118, 119, 118, 114, 114, 115, 119, 120, 119, 115, 115, 116, 120, //
+            121, 55, 50, 50, 117, 121, 122, 121, 117, 117, 118, 122, 123, 122, 118, 118, 119, 123, 124, 123, 119, 119, 120, 124, //
+            125, 60, 55, 55, 121, 125, 126, 125, 121, 121, 122, 126, 127, 126, 122, 122, 123, 127, 128, 127, 123, 123, 124, 128, //
+            129, 65, 60, 60, 125, 129, 130, 129, 125, 125, 126, 130, 131, 130, 126, 126, 127, 131, 132, 131, 127, 127, 128, 132, //
+            133, 70, 65, 65, 129, 133, 134, 133, 129, 129, 130, 134, 135, 134, 130, 130, 131, 135, 136, 135, 131, 131, 132, 136, //
+            137, 75, 70, 70, 133, 137, 138, 137, 133, 133, 134, 138, 139, 138, 134, 134, 135, 139, 140, 139, 135, 135, 136, 140, //
+            141, 80, 75, 75, 137, 141, 142, 141, 137, 137, 138, 142, 143, 142, 138, 138, 139, 143, 144, 143, 139, 139, 140, 144, //
+            81, 5, 80, 80, 141, 81, 82, 81, 141, 141, 142, 82, 83, 82, 142, 142, 143, 83, 84, 83, 143, 143, 144, 84, //
+            149, 88, 84, 84, 145, 149, 150, 149, 145, 145, 146, 150, 151, 150, 146, 146, 147, 151, 152, 151, 147, 147, 148, 152, //
+            153, 92, 88, 88, 149, 153, 154, 153, 149, 149, 150, 154, 155, 154, 150, 150, 151, 155, 156, 155, 151, 151, 152, 156, //
+            157, 96, 92, 92, 153, 157, 158, 157, 153, 153, 154, 158, 159, 158, 154, 154, 155, 159, 160, 159, 155, 155, 156, 160, //
+            161, 100, 96, 96, 157, 161, 162, 161, 157, 157, 158, 162, 163, 162, 158, 158, 159, 163, 164, 163, 159, 159, 160, 164, //
+            165, 104, 100, 100, 161, 165, 166, 165, 161, 161, 162, 166, 167, 166, 162, 162, 163, 167, 168, 167, 163, 163, 164, 168, //
+            169, 108, 104, 104, 165, 169, 170, 169, 165, 165, 166, 170, 171, 170, 166, 166, 167, 171, 172, 171, 167, 167, 168, 172, //
+            173, 112, 108, 108, 169, 173, 174, 173, 169, 169, 170, 174, 175, 174, 170, 170, 171, 175, 176, 175, 171, 171, 172, 176, //
+            177, 116, 112, 112, 173, 177, 178, 177, 173, 173, 174, 178, 179, 178, 174, 174, 175, 179, 180, 179, 175, 175, 176, 180, //
+            181, 120, 116, 116, 177, 181, 182, 181, 177, 177, 178, 182, 183, 182, 178, 178, 179, 183, 184, 183, 179, 179, 180, 184, //
+            185, 124, 120, 120, 181, 185, 186, 185, 181, 181, 182, 186, 187, 186, 182, 182, 183, 187, 188, 187, 183, 183, 184, 188, //
+            189, 128, 124, 124, 185, 189, 190, 189, 185, 185, 186, 190, 191, 190, 186, 186, 187, 191, 192, 191, 187, 187, 188, 192, //
+            193, 132, 128, 128, 189, 193, 194, 193, 189, 189, 190, 194, 195, 194, 190, 190, 191, 195, 196, 195, 191, 191, 192, 196, //
+            197, 136, 132, 132, 193, 197, 198, 197, 193, 193, 194, 198, 199, 198, 194, 194, 195, 199, 200, 199, 195, 195, 196, 200, //
+            201, 140, 136, 136, 197, 201, 202, 201, 197, 197, 198, 202, 203, 202, 198, 198, 199, 203, 204, 203, 199, 199, 200, 204, //
+            205, 144, 140, 140, 201, 205, 206, 205, 201, 201, 202, 206, 207, 206, 202, 202, 203, 207, 208, 207, 203, 203, 204, 208, //
+            145, 84, 144, 144, 205, 145, 146, 145, 205, 205, 206, 146, 147, 146, 206, 206, 207, 147, 148, 147, 207, 207, 208, 148, //
+            213, 152, 148, 148, 209, 213, 214, 213, 209, 209, 210, 214, 215, 214, 210, 210, 211, 215, 212, 215, 211, 216, 156, 152, //
+            152, 213, 216, 217, 216, 213, 213, 214, 217, 218, 217, 214, 214, 215, 218, 212, 218, 215, 219, 160, 156, 156, 216, 219, //
+            220, 219, 216, 216, 217, 220, 221, 220, 217, 217, 218, 221, 212, 221, 218, 222, 164, 160, 160, 219, 222, 223, 222, 219, //
+            219, 220, 223, 224, 223, 220, 220, 221, 224, 212, 224, 221, 225, 168, 164, 164, 222, 225, 226, 225, 222, 222, 223, 226, //
+            227, 226, 223, 223, 224, 227, 212, 227, 224, 228, 172, 168, 168, 225, 228, 229, 228, 225, 225, 226, 229, 230, 229, 226, //
+            226, 227, 230, 212, 230, 227, 231, 176, 172, 172, 228, 231, 232, 231, 228, 228, 229, 232, 233, 232, 229, 229, 230, 233, //
+            212, 233, 230, 234, 180, 176, 176, 231, 234, 235, 234, 231, 231, 232, 235, 236, 235, 232, 232, 233, 236, 212, 236, 233, //
+            237, 184, 180, 180, 234, 237, 238, 237, 234, 234, 235, 238, 239, 238, 235, 235, 236, 239, 212, 239, 236, 240, 188, 184, //
+            184, 237, 240, 241, 240, 237, 237, 238, 241, 242, 241, 238, 238, 239, 242, 212, 242, 239, 243, 192, 188, 188, 240, 243, //
+            244, 243, 240, 240, 241, 244, 245, 244, 241, 241, 242, 245, 212, 245, 242, 246, 196, 192, 192, 243, 246, 247, 246, 243, //
+            243, 244, 247, 248, 247, 244, 244, 245, 248, 212, 248, 245, 249, 200, 196, 196, 246, 249, 250, 249, 246, 246, 247, 250, //
+            251, 250, 247, 247, 248, 251, 212, 251, 248, 252, 204, 200, 200, 249, 252, 253, 252, 249, 249, 250, 253, 254, 253, 250, //
+            250, 251, 254, 212, 254, 251, 255, 208, 204, 204, 252, 255, 256, 255, 252, 252, 253, 256, 257, 256, 253, 253, 254, 257, //
+            212, 257, 254, 209, 148, 208, 208, 255, 209, 210, 209, 255, 255, 256, 210, 211, 210, 256, 256, 257, 211, 212, 211, 257, //
+            264, 263, 258, 258, 259, 264, 265, 264, 259, 259, 260, 265, 266, 265, 260, 260, 261, 266, 267, 266, 261, 261, 262, 267, //
+            269, 268, 263, 263, 264, 269, 270, 269, 264, 264, 265, 270, 271, 270, 265, 265, 266, 271, 272, 271, 266, 266, 267, 272, //
+            274, 273, 268, 268, 269, 274, 275, 274, 269, 269, 270, 275, 276, 275, 270, 270, 271, 276, 277, 276, 271, 271, 272, 277, //
+            279, 278, 273, 273, 274, 279, 280, 279, 274, 274, 275, 280, 281, 280, 275, 275, 276, 281, 282, 281, 276, 276, 277, 282, //
+            284, 283, 278, 278, 279, 284, 285, 284, 279, 279, 280, 285, 286, 285, 280, 280, 281, 286, 287, 286, 281, 281, 282, 287, //
+            289, 288, 283, 283, 284, 289, 290, 289, 284, 284, 285, 290, 291, 290, 285, 285, 286, 291, 292, 291, 286, 286, 287, 292, //
+            294, 293, 288, 288, 289, 294, 295, 294, 289, 289, 290, 295, 296, 295, 290, 290, 291, 296, 297, 296, 291, 291, 292, 297, //
+            259, 258, 293, 293, 294, 259, 260, 259, 294, 294, 295, 260, 261, 260, 295, 295, 296, 261, 262, 261, 296, 296, 297, 262, //
+            302, 267, 262, 262, 298, 302, 303, 302, 298, 298, 299, 303, 304, 303, 299, 299, 300, 304, 305, 304, 300, 300, 301, 305, //
+            306, 272, 267, 267, 302, 306, 307, 306, 302, 302, 303, 307, 308, 307, 303, 303, 304, 308, 309, 308, 304, 304, 305, 309, //
+            310, 277, 272, 272, 306, 310, 311, 310, 306, 306, 307, 311, 312, 311, 307, 307, 308, 312, 313, 312, 308, 308, 309, 313, //
+            314, 282, 277, 277, 310, 314, 315, 314, 310, 310, 311, 315, 316, 315, 311, 311, 312, 316, 317, 316, 312, 312, 313, 317, //
+            318, 287, 282, 282, 314, 318, 319, 318, 314, 314, 315, 319, 320, 319, 315, 315, 316, 320, 321, 320, 316, 316, 317, 321, //
+            322, 292, 287, 287, 318, 322, 323, 322, 318, 318, 319, 323, 324, 323, 319, 319, 320, 324, 325, 324, 320, 320, 321, 325, //
+            326, 297, 292, 292, 322, 326, 327, 326, 322, 322, 323, 327, 328, 327, 323, 323, 324, 328, 329, 328, 324, 324, 325, 329, //
+            298, 262, 297, 297, 326, 298, 299, 298, 326, 326, 327, 299, 300, 299, 327, 327, 328, 300, 301, 300, 328, 328, 329, 301, //
+            336, 335, 330, 330, 331, 336, 337, 336, 331, 331, 332, 337, 338, 337, 332, 332, 333, 338, 339, 338, 333, 333, 334, 339, //
+            341, 340, 335, 335, 336, 341, 342, 341, 336, 336, 337, 342, 343, 342, 337, 337, 338, 343, 344, 343, 338, 338, 339, 344, //
+            346, 345, 340, 340, 341, 346, 347, 346, 341, 341, 342, 347, 348, 347, 342, 342, 343, 348, 349, 348, 343, 343, 344, 349, //
+            351, 350, 345, 345, 346, 351, 352, 351, 346, 346, 347, 352, 353, 352, 347, 347, 348, 353, 354, 353, 348, 348, 349, 354, //
+            356, 355, 350, 350, 351, 356, 357, 356, 351, 351, 352, 357, 358, 357, 352, 352, 353, 358, 359, 358, 353, 353, 354, 359, //
+            361, 360, 355, 355, 356, 361, 362, 361, 356, 356, 357, 362, 363, 362, 357, 357, 358, 363, 364, 363, 358, 358, 359, 364, //
+            366, 365, 360, 360, 361, 366, 367, 366, 361, 361, 362, 367, 368, 367, 362, 362, 363, 368, 369, 368, 363, 363, 364, 369, //
+            331, 330, 365, 365, 366, 331, 332, 331, 366, 366, 367, 332, 333, 332, 367, 367, 368, 333, 334, 333, 368, 368, 369, 334, //
+            374, 339, 334, 334, 370, 374, 375, 374, 370, 370, 371, 375, 376, 375, 371, 371, 372, 376, 377, 376, 372, 372, 373, 377, //
+            378, 344, 339, 339, 374, 378, 379, 378, 374, 374, 375, 379, 380, 379, 375, 375, 376, 380, 381, 380, 376, 376, 377, 381, //
+            382, 349, 344, 344, 378, 382, 383, 382, 378, 378, 379, 383, 384, 383, 379, 379, 380, 384, 385, 384, 380, 380, 381, 385, //
+            386, 354, 349, 349, 382, 386, 387, 386, 382, 382, 383, 387, 388, 387, 383, 383, 384, 388, 389, 388, 384, 384, 385, 389, //
+            390, 359, 354, 354, 386, 390, 391, 390, 386, 386, 387, 391, 392, 391, 387, 387, 388, 392, 393, 392, 388, 388, 389, 393, //
+            394, 364, 359, 359, 390, 394, 395, 394, 390, 390, 391, 395, 396, 395, 391, 391, 392, 396, 397, 396, 392, 392, 393, 397, //
+            398, 369, 364, 364, 394, 398, 399, 398, 394, 394, 395, 399, 400, 399, 395, 395, 396, 400, 401, 400, 396, 396, 397, 401, //
+            370, 334, 369, 369, 398, 370, 371, 370, 398, 398, 399, 371, 372, 371, 399, 399, 400, 372, 373, 372, 400, 400, 401, 373, //
+            402, 403, 407, 408, 407, 403, 403, 404, 408, 409, 408, 404, 404, 405, 409, 410, 409, 405, 405, 406, 410, 402, 407, 411, //
+            412, 411, 407, 407, 408, 412, 413, 412, 408, 408, 409, 413, 414, 413, 409, 409, 410, 414, 402, 411, 415, 416, 415, 411, //
+            411, 412, 416, 417, 416, 412, 412, 413, 417, 418, 417, 413, 413, 414, 418, 402, 415, 419, 420, 419, 415, 415, 416, 420, //
+            421, 420, 416, 416, 417, 421, 422, 421, 417, 417, 418, 422, 402, 419, 423, 424, 423, 419, 419, 420, 424, 425, 424, 420, //
+            420, 421, 425, 426, 425, 421, 421, 422, 426, 402, 423, 427, 428, 427, 423, 423, 424, 428, 429, 428, 424, 424, 425, 429, //
+            430, 429, 425, 425, 426, 430, 402, 427, 431, 432, 431, 427, 427, 428, 432, 433, 432, 428, 428, 429, 433, 434, 433, 429, //
+            429, 430, 434, 402, 431, 435, 436, 435, 431, 431, 432, 436, 437, 436, 432, 432, 433, 437, 438, 437, 433, 433, 434, 438, //
+            402, 435, 439, 440, 439, 435, 435, 436, 440, 441, 440, 436, 436, 437, 441, 442, 441, 437, 437, 438, 442, 402, 439, 443, //
+            444, 443, 439, 439, 440, 444, 445, 444, 440, 440, 441, 445, 446, 445, 441, 441, 442, 446, 402, 443, 447, 448, 447, 443, //
+            443, 444, 448, 449, 448, 444, 444, 445, 449, 450, 449, 445, 445, 446, 450, 402, 447, 451, 452, 451, 447, 447, 448, 452, //
+            453, 452, 448, 448, 449, 453, 454, 453, 449, 449, 450, 454, 402, 451, 455, 456, 455, 451, 451, 452, 456, 457, 456, 452, //
+            452, 453, 457, 458, 457, 453, 453, 454, 458, 402, 455, 459, 460, 459, 455, 455, 456, 460, 461, 460, 456, 456, 457, 461, //
+            462, 461, 457, 457, 458, 462, 402, 459, 463, 464, 463, 459, 459, 460, 464, 465, 464, 460, 460, 461, 465, 466, 465, 461, //
+            461, 462, 466, 402, 463, 403, 404, 403, 463, 463, 464, 404, 405, 404, 464, 464, 465, 405, 406, 405, 465, 465, 466, 406, //
+            471, 410, 406, 406, 467, 471, 472, 471, 467, 467, 468, 472, 473, 472, 468, 468, 469, 473, 474, 473, 469, 469, 470, 474, //
+            475, 414, 410, 410, 471, 475, 476, 475, 471, 471, 472, 476, 477, 476, 472, 472, 473, 477, 478, 477, 473, 473, 474, 478, //
+            479, 418, 414, 414, 475, 479, 480, 479, 475, 475, 476, 480, 481, 480, 476, 476, 477, 481, 482, 481, 477, 477, 478, 482, //
+            483, 422, 418, 418, 479, 483, 484, 483, 479, 479, 480, 484, 485, 484, 480, 480, 481, 485, 486, 485, 481, 481, 482, 486, //
+            487, 426, 422, 422, 483, 487, 488, 487, 483, 483, 484, 488, 489, 488, 484, 484, 485, 489, 490, 489, 485, 485, 486, 490, //
+            491, 430, 426, 426, 487, 491, 492, 491, 487, 487, 488, 492, 493, 492, 488, 488, 489, 493, 494, 493, 489, 489, 490, 494, //
+            495, 434, 430, 430, 491, 495, 496, 495, 491, 491, 492, 496, 497, 496, 492, 492, 493, 497, 498, 497, 493, 493, 494, 498, //
+            499, 438, 434, 434, 495, 499, 500, 499, 495, 495, 496, 500, 501, 500, 496, 496, 497, 501, 502, 501, 497, 497, 498, 502, //
+            503, 442, 438, 438, 499, 503, 504, 503, 499, 499, 500, 504, 505, 504, 500, 500, 501, 505, 506, 505, 501, 501, 502, 506, //
+            507, 446, 442, 442, 503, 507, 508, 507, 503, 503, 504, 508, 509, 508, 504, 504, 505, 509, 510, 509, 505, 505, 506, 510, //
+            511, 450, 446, 446, 507, 511, 512, 511, 507, 507, 508, 512, 513, 512, 508, 508, 509, 513, 514, 513, 509, 509, 510, 514, //
+            515, 454, 450, 450, 511, 515, 516, 515, 511, 511, 512, 516, 517, 516, 512, 512, 513, 517, 518, 517, 513, 513, 514, 518, //
+            519, 458, 454, 454, 515, 519, 520, 519, 515, 515, 516, 520, 521, 520, 516, 516, 517, 521, 522, 521, 517, 517, 518, 522, //
+            523, 462, 458, 458, 519, 523, 524, 523, 519, 519, 520, 524, 525, 524, 520, 520, 521, 525, 526, 525, 521, 521, 522, 526, //
+            527, 466, 462, 462, 523, 527, 528, 527, 523, 523, 524, 528, 529, 528, 524, 524, 525, 529, 530, 529, 525, 525, 526, 530, //
+            467, 406, 466, 466, 527, 467, 468, 467, 527, 527, 528, 468, 469, 468, 528, 528, 529, 469, 470, 469, 529, 529, 530, 470 //
+    };
+
+    /**
+     * Creates the triangles of the 3D model
+     *
+     * @return the triangles of the teapot
+     */
+    static Intersectable[] teapotTriangles() {
+        Intersectable[] triangles = new Intersectable[faces.length / 3];
+        for (int i = 0; i < triangles.length; i++)
+            triangles[i] = new Triangle(pnts[faces[3 * i]], pnts[faces[3 * i + 1]], pnts[faces[3 * i + 2]])
+                    .setEmission(color).setMaterial(mat);
+        return triangles;
+    }
+
+    /**
+     * Creates the 3D model as a single mesh, whose vertices are shared by its triangles
+     *
+     * @return the mesh of the teapot
+     */
+    static TriangleMesh teapotMesh() {
+        // the first point is a placeholder, so the indices of the faces are shifted by one
+        double[] positions = new double[(pnts.length - 1) * 3];
+        for (int i = 1; i < pnts.length; i++) {
+            positions[(i - 1) * 3] = pnts[i].getX();
+            positions[(i - 1) * 3 + 1] = pnts[i].getY();
+            positions[(i - 1) * 3 + 2] = pnts[i].getZ();
+        }
+        int[] indices = new int[faces.length];
+        for (int i = 0; i < faces.length; i++)
+            indices[i] = faces[i] - 1;
+        TriangleMesh mesh = new TriangleMesh(positions, indices);
+        mesh.setEmission(color).setMaterial(mat);
+        return mesh;
+    }
+
     /**
      * Produce a scene with a 3D model and render it into a png image
      */
     @Test
     public void teapot() {
-        scene.geometries.add( //
-                new Triangle(pnts[7], pnts[6], pnts[1]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[1], pnts[2], pnts[7]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[8], pnts[7], pnts[2]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[2], pnts[3], pnts[8]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[9], pnts[8], pnts[3]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[3], pnts[4], pnts[9]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[10], pnts[9], pnts[4]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[4], pnts[5], pnts[10]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[12], pnts[11], pnts[6]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[6], pnts[7], pnts[12]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[13], pnts[12], pnts[7]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[7], pnts[8], pnts[13]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[14], pnts[13], pnts[8]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[8], pnts[9], pnts[14]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[15], pnts[14], pnts[9]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[9], pnts[10], pnts[15]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[17], pnts[16], pnts[11]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[11], pnts[12], pnts[17]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[18], pnts[17], pnts[12]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[12], pnts[13], pnts[18]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[19], pnts[18], pnts[13]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[13], pnts[14], pnts[19]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[20], pnts[19], pnts[14]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[14], pnts[15], pnts[20]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[22], pnts[21], pnts[16]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[16], pnts[17], pnts[22]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[23], pnts[22], pnts[17]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[17], pnts[18], pnts[23]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[24], pnts[23], pnts[18]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[18], pnts[19], pnts[24]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[25], pnts[24], pnts[19]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[19], pnts[20], pnts[25]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[27], pnts[26], pnts[21]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[21], pnts[22], pnts[27]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[28], pnts[27], pnts[22]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[22], pnts[23], pnts[28]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[29], pnts[28], pnts[23]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[23], pnts[24], pnts[29]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[30], pnts[29], pnts[24]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[24], pnts[25], pnts[30]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[32], pnts[31], pnts[26]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[26], pnts[27], pnts[32]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[33], pnts[32], pnts[27]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[27], pnts[28], pnts[33]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[34], pnts[33], pnts[28]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[28], pnts[29], pnts[34]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[35], pnts[34], pnts[29]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[29], pnts[30], pnts[35]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[37], pnts[36], pnts[31]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[31], pnts[32], pnts[37]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[38], pnts[37], pnts[32]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[32], pnts[33], pnts[38]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[39], pnts[38], pnts[33]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[33], pnts[34], pnts[39]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[40], pnts[39], pnts[34]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[34], pnts[35], pnts[40]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[42], pnts[41], pnts[36]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[36], pnts[37], pnts[42]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[43], pnts[42], pnts[37]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[37], pnts[38], pnts[43]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[44], pnts[43], pnts[38]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[38], pnts[39], pnts[44]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[45], pnts[44], pnts[39]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[39], pnts[40], pnts[45]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[47], pnts[46], pnts[41]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[41], pnts[42], pnts[47]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[48], pnts[47], pnts[42]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[42], pnts[43], pnts[48]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[49], pnts[48], pnts[43]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[43], pnts[44], pnts[49]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[50], pnts[49], pnts[44]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[44], pnts[45], pnts[50]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[52], pnts[51], pnts[46]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[46], pnts[47], pnts[52]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[53], pnts[52], pnts[47]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[47], pnts[48], pnts[53]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[54], pnts[53], pnts[48]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[48], pnts[49], pnts[54]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[55], pnts[54], pnts[49]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[49], pnts[50], pnts[55]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[57], pnts[56], pnts[51]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[51], pnts[52], pnts[57]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[58], pnts[57], pnts[52]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[52], pnts[53], pnts[58]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[59], pnts[58], pnts[53]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[53], pnts[54], pnts[59]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[60], pnts[59], pnts[54]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[54], pnts[55], pnts[60]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[62], pnts[61], pnts[56]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[56], pnts[57], pnts[62]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[63], pnts[62], pnts[57]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[57], pnts[58], pnts[63]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[64], pnts[63], pnts[58]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[58], pnts[59], pnts[64]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[65], pnts[64], pnts[59]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[59], pnts[60], pnts[65]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[67], pnts[66], pnts[61]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[61], pnts[62], pnts[67]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[68], pnts[67], pnts[62]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[62], pnts[63], pnts[68]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[69], pnts[68], pnts[63]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[63], pnts[64], pnts[69]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[70], pnts[69], pnts[64]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[64], pnts[65], pnts[70]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[72], pnts[71], pnts[66]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[66], pnts[67], pnts[72]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[73], pnts[72], pnts[67]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[67], pnts[68], pnts[73]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[74], pnts[73], pnts[68]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[68], pnts[69], pnts[74]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[75], pnts[74], pnts[69]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[69], pnts[70], pnts[75]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[77], pnts[76], pnts[71]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[71], pnts[72], pnts[77]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[78], pnts[77], pnts[72]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[72], pnts[73], pnts[78]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[79], pnts[78], pnts[73]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[73], pnts[74], pnts[79]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[80], pnts[79], pnts[74]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[74], pnts[75], pnts[80]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[2], pnts[1], pnts[76]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[76], pnts[77], pnts[2]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[3], pnts[2], pnts[77]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[77], pnts[78], pnts[3]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[4], pnts[3], pnts[78]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[78], pnts[79], pnts[4]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[5], pnts[4], pnts[79]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[79], pnts[80], pnts[5]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[85], pnts[10], pnts[5]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[5], pnts[81], pnts[85]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[86], pnts[85], pnts[81]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[81], pnts[82], pnts[86]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[87], pnts[86], pnts[82]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[82], pnts[83], pnts[87]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[88], pnts[87], pnts[83]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[83], pnts[84], pnts[88]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[89], pnts[15], pnts[10]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[10], pnts[85], pnts[89]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[90], pnts[89], pnts[85]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[85], pnts[86], pnts[90]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[91], pnts[90], pnts[86]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[86], pnts[87], pnts[91]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[92], pnts[91], pnts[87]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[87], pnts[88], pnts[92]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[93], pnts[20], pnts[15]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[15], pnts[89], pnts[93]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[94], pnts[93], pnts[89]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[89], pnts[90], pnts[94]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[95], pnts[94], pnts[90]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[90], pnts[91], pnts[95]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[96], pnts[95], pnts[91]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[91], pnts[92], pnts[96]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[97], pnts[25], pnts[20]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[20], pnts[93], pnts[97]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[98], pnts[97], pnts[93]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[93], pnts[94], pnts[98]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[99], pnts[98], pnts[94]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[94], pnts[95], pnts[99]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[100], pnts[99], pnts[95]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[95], pnts[96], pnts[100]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[101], pnts[30], pnts[25]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[25], pnts[97], pnts[101]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[102], pnts[101], pnts[97]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[97], pnts[98], pnts[102]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[103], pnts[102], pnts[98]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[98], pnts[99], pnts[103]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[104], pnts[103], pnts[99]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[99], pnts[100], pnts[104]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[105], pnts[35], pnts[30]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[30], pnts[101], pnts[105]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[106], pnts[105], pnts[101]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[101], pnts[102], pnts[106]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[107], pnts[106], pnts[102]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[102], pnts[103], pnts[107]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[108], pnts[107], pnts[103]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[103], pnts[104], pnts[108]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[109], pnts[40], pnts[35]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[35], pnts[105], pnts[109]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[110], pnts[109], pnts[105]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[105], pnts[106], pnts[110]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[111], pnts[110], pnts[106]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[106], pnts[107], pnts[111]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[112], pnts[111], pnts[107]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[107], pnts[108], pnts[112]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[113], pnts[45], pnts[40]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[40], pnts[109], pnts[113]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[114], pnts[113], pnts[109]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[109], pnts[110], pnts[114]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[115], pnts[114], pnts[110]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[110], pnts[111], pnts[115]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[116], pnts[115], pnts[111]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[111], pnts[112], pnts[116]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[117], pnts[50], pnts[45]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[45], pnts[113], pnts[117]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[118], pnts[117], pnts[113]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[113], pnts[114], pnts[118]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[119], pnts[118], pnts[114]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[114], pnts[115], pnts[119]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[120], pnts[119], pnts[115]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[115], pnts[116], pnts[120]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[121], pnts[55], pnts[50]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[50], pnts[117], pnts[121]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[122], pnts[121], pnts[117]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[117], pnts[118], pnts[122]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[123], pnts[122], pnts[118]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[118], pnts[119], pnts[123]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[124], pnts[123], pnts[119]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[119], pnts[120], pnts[124]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[125], pnts[60], pnts[55]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[55], pnts[121], pnts[125]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[126], pnts[125], pnts[121]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[121], pnts[122], pnts[126]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[127], pnts[126], pnts[122]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[122], pnts[123], pnts[127]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[128], pnts[127], pnts[123]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[123], pnts[124], pnts[128]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[129], pnts[65], pnts[60]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[60], pnts[125], pnts[129]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[130], pnts[129], pnts[125]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[125], pnts[126], pnts[130]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[131], pnts[130], pnts[126]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[126], pnts[127], pnts[131]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[132], pnts[131], pnts[127]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[127], pnts[128], pnts[132]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[133], pnts[70], pnts[65]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[65], pnts[129], pnts[133]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[134], pnts[133], pnts[129]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[129], pnts[130], pnts[134]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[135], pnts[134], pnts[130]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[130], pnts[131], pnts[135]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[136], pnts[135], pnts[131]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[131], pnts[132], pnts[136]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[137], pnts[75], pnts[70]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[70], pnts[133], pnts[137]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[138], pnts[137], pnts[133]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[133], pnts[134], pnts[138]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[139], pnts[138], pnts[134]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[134], pnts[135], pnts[139]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[140], pnts[139], pnts[135]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[135], pnts[136], pnts[140]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[141], pnts[80], pnts[75]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[75], pnts[137], pnts[141]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[142], pnts[141], pnts[137]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[137], pnts[138], pnts[142]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[143], pnts[142], pnts[138]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[138], pnts[139], pnts[143]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[144], pnts[143], pnts[139]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[139], pnts[140], pnts[144]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[81], pnts[5], pnts[80]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[80], pnts[141], pnts[81]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[82], pnts[81], pnts[141]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[141], pnts[142], pnts[82]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[83], pnts[82], pnts[142]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[142], pnts[143], pnts[83]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[84], pnts[83], pnts[143]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[143], pnts[144], pnts[84]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[149], pnts[88], pnts[84]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[84], pnts[145], pnts[149]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[150], pnts[149], pnts[145]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[145], pnts[146], pnts[150]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[151], pnts[150], pnts[146]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[146], pnts[147], pnts[151]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[152], pnts[151], pnts[147]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[147], pnts[148], pnts[152]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[153], pnts[92], pnts[88]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[88], pnts[149], pnts[153]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[154], pnts[153], pnts[149]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[149], pnts[150], pnts[154]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[155], pnts[154], pnts[150]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[150], pnts[151], pnts[155]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[156], pnts[155], pnts[151]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[151], pnts[152], pnts[156]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[157], pnts[96], pnts[92]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[92], pnts[153], pnts[157]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[158], pnts[157], pnts[153]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[153], pnts[154], pnts[158]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[159], pnts[158], pnts[154]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[154], pnts[155], pnts[159]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[160], pnts[159], pnts[155]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[155], pnts[156], pnts[160]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[161], pnts[100], pnts[96]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[96], pnts[157], pnts[161]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[162], pnts[161], pnts[157]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[157], pnts[158], pnts[162]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[163], pnts[162], pnts[158]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[158], pnts[159], pnts[163]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[164], pnts[163], pnts[159]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[159], pnts[160], pnts[164]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[165], pnts[104], pnts[100]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[100], pnts[161], pnts[165]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[166], pnts[165], pnts[161]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[161], pnts[162], pnts[166]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[167], pnts[166], pnts[162]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[162], pnts[163], pnts[167]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[168], pnts[167], pnts[163]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[163], pnts[164], pnts[168]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[169], pnts[108], pnts[104]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[104], pnts[165], pnts[169]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[170], pnts[169], pnts[165]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[165], pnts[166], pnts[170]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[171], pnts[170], pnts[166]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[166], pnts[167], pnts[171]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[172], pnts[171], pnts[167]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[167], pnts[168], pnts[172]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[173], pnts[112], pnts[108]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[108], pnts[169], pnts[173]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[174], pnts[173], pnts[169]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[169], pnts[170], pnts[174]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[175], pnts[174], pnts[170]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[170], pnts[171], pnts[175]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[176], pnts[175], pnts[171]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[171], pnts[172], pnts[176]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[177], pnts[116], pnts[112]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[112], pnts[173], pnts[177]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[178], pnts[177], pnts[173]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[173], pnts[174], pnts[178]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[179], pnts[178], pnts[174]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[174], pnts[175], pnts[179]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[180], pnts[179], pnts[175]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[175], pnts[176], pnts[180]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[181], pnts[120], pnts[116]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[116], pnts[177], pnts[181]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[182], pnts[181], pnts[177]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[177], pnts[178], pnts[182]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[183], pnts[182], pnts[178]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[178], pnts[179], pnts[183]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[184], pnts[183], pnts[179]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[179], pnts[180], pnts[184]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[185], pnts[124], pnts[120]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[120], pnts[181], pnts[185]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[186], pnts[185], pnts[181]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[181], pnts[182], pnts[186]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[187], pnts[186], pnts[182]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[182], pnts[183], pnts[187]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[188], pnts[187], pnts[183]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[183], pnts[184], pnts[188]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[189], pnts[128], pnts[124]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[124], pnts[185], pnts[189]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[190], pnts[189], pnts[185]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[185], pnts[186], pnts[190]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[191], pnts[190], pnts[186]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[186], pnts[187], pnts[191]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[192], pnts[191], pnts[187]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[187], pnts[188], pnts[192]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[193], pnts[132], pnts[128]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[128], pnts[189], pnts[193]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[194], pnts[193], pnts[189]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[189], pnts[190], pnts[194]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[195], pnts[194], pnts[190]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[190], pnts[191], pnts[195]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[196], pnts[195], pnts[191]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[191], pnts[192], pnts[196]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[197], pnts[136], pnts[132]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[132], pnts[193], pnts[197]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[198], pnts[197], pnts[193]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[193], pnts[194], pnts[198]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[199], pnts[198], pnts[194]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[194], pnts[195], pnts[199]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[200], pnts[199], pnts[195]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[195], pnts[196], pnts[200]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[201], pnts[140], pnts[136]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[136], pnts[197], pnts[201]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[202], pnts[201], pnts[197]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[197], pnts[198], pnts[202]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[203], pnts[202], pnts[198]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[198], pnts[199], pnts[203]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[204], pnts[203], pnts[199]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[199], pnts[200], pnts[204]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[205], pnts[144], pnts[140]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[140], pnts[201], pnts[205]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[206], pnts[205], pnts[201]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[201], pnts[202], pnts[206]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[207], pnts[206], pnts[202]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[202], pnts[203], pnts[207]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[208], pnts[207], pnts[203]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[203], pnts[204], pnts[208]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[145], pnts[84], pnts[144]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[144], pnts[205], pnts[145]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[146], pnts[145], pnts[205]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[205], pnts[206], pnts[146]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[147], pnts[146], pnts[206]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[206], pnts[207], pnts[147]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[148], pnts[147], pnts[207]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[207], pnts[208], pnts[148]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[213], pnts[152], pnts[148]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[148], pnts[209], pnts[213]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[214], pnts[213], pnts[209]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[209], pnts[210], pnts[214]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[215], pnts[214], pnts[210]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[210], pnts[211], pnts[215]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[215], pnts[211]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[216], pnts[156], pnts[152]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[152], pnts[213], pnts[216]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[217], pnts[216], pnts[213]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[213], pnts[214], pnts[217]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[218], pnts[217], pnts[214]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[214], pnts[215], pnts[218]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[218], pnts[215]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[219], pnts[160], pnts[156]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[156], pnts[216], pnts[219]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[220], pnts[219], pnts[216]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[216], pnts[217], pnts[220]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[221], pnts[220], pnts[217]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[217], pnts[218], pnts[221]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[221], pnts[218]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[222], pnts[164], pnts[160]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[160], pnts[219], pnts[222]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[223], pnts[222], pnts[219]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[219], pnts[220], pnts[223]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[224], pnts[223], pnts[220]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[220], pnts[221], pnts[224]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[224], pnts[221]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[225], pnts[168], pnts[164]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[164], pnts[222], pnts[225]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[226], pnts[225], pnts[222]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[222], pnts[223], pnts[226]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[227], pnts[226], pnts[223]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[223], pnts[224], pnts[227]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[227], pnts[224]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[228], pnts[172], pnts[168]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[168], pnts[225], pnts[228]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[229], pnts[228], pnts[225]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[225], pnts[226], pnts[229]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[230], pnts[229], pnts[226]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[226], pnts[227], pnts[230]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[230], pnts[227]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[231], pnts[176], pnts[172]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[172], pnts[228], pnts[231]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[232], pnts[231], pnts[228]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[228], pnts[229], pnts[232]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[233], pnts[232], pnts[229]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[229], pnts[230], pnts[233]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[233], pnts[230]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[234], pnts[180], pnts[176]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[176], pnts[231], pnts[234]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[235], pnts[234], pnts[231]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[231], pnts[232], pnts[235]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[236], pnts[235], pnts[232]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[232], pnts[233], pnts[236]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[236], pnts[233]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[237], pnts[184], pnts[180]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[180], pnts[234], pnts[237]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[238], pnts[237], pnts[234]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[234], pnts[235], pnts[238]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[239], pnts[238], pnts[235]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[235], pnts[236], pnts[239]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[239], pnts[236]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[240], pnts[188], pnts[184]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[184], pnts[237], pnts[240]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[241], pnts[240], pnts[237]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[237], pnts[238], pnts[241]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[242], pnts[241], pnts[238]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[238], pnts[239], pnts[242]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[242], pnts[239]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[243], pnts[192], pnts[188]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[188], pnts[240], pnts[243]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[244], pnts[243], pnts[240]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[240], pnts[241], pnts[244]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[245], pnts[244], pnts[241]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[241], pnts[242], pnts[245]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[245], pnts[242]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[246], pnts[196], pnts[192]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[192], pnts[243], pnts[246]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[247], pnts[246], pnts[243]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[243], pnts[244], pnts[247]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[248], pnts[247], pnts[244]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[244], pnts[245], pnts[248]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[248], pnts[245]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[249], pnts[200], pnts[196]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[196], pnts[246], pnts[249]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[250], pnts[249], pnts[246]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[246], pnts[247], pnts[250]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[251], pnts[250], pnts[247]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[247], pnts[248], pnts[251]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[251], pnts[248]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[252], pnts[204], pnts[200]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[200], pnts[249], pnts[252]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[253], pnts[252], pnts[249]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[249], pnts[250], pnts[253]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[254], pnts[253], pnts[250]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[250], pnts[251], pnts[254]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[254], pnts[251]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[255], pnts[208], pnts[204]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[204], pnts[252], pnts[255]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[256], pnts[255], pnts[252]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[252], pnts[253], pnts[256]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[257], pnts[256], pnts[253]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[253], pnts[254], pnts[257]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[257], pnts[254]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[209], pnts[148], pnts[208]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[208], pnts[255], pnts[209]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[210], pnts[209], pnts[255]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[255], pnts[256], pnts[210]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[211], pnts[210], pnts[256]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[256], pnts[257], pnts[211]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[212], pnts[211], pnts[257]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[264], pnts[263], pnts[258]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[258], pnts[259], pnts[264]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[265], pnts[264], pnts[259]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[259], pnts[260], pnts[265]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[266], pnts[265], pnts[260]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[260], pnts[261], pnts[266]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[267], pnts[266], pnts[261]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[261], pnts[262], pnts[267]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[269], pnts[268], pnts[263]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[263], pnts[264], pnts[269]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[270], pnts[269], pnts[264]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[264], pnts[265], pnts[270]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[271], pnts[270], pnts[265]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[265], pnts[266], pnts[271]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[272], pnts[271], pnts[266]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[266], pnts[267], pnts[272]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[274], pnts[273], pnts[268]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[268], pnts[269], pnts[274]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[275], pnts[274], pnts[269]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[269], pnts[270], pnts[275]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[276], pnts[275], pnts[270]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[270], pnts[271], pnts[276]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[277], pnts[276], pnts[271]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[271], pnts[272], pnts[277]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[279], pnts[278], pnts[273]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[273], pnts[274], pnts[279]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[280], pnts[279], pnts[274]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[274], pnts[275], pnts[280]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[281], pnts[280], pnts[275]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[275], pnts[276], pnts[281]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[282], pnts[281], pnts[276]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[276], pnts[277], pnts[282]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[284], pnts[283], pnts[278]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[278], pnts[279], pnts[284]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[285], pnts[284], pnts[279]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[279], pnts[280], pnts[285]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[286], pnts[285], pnts[280]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[280], pnts[281], pnts[286]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[287], pnts[286], pnts[281]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[281], pnts[282], pnts[287]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[289], pnts[288], pnts[283]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[283], pnts[284], pnts[289]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[290], pnts[289], pnts[284]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[284], pnts[285], pnts[290]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[291], pnts[290], pnts[285]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[285], pnts[286], pnts[291]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[292], pnts[291], pnts[286]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[286], pnts[287], pnts[292]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[294], pnts[293], pnts[288]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[288], pnts[289], pnts[294]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[295], pnts[294], pnts[289]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[289], pnts[290], pnts[295]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[296], pnts[295], pnts[290]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[290], pnts[291], pnts[296]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[297], pnts[296], pnts[291]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[291], pnts[292], pnts[297]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[259], pnts[258], pnts[293]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[293], pnts[294], pnts[259]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[260], pnts[259], pnts[294]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[294], pnts[295], pnts[260]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[261], pnts[260], pnts[295]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[295], pnts[296], pnts[261]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[262], pnts[261], pnts[296]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[296], pnts[297], pnts[262]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[302], pnts[267], pnts[262]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[262], pnts[298], pnts[302]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[303], pnts[302], pnts[298]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[298], pnts[299], pnts[303]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[304], pnts[303], pnts[299]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[299], pnts[300], pnts[304]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[305], pnts[304], pnts[300]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[300], pnts[301], pnts[305]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[306], pnts[272], pnts[267]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[267], pnts[302], pnts[306]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[307], pnts[306], pnts[302]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[302], pnts[303], pnts[307]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[308], pnts[307], pnts[303]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[303], pnts[304], pnts[308]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[309], pnts[308], pnts[304]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[304], pnts[305], pnts[309]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[310], pnts[277], pnts[272]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[272], pnts[306], pnts[310]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[311], pnts[310], pnts[306]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[306], pnts[307], pnts[311]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[312], pnts[311], pnts[307]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[307], pnts[308], pnts[312]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[313], pnts[312], pnts[308]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[308], pnts[309], pnts[313]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[314], pnts[282], pnts[277]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[277], pnts[310], pnts[314]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[315], pnts[314], pnts[310]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[310], pnts[311], pnts[315]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[316], pnts[315], pnts[311]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[311], pnts[312], pnts[316]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[317], pnts[316], pnts[312]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[312], pnts[313], pnts[317]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[318], pnts[287], pnts[282]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[282], pnts[314], pnts[318]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[319], pnts[318], pnts[314]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[314], pnts[315], pnts[319]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[320], pnts[319], pnts[315]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[315], pnts[316], pnts[320]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[321], pnts[320], pnts[316]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[316], pnts[317], pnts[321]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[322], pnts[292], pnts[287]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[287], pnts[318], pnts[322]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[323], pnts[322], pnts[318]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[318], pnts[319], pnts[323]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[324], pnts[323], pnts[319]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[319], pnts[320], pnts[324]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[325], pnts[324], pnts[320]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[320], pnts[321], pnts[325]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[326], pnts[297], pnts[292]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[292], pnts[322], pnts[326]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[327], pnts[326], pnts[322]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[322], pnts[323], pnts[327]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[328], pnts[327], pnts[323]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[323], pnts[324], pnts[328]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[329], pnts[328], pnts[324]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[324], pnts[325], pnts[329]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[298], pnts[262], pnts[297]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[297], pnts[326], pnts[298]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[299], pnts[298], pnts[326]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[326], pnts[327], pnts[299]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[300], pnts[299], pnts[327]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[327], pnts[328], pnts[300]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[301], pnts[300], pnts[328]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[328], pnts[329], pnts[301]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[336], pnts[335], pnts[330]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[330], pnts[331], pnts[336]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[337], pnts[336], pnts[331]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[331], pnts[332], pnts[337]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[338], pnts[337], pnts[332]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[332], pnts[333], pnts[338]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[339], pnts[338], pnts[333]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[333], pnts[334], pnts[339]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[341], pnts[340], pnts[335]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[335], pnts[336], pnts[341]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[342], pnts[341], pnts[336]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[336], pnts[337], pnts[342]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[343], pnts[342], pnts[337]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[337], pnts[338], pnts[343]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[344], pnts[343], pnts[338]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[338], pnts[339], pnts[344]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[346], pnts[345], pnts[340]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[340], pnts[341], pnts[346]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[347], pnts[346], pnts[341]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[341], pnts[342], pnts[347]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[348], pnts[347], pnts[342]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[342], pnts[343], pnts[348]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[349], pnts[348], pnts[343]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[343], pnts[344], pnts[349]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[351], pnts[350], pnts[345]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[345], pnts[346], pnts[351]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[352], pnts[351], pnts[346]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[346], pnts[347], pnts[352]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[353], pnts[352], pnts[347]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[347], pnts[348], pnts[353]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[354], pnts[353], pnts[348]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[348], pnts[349], pnts[354]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[356], pnts[355], pnts[350]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[350], pnts[351], pnts[356]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[357], pnts[356], pnts[351]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[351], pnts[352], pnts[357]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[358], pnts[357], pnts[352]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[352], pnts[353], pnts[358]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[359], pnts[358], pnts[353]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[353], pnts[354], pnts[359]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[361], pnts[360], pnts[355]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[355], pnts[356], pnts[361]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[362], pnts[361], pnts[356]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[356], pnts[357], pnts[362]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[363], pnts[362], pnts[357]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[357], pnts[358], pnts[363]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[364], pnts[363], pnts[358]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[358], pnts[359], pnts[364]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[366], pnts[365], pnts[360]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[360], pnts[361], pnts[366]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[367], pnts[366], pnts[361]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[361], pnts[362], pnts[367]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[368], pnts[367], pnts[362]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[362], pnts[363], pnts[368]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[369], pnts[368], pnts[363]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[363], pnts[364], pnts[369]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[331], pnts[330], pnts[365]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[365], pnts[366], pnts[331]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[332], pnts[331], pnts[366]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[366], pnts[367], pnts[332]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[333], pnts[332], pnts[367]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[367], pnts[368], pnts[333]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[334], pnts[333], pnts[368]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[368], pnts[369], pnts[334]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[374], pnts[339], pnts[334]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[334], pnts[370], pnts[374]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[375], pnts[374], pnts[370]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[370], pnts[371], pnts[375]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[376], pnts[375], pnts[371]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[371], pnts[372], pnts[376]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[377], pnts[376], pnts[372]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[372], pnts[373], pnts[377]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[378], pnts[344], pnts[339]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[339], pnts[374], pnts[378]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[379], pnts[378], pnts[374]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[374], pnts[375], pnts[379]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[380], pnts[379], pnts[375]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[375], pnts[376], pnts[380]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[381], pnts[380], pnts[376]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[376], pnts[377], pnts[381]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[382], pnts[349], pnts[344]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[344], pnts[378], pnts[382]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[383], pnts[382], pnts[378]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[378], pnts[379], pnts[383]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[384], pnts[383], pnts[379]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[379], pnts[380], pnts[384]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[385], pnts[384], pnts[380]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[380], pnts[381], pnts[385]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[386], pnts[354], pnts[349]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[349], pnts[382], pnts[386]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[387], pnts[386], pnts[382]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[382], pnts[383], pnts[387]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[388], pnts[387], pnts[383]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[383], pnts[384], pnts[388]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[389], pnts[388], pnts[384]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[384], pnts[385], pnts[389]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[390], pnts[359], pnts[354]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[354], pnts[386], pnts[390]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[391], pnts[390], pnts[386]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[386], pnts[387], pnts[391]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[392], pnts[391], pnts[387]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[387], pnts[388], pnts[392]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[393], pnts[392], pnts[388]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[388], pnts[389], pnts[393]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[394], pnts[364], pnts[359]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[359], pnts[390], pnts[394]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[395], pnts[394], pnts[390]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[390], pnts[391], pnts[395]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[396], pnts[395], pnts[391]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[391], pnts[392], pnts[396]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[397], pnts[396], pnts[392]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[392], pnts[393], pnts[397]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[398], pnts[369], pnts[364]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[364], pnts[394], pnts[398]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[399], pnts[398], pnts[394]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[394], pnts[395], pnts[399]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[400], pnts[399], pnts[395]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[395], pnts[396], pnts[400]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[401], pnts[400], pnts[396]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[396], pnts[397], pnts[401]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[370], pnts[334], pnts[369]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[369], pnts[398], pnts[370]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[371], pnts[370], pnts[398]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[398], pnts[399], pnts[371]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[372], pnts[371], pnts[399]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[399], pnts[400], pnts[372]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[373], pnts[372], pnts[400]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[400], pnts[401], pnts[373]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[403], pnts[407]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[408], pnts[407], pnts[403]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[403], pnts[404], pnts[408]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[409], pnts[408], pnts[404]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[404], pnts[405], pnts[409]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[410], pnts[409], pnts[405]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[405], pnts[406], pnts[410]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[407], pnts[411]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[412], pnts[411], pnts[407]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[407], pnts[408], pnts[412]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[413], pnts[412], pnts[408]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[408], pnts[409], pnts[413]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[414], pnts[413], pnts[409]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[409], pnts[410], pnts[414]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[411], pnts[415]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[416], pnts[415], pnts[411]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[411], pnts[412], pnts[416]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[417], pnts[416], pnts[412]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[412], pnts[413], pnts[417]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[418], pnts[417], pnts[413]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[413], pnts[414], pnts[418]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[415], pnts[419]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[420], pnts[419], pnts[415]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[415], pnts[416], pnts[420]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[421], pnts[420], pnts[416]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[416], pnts[417], pnts[421]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[422], pnts[421], pnts[417]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[417], pnts[418], pnts[422]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[419], pnts[423]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[424], pnts[423], pnts[419]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[419], pnts[420], pnts[424]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[425], pnts[424], pnts[420]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[420], pnts[421], pnts[425]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[426], pnts[425], pnts[421]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[421], pnts[422], pnts[426]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[423], pnts[427]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[428], pnts[427], pnts[423]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[423], pnts[424], pnts[428]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[429], pnts[428], pnts[424]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[424], pnts[425], pnts[429]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[430], pnts[429], pnts[425]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[425], pnts[426], pnts[430]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[427], pnts[431]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[432], pnts[431], pnts[427]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[427], pnts[428], pnts[432]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[433], pnts[432], pnts[428]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[428], pnts[429], pnts[433]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[434], pnts[433], pnts[429]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[429], pnts[430], pnts[434]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[431], pnts[435]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[436], pnts[435], pnts[431]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[431], pnts[432], pnts[436]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[437], pnts[436], pnts[432]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[432], pnts[433], pnts[437]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[438], pnts[437], pnts[433]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[433], pnts[434], pnts[438]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[435], pnts[439]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[440], pnts[439], pnts[435]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[435], pnts[436], pnts[440]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[441], pnts[440], pnts[436]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[436], pnts[437], pnts[441]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[442], pnts[441], pnts[437]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[437], pnts[438], pnts[442]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[439], pnts[443]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[444], pnts[443], pnts[439]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[439], pnts[440], pnts[444]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[445], pnts[444], pnts[440]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[440], pnts[441], pnts[445]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[446], pnts[445], pnts[441]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[441], pnts[442], pnts[446]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[443], pnts[447]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[448], pnts[447], pnts[443]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[443], pnts[444], pnts[448]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[449], pnts[448], pnts[444]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[444], pnts[445], pnts[449]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[450], pnts[449], pnts[445]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[445], pnts[446], pnts[450]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[447], pnts[451]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[452], pnts[451], pnts[447]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[447], pnts[448], pnts[452]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[453], pnts[452], pnts[448]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[448], pnts[449], pnts[453]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[454], pnts[453], pnts[449]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[449], pnts[450], pnts[454]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[451], pnts[455]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[456], pnts[455], pnts[451]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[451], pnts[452], pnts[456]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[457], pnts[456], pnts[452]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[452], pnts[453], pnts[457]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[458], pnts[457], pnts[453]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[453], pnts[454], pnts[458]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[455], pnts[459]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[460], pnts[459], pnts[455]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[455], pnts[456], pnts[460]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[461], pnts[460], pnts[456]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[456], pnts[457], pnts[461]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[462], pnts[461], pnts[457]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[457], pnts[458], pnts[462]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[459], pnts[463]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[464], pnts[463], pnts[459]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[459], pnts[460], pnts[464]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[465], pnts[464], pnts[460]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[460], pnts[461], pnts[465]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[466], pnts[465], pnts[461]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[461], pnts[462], pnts[466]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[402], pnts[463], pnts[403]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[404], pnts[403], pnts[463]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[463], pnts[464], pnts[404]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[405], pnts[404], pnts[464]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[464], pnts[465], pnts[405]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[406], pnts[405], pnts[465]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[465], pnts[466], pnts[406]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[471], pnts[410], pnts[406]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[406], pnts[467], pnts[471]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[472], pnts[471], pnts[467]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[467], pnts[468], pnts[472]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[473], pnts[472], pnts[468]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[468], pnts[469], pnts[473]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[474], pnts[473], pnts[469]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[469], pnts[470], pnts[474]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[475], pnts[414], pnts[410]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[410], pnts[471], pnts[475]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[476], pnts[475], pnts[471]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[471], pnts[472], pnts[476]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[477], pnts[476], pnts[472]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[472], pnts[473], pnts[477]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[478], pnts[477], pnts[473]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[473], pnts[474], pnts[478]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[479], pnts[418], pnts[414]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[414], pnts[475], pnts[479]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[480], pnts[479], pnts[475]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[475], pnts[476], pnts[480]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[481], pnts[480], pnts[476]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[476], pnts[477], pnts[481]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[482], pnts[481], pnts[477]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[477], pnts[478], pnts[482]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[483], pnts[422], pnts[418]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[418], pnts[479], pnts[483]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[484], pnts[483], pnts[479]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[479], pnts[480], pnts[484]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[485], pnts[484], pnts[480]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[480], pnts[481], pnts[485]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[486], pnts[485], pnts[481]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[481], pnts[482], pnts[486]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[487], pnts[426], pnts[422]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[422], pnts[483], pnts[487]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[488], pnts[487], pnts[483]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[483], pnts[484], pnts[488]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[489], pnts[488], pnts[484]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[484], pnts[485], pnts[489]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[490], pnts[489], pnts[485]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[485], pnts[486], pnts[490]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[491], pnts[430], pnts[426]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[426], pnts[487], pnts[491]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[492], pnts[491], pnts[487]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[487], pnts[488], pnts[492]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[493], pnts[492], pnts[488]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[488], pnts[489], pnts[493]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[494], pnts[493], pnts[489]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[489], pnts[490], pnts[494]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[495], pnts[434], pnts[430]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[430], pnts[491], pnts[495]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[496], pnts[495], pnts[491]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[491], pnts[492], pnts[496]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[497], pnts[496], pnts[492]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[492], pnts[493], pnts[497]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[498], pnts[497], pnts[493]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[493], pnts[494], pnts[498]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[499], pnts[438], pnts[434]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[434], pnts[495], pnts[499]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[500], pnts[499], pnts[495]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[495], pnts[496], pnts[500]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[501], pnts[500], pnts[496]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[496], pnts[497], pnts[501]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[502], pnts[501], pnts[497]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[497], pnts[498], pnts[502]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[503], pnts[442], pnts[438]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[438], pnts[499], pnts[503]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[504], pnts[503], pnts[499]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[499], pnts[500], pnts[504]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[505], pnts[504], pnts[500]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[500], pnts[501], pnts[505]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[506], pnts[505], pnts[501]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[501], pnts[502], pnts[506]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[507], pnts[446], pnts[442]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[442], pnts[503], pnts[507]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[508], pnts[507], pnts[503]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[503], pnts[504], pnts[508]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[509], pnts[508], pnts[504]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[504], pnts[505], pnts[509]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[510], pnts[509], pnts[505]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[505], pnts[506], pnts[510]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[511], pnts[450], pnts[446]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[446], pnts[507], pnts[511]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[512], pnts[511], pnts[507]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[507], pnts[508], pnts[512]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[513], pnts[512], pnts[508]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[508], pnts[509], pnts[513]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[514], pnts[513], pnts[509]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[509], pnts[510], pnts[514]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[515], pnts[454], pnts[450]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[450], pnts[511], pnts[515]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[516], pnts[515], pnts[511]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[511], pnts[512], pnts[516]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[517], pnts[516], pnts[512]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[512], pnts[513], pnts[517]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[518], pnts[517], pnts[513]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[513], pnts[514], pnts[518]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[519], pnts[458], pnts[454]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[454], pnts[515], pnts[519]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[520], pnts[519], pnts[515]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[515], pnts[516], pnts[520]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[521], pnts[520], pnts[516]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[516], pnts[517], pnts[521]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[522], pnts[521], pnts[517]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[517], pnts[518], pnts[522]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[523], pnts[462], pnts[458]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[458], pnts[519], pnts[523]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[524], pnts[523], pnts[519]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[519], pnts[520], pnts[524]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[525], pnts[524], pnts[520]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[520], pnts[521], pnts[525]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[526], pnts[525], pnts[521]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[521], pnts[522], pnts[526]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[527], pnts[466], pnts[462]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[462], pnts[523], pnts[527]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[528], pnts[527], pnts[523]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[523], pnts[524], pnts[528]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[529], pnts[528], pnts[524]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[524], pnts[525], pnts[529]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[530], pnts[529], pnts[525]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[525], pnts[526], pnts[530]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[467], pnts[406], pnts[466]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[466], pnts[527], pnts[467]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[468], pnts[467], pnts[527]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[527], pnts[528], pnts[468]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[469], pnts[468], pnts[528]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[528], pnts[529], pnts[469]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[470], pnts[469], pnts[529]).setEmission(color).setMaterial(mat), //
-                new Triangle(pnts[529], pnts[530], pnts[470]).setEmission(color).setMaterial(mat) //
-        );
+        scene.geometries.add(teapotTriangles());
         scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(100, 0, -100)).setkQ(0.000001));
 
         camera.setRayTracer(new SimpleRayTracer(scene)).build().renderImage().setMultithreading(6).printGrid(50, new Color(YELLOW)).writeToImage();
@@ -0,0 +1,229 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the BVHBuilder class
+ */
+class BVHBuilderTest {
+
+    /**
+     * Creates a scene of random small triangles gathered in a few clusters, so the splits matter.
+     *
+     * @param count The amount of triangles.
+     * @return The triangles.
+     */
+    private static List<Intersectable> triangles(int count) {
+        Random random = new Random(7);
+        List<Intersectable> triangles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double cx = (i % 4) * 50 + random.nextDouble() * 10;
+            double cy = random.nextDouble() * 10;
+            double cz = (i % 3) * 30 + random.nextDouble() * 10;
+            triangles.add(new Triangle(new Point(cx, cy, cz), new Point(cx + 1, cy, cz), new Point(cx, cy + 1, cz + 0.5)));
+        }
+        return triangles;
+    }
+
+    /**
+     * Creates rays from the side of the clusters towards them.
+     *
+     * @return The rays.
+     */
+    private static List<Ray> rays() {
+        List<Ray> rays = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            for (int j = 0; j < 40; j++)
+                rays.add(new Ray(new Point(-50, j * 0.3, i * 2.5), new Vector(1, 0.01 * (j - 20), 0.002 * i)));
+        return rays;
+    }
+
+    /**
+     * Test method for {@link BVHBuilder#build(List)}.
+     */
+    @Test
+    void testBuild() {
+        List<Intersectable> triangles = triangles(3000);
+        Geometries brute = new Geometries(triangles.toArray(new Intersectable[0]));
+        BVHBuilder median = new BVHBuilder(BVHBuilder.Strategy.MEDIAN);
+        BVHBuilder sah = new BVHBuilder(BVHBuilder.Strategy.SAH);
+        Geometries medianTree = new Geometries(triangles.toArray(new Intersectable[0])).buildBVH(median);
+        Geometries sahTree = new Geometries(triangles.toArray(new Intersectable[0])).buildBVH(sah);
+        Geometries flatTree = new Geometries(triangles.toArray(new Intersectable[0]))
+                .buildBVH(new BVHBuilder(BVHBuilder.Strategy.SAH).setFlat(true));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: All the hierarchies find the same intersections as the plain collection
+        for (Ray ray : rays()) {
+            var expected = brute.findIntersections(ray);
+            int size = expected == null ? 0 : expected.size();
+            var medianResult = medianTree.findIntersections(ray);
+            var sahResult = sahTree.findIntersections(ray);
+            var flatResult = flatTree.findIntersections(ray);
+            assertEquals(size, medianResult == null ? 0 : medianResult.size(), "Median BVH misses intersections");
+            assertEquals(size, sahResult == null ? 0 : sahResult.size(), "SAH BVH misses intersections");
+            assertEquals(size, flatResult == null ? 0 : flatResult.size(), "Flat BVH misses intersections");
+            var closest = brute.findClosestGeoIntersection(ray);
+            assertEquals(closest, medianTree.findClosestGeoIntersection(ray), "Median BVH misses the closest intersection");
+            assertEquals(closest, sahTree.findClosestGeoIntersection(ray), "SAH BVH misses the closest intersection");
+            assertEquals(closest, flatTree.findClosestGeoIntersection(ray), "Flat BVH misses the closest intersection");
+        }
+
+        // TC02: The statistics of both builds are reported and the SAH tree is not worse than the median tree
+        assertEquals(3000, median.getStatistics().geometries(), "Wrong amount of geometries in the statistics");
+        assertEquals(3000, sah.getStatistics().geometries(), "Wrong amount of geometries in the statistics");
+        assertTrue(sah.getStatistics().cost() <= median.getStatistics().cost(),
+                "SAH tree is expected to be cheaper than median tree: " + sah.getStatistics() + " / " + median.getStatistics());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: An empty list of geometries
+        assertNull(new BVHBuilder(BVHBuilder.Strategy.SAH).build(List.of()), "An empty hierarchy must have no root");
+        // TC12: A single geometry is the root itself
+        assertSame(triangles.getFirst(), new BVHBuilder(BVHBuilder.Strategy.SAH).build(triangles.subList(0, 1)),
+                "A single geometry must be the root of the hierarchy");
+    }
+
+    /**
+     * Test method for the determinism of {@link BVHBuilder#build(List)} with parallel construction.
+     */
+    @Test
+    void testDeterminism() {
+        List<Intersectable> triangles = triangles(5000);
+        BVHBuilder first = new BVHBuilder(BVHBuilder.Strategy.SAH).setPool(new ForkJoinPool(4));
+        BVHBuilder second = new BVHBuilder(BVHBuilder.Strategy.SAH).setPool(new ForkJoinPool(1));
+        Geometries firstTree = new Geometries(triangles.toArray(new Intersectable[0])).buildBVH(first);
+        Geometries secondTree = new Geometries(triangles.toArray(new Intersectable[0])).buildBVH(second);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Two builds of the same geometries produce the same tree
+        assertEquals(first.getStatistics().nodes(), second.getStatistics().nodes(), "Different amount of nodes");
+        assertEquals(first.getStatistics().depth(), second.getStatistics().depth(), "Different depth");
+        assertEquals(first.getStatistics().cost(), second.getStatistics().cost(), "Different cost");
+        for (Ray ray : rays())
+            assertEquals(firstTree.findIntersections(ray), secondTree.findIntersections(ray),
+                    "Different order of intersections");
+    }
+
+    /**
+     * Test method for the binning of the surface area heuristic - the per-thread scratch bins, the boxes which are
+     * reordered with their range and the amount of bins of a small range.
+     */
+    @Test
+    void testBinning() throws InterruptedException {
+        List<Intersectable> triangles = triangles(3000);
+        BVHBuilder sequential = new BVHBuilder(BVHBuilder.Strategy.SAH).setPool(new ForkJoinPool(1));
+        sequential.build(triangles);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Builds which run at the same time, with the scratch bins of the threads of one pool, are not mixed
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<BVHBuilder> builders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            BVHBuilder builder = new BVHBuilder(BVHBuilder.Strategy.SAH).setPool(pool);
+            builders.add(builder);
+            threads.add(new Thread(() -> builder.build(triangles)));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        for (BVHBuilder builder : builders) {
+            assertEquals(sequential.getStatistics().nodes(), builder.getStatistics().nodes(), "Different amount of nodes");
+            assertEquals(sequential.getStatistics().cost(), builder.getStatistics().cost(), "Different cost");
+        }
+
+        // TC02: The boxes reordered with their ranges are still the boxes of the geometries of the nodes
+        Random random = new Random(11);
+        double[] boxes = new double[2000 * 6];
+        for (int i = 0; i < 2000; i++)
+            for (int axis = 0; axis < 3; axis++) {
+                double min = random.nextDouble() * 100;
+                boxes[i * 6 + axis] = min;
+                boxes[i * 6 + axis + 3] = min + random.nextDouble() * 2;
+            }
+        double[] original = boxes.clone();
+        BVHBuilder.Layout layout = new BVHBuilder(BVHBuilder.Strategy.SAH).buildLayout(boxes);
+        int[] order = layout.order();
+        assertArrayEquals(IntStream.range(0, 2000).toArray(),
+                Arrays.stream(order).sorted().toArray(), "The order must hold every box once");
+        double[] bounds = layout.bounds();
+        int[] offsets = layout.offsets();
+        for (int node = 0; node < offsets.length / 2; node++) {
+            int first = offsets[2 * node], count = offsets[2 * node + 1];
+            if (count < 0) {
+                assertTrue(contains(bounds, node, bounds, node + 1), "A node must contain its left child");
+                assertTrue(contains(bounds, node, bounds, first), "A node must contain its right child");
+            } else
+                for (int i = first; i < first + count; i++)
+                    assertTrue(contains(bounds, node, original, order[i]), "A leaf must contain its boxes");
+        }
+
+        // TC03: One builder runs builds of geometries and of raw boxes at the same time, and they are not mixed
+        BVHBuilder shared = new BVHBuilder(BVHBuilder.Strategy.SAH).setFlat(true).setPool(pool);
+        Geometries expected = new Geometries(triangles.toArray(new Intersectable[0]))
+                .buildBVH(new BVHBuilder(BVHBuilder.Strategy.SAH).setFlat(true));
+        List<Geometries> trees = Collections.synchronizedList(new ArrayList<>());
+        List<BVHBuilder.Layout> layouts = Collections.synchronizedList(new ArrayList<>());
+        threads.clear();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> trees.add(
+                    new Geometries(triangles.toArray(new Intersectable[0])).buildBVH(shared))));
+            threads.add(new Thread(() -> layouts.add(shared.buildLayout(original.clone()))));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        assertEquals(4, trees.size(), "Every build of geometries must end");
+        assertEquals(4, layouts.size(), "Every build of boxes must end");
+        for (Geometries tree : trees)
+            for (Ray ray : rays())
+                assertEquals(expected.findClosestGeoIntersection(ray), tree.findClosestGeoIntersection(ray),
+                        "A build which shares its builder misses the closest intersection");
+        for (BVHBuilder.Layout concurrent : layouts) {
+            assertArrayEquals(layout.order(), concurrent.order(), "A build which shares its builder has another order");
+            assertArrayEquals(layout.bounds(), concurrent.bounds(), "A build which shares its builder has other bounds");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A range smaller than the amount of bins has a bin per geometry, and finds the same intersections
+        List<Intersectable> few = triangles(5);
+        BVHBuilder small = new BVHBuilder(BVHBuilder.Strategy.SAH);
+        BVHBuilder smallMedian = new BVHBuilder(BVHBuilder.Strategy.MEDIAN);
+        Geometries brute = new Geometries(few.toArray(new Intersectable[0]));
+        Geometries smallTree = new Geometries(few.toArray(new Intersectable[0])).buildBVH(small.setFlat(true));
+        new Geometries(few.toArray(new Intersectable[0])).buildBVH(smallMedian);
+        assertTrue(small.getStatistics().cost() <= smallMedian.getStatistics().cost(),
+                "SAH tree of a small range is expected to be cheaper than median tree");
+        for (Ray ray : rays())
+            assertEquals(brute.findClosestGeoIntersection(ray), smallTree.findClosestGeoIntersection(ray),
+                    "The hierarchy of a small range misses the closest intersection");
+    }
+
+    /**
+     * Checks whether a box contains another box.
+     *
+     * @param outer      The array of the outer box.
+     * @param outerIndex The index of the outer box - six numbers per box.
+     * @param inner      The array of the inner box.
+     * @param innerIndex The index of the inner box.
+     * @return True if the outer box contains the inner box.
+     */
+    private static boolean contains(double[] outer, int outerIndex, double[] inner, int innerIndex) {
+        for (int axis = 0; axis < 3; axis++)
+            if (inner[innerIndex * 6 + axis] < outer[outerIndex * 6 + axis]
+                    || inner[innerIndex * 6 + axis + 3] > outer[outerIndex * 6 + axis + 3])
+                return false;
+        return true;
+    }
+}
@@ -5,6 +5,8 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -40,4 +42,44 @@ class CylinderTest {
                 "Incorrect normal vector at the base of the cylinder when the point merges with the axis of the cylinder");
     }
 
+    /**
+     * Test method for {@link geometries.Cylinder#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // Create a test cylinder with radius 1, axis along z-axis, and height 4
+        Cylinder cylinder = new Cylinder(1, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 4);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray crosses the side twice
+        assertEquals(List.of(new Point(-1, 0, 2), new Point(1, 0, 2)),
+                cylinder.findIntersections(new Ray(new Point(-2, 0, 2), new Vector(1, 0, 0))),
+                "Error in case the ray crosses the side twice");
+        // TC02: The ray crosses the side outside the height of the cylinder
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2, 0, 6), new Vector(1, 0, 0))),
+                "Error in case the ray crosses the infinite tube only");
+        // TC03: The ray crosses both bases
+        assertEquals(List.of(new Point(0.5, 0, 0), new Point(0.5, 0, 4)),
+                cylinder.findIntersections(new Ray(new Point(0.5, 0, -1), new Vector(0, 0, 1))),
+                "Error in case the ray crosses both bases");
+        // TC04: The ray crosses a base and the side
+        assertEquals(List.of(new Point(0, 0, 4), new Point(1, 0, 3)),
+                cylinder.findIntersections(new Ray(new Point(-1, 0, 5), new Vector(1, 0, -1))),
+                "Error in case the ray crosses a base and the side");
+        // TC05: The ray starts inside the cylinder
+        assertEquals(List.of(new Point(0, 0, 4)),
+                cylinder.findIntersections(new Ray(new Point(0, 0, 2), new Vector(0, 0, 1))),
+                "Error in case the ray starts inside the cylinder");
+        // TC06: The closest point is the first point of the list
+        assertEquals(new Point(0.5, 0, 0),
+                cylinder.findClosestGeoIntersection(new Ray(new Point(0.5, 0, -1), new Vector(0, 0, 1))).point,
+                "Error in the closest point of the cylinder");
+        // =============== Boundary Values Tests ==================
+        // TC11: The ray misses the bases outside the radius
+        assertNull(cylinder.findIntersections(new Ray(new Point(2, 0, -1), new Vector(0, 0, 1))),
+                "Error in case the ray is parallel to the axis outside the cylinder");
+        // TC12: The maximal distance is before the second base
+        assertEquals(List.of(new Point(0.5, 0, 0)),
+                cylinder.findIntersections(new Ray(new Point(0.5, 0, -1), new Vector(0, 0, 1)), 3),
+                "Error in case the maximal distance is between the bases");
+    }
 }
@@ -1,6 +1,8 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -28,4 +30,199 @@ class GeometriesTest {
         //TC14: All shapes are cut
         assertEquals(4,geometries.findIntersections(new Ray(new Point(1,-1,0),new Vector(3,2.5,1))).size(),"Error in case all shapes are cut");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBuildBVH() {
+        Plane plane=new Plane(new Point(4,0,0),new Point(4,0,1),new Point(4,1,1));
+        Sphere sphere=new Sphere(1,new Point(2,0,0));
+        Triangle triangle=new Triangle(new Point(6,0,0),new Point(6,5,0),new Point(6,3,5));
+        Sphere farSphere=new Sphere(1,new Point(20,20,20));
+        Polygon polygon=new Polygon(new Point(8,-1,-1),new Point(8,6,-1),new Point(8,6,6),new Point(8,-1,6));
+        Geometries geometries=new Geometries(sphere,plane,new Geometries(triangle,farSphere),polygon).buildBVH();
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Some shapes (but not all) are cut
+        assertEquals(3,geometries.findIntersections(new Ray(new Point(0,3,3),new Vector(2,0,0))).size(),"Error in case some shapes (but not all) are cut with BVH");
+        //TC02: All shapes are cut
+        assertEquals(5,geometries.findIntersections(new Ray(new Point(1,-1,0),new Vector(3,2.5,1))).size(),"Error in case all shapes are cut with BVH");
+        //TC03: The maximal distance stops the ray before the far shapes
+        assertEquals(2,geometries.findIntersections(new Ray(new Point(0,0,0.5),new Vector(1,0,0)),3.5).size(),"Error in case the maximal distance is before some shapes with BVH");
+        // =============== Boundary Values Tests ==================
+        //TC11: No shape is cut
+        assertNull(geometries.findIntersections(new Ray(new Point(0,0,2),new Vector(-1,0,0))),"Error in case no shape is cut with BVH");
+        //TC12: Only the shape in the nested collection is cut
+        assertEquals(2,geometries.findIntersections(new Ray(new Point(20,20,30),new Vector(0,0,-1))).size(),"Error in case only a nested shape is cut with BVH");
+    }
+
+    @Test
+    void testFindTransparency() {
+        Sphere glass=new Sphere(1,new Point(2,0,0));
+        glass.setMaterial(new Material().setKt(0.5));
+        Triangle opaque=new Triangle(new Point(6,-5,-5),new Point(6,5,-5),new Point(6,0,5));
+        Sphere farSphere=new Sphere(1,new Point(20,20,20));
+        Geometries geometries=new Geometries(glass,opaque,farSphere);
+        Geometries hierarchy=new Geometries(glass,opaque,farSphere).buildBVH();
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The ray crosses only the transparent sphere, twice
+        assertEquals(new Double3(0.25),geometries.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),5),"Error in case of a transparent shape");
+        assertEquals(new Double3(0.25),hierarchy.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),5),"Error in case of a transparent shape with BVH");
+        //TC02: The ray is blocked by the opaque triangle
+        assertEquals(Double3.ZERO,geometries.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),10),"Error in case of an opaque shape");
+        assertEquals(Double3.ZERO,hierarchy.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),10),"Error in case of an opaque shape with BVH");
+        // =============== Boundary Values Tests ==================
+        //TC11: No shape is cut
+        assertEquals(Double3.ONE,geometries.findTransparency(new Ray(new Point(0,0,0),new Vector(-1,0,0)),10),"Error in case no shape is cut");
+        assertEquals(Double3.ONE,hierarchy.findTransparency(new Ray(new Point(0,0,0),new Vector(-1,0,0)),10),"Error in case no shape is cut with BVH");
+        //TC12: The opaque triangle is farther than the maximal distance by almost zero, and is still cut
+        assertEquals(Double3.ZERO,new Geometries(opaque,farSphere).findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),6-1e-13),"Error in case of a shape at the maximal distance");
+        assertEquals(Double3.ZERO,new Geometries(opaque,farSphere).buildBVH().findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),6-1e-13),"Error in case of a shape at the maximal distance with BVH");
+    }
+
+    @Test
+    void testFindClosestGeoIntersection() {
+        Plane plane=new Plane(new Point(4,0,0),new Point(4,0,1),new Point(4,1,1));
+        Sphere sphere=new Sphere(1,new Point(2,0,0));
+        Triangle triangle=new Triangle(new Point(6,0,0),new Point(6,5,0),new Point(6,3,5));
+        Polygon polygon=new Polygon(new Point(8,-1,-1),new Point(8,6,-1),new Point(8,6,6),new Point(8,-1,6));
+        Geometries geometries=new Geometries(polygon,triangle,plane,sphere);
+        Geometries hierarchy=new Geometries(polygon,triangle,plane,sphere).buildBVH();
+        Ray ray=new Ray(new Point(-1,0,0.5),new Vector(1,0,0));
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The closest of several shapes is the near side of the sphere
+        var closest=geometries.findClosestGeoIntersection(ray);
+        assertSame(sphere,closest.geometry,"Error in case of several shapes");
+        assertEquals(ray.findClosestGeoPoint(geometries.findGeoIntersections(ray)).point,closest.point,"Error in case of several shapes");
+        assertEquals(closest.point.distance(ray.getHead()),closest.t,1e-10,"Wrong distance of the closest point");
+        assertEquals(closest.point,hierarchy.findClosestGeoIntersection(ray).point,"Error in case of several shapes with BVH");
+        //TC02: The maximal distance is before the closest shape
+        assertNull(geometries.findClosestGeoIntersection(ray,1.5),"Error in case the maximal distance is before all shapes");
+        // =============== Boundary Values Tests ==================
+        //TC11: No shape is cut
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0,0,2),new Vector(-1,0,0))),"Error in case no shape is cut");
+        assertNull(hierarchy.findClosestGeoIntersection(new Ray(new Point(0,0,2),new Vector(-1,0,0))),"Error in case no shape is cut with BVH");
+    }
+
+    @Test
+    void testCompile() {
+        Plane plane=new Plane(new Point(4,0,0),new Point(4,0,1),new Point(4,1,1));
+        Sphere sphere=new Sphere(1,new Point(2,0,0));
+        Triangle triangle=new Triangle(new Point(6,0,0),new Point(6,5,0),new Point(6,3,5));
+        Polygon polygon=new Polygon(new Point(8,-1,-1),new Point(8,6,-1),new Point(8,6,6),new Point(8,-1,6));
+        Tube tube=new Tube(0.5,new Ray(new Point(3,0,0),new Vector(0,1,0)));
+        Geometries geometries=new Geometries(polygon,triangle,plane,sphere,new Geometries(tube));
+        Geometries compiled=new Geometries(polygon,triangle,plane,sphere,new Geometries(tube)).compile();
+        Geometries hierarchy=new Geometries(polygon,triangle,sphere,tube).buildBVH().compile();
+        Geometries plainHierarchy=new Geometries(polygon,triangle,sphere,tube).buildBVH();
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The compiled collection and hierarchy find the same closest points as the geometries
+        for (int y=-2;y<=6;y++)
+            for (int z=-2;z<=6;z++) {
+                Ray ray=new Ray(new Point(-1,y*0.7,z*0.6),new Vector(1,0.05*y,-0.03*z));
+                var expected=geometries.findClosestGeoIntersection(ray);
+                var actual=compiled.findClosestGeoIntersection(ray);
+                assertEquals(expected==null,actual==null,"Error in case of a compiled collection");
+                if (expected!=null) {
+                    assertSame(expected.geometry,actual.geometry,"Wrong geometry in a compiled collection");
+                    assertEquals(expected.t,actual.t,"Wrong distance in a compiled collection");
+                    assertEquals(expected.point,actual.point,"Wrong point in a compiled collection");
+                }
+                expected=plainHierarchy.findClosestGeoIntersection(ray);
+                actual=hierarchy.findClosestGeoIntersection(ray);
+                assertEquals(expected==null,actual==null,"Error in case of a compiled hierarchy");
+                if (expected!=null) {
+                    assertSame(expected.geometry,actual.geometry,"Wrong geometry in a compiled hierarchy");
+                    assertEquals(expected.t,actual.t,"Wrong distance in a compiled hierarchy");
+                }
+            }
+        //TC02: The compiled collection and hierarchy find the transparency of transparent and opaque shapes
+        Sphere glass=new Sphere(1,new Point(2,0,0));
+        glass.setMaterial(new Material().setKt(0.5));
+        Triangle opaque=new Triangle(new Point(6,-5,-5),new Point(6,5,-5),new Point(6,0,5));
+        Geometries shadows=new Geometries(glass,opaque).compile();
+        assertEquals(new Double3(0.25),shadows.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),5),"Error in case of a transparent shape in a compiled collection");
+        assertEquals(Double3.ZERO,shadows.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),10),"Error in case of an opaque shape in a compiled collection");
+        Geometries shadowHierarchy=new Geometries(glass,opaque,new Sphere(0.5,new Point(2,4,0))).buildBVH().compile();
+        assertEquals(new Double3(0.25),shadowHierarchy.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),5),"Error in case of a transparent shape in a compiled hierarchy");
+        assertEquals(Double3.ZERO,shadowHierarchy.findTransparency(new Ray(new Point(0,0,0),new Vector(1,0,0)),10),"Error in case of an opaque shape in a compiled hierarchy");
+        // =============== Boundary Values Tests ==================
+        //TC11: A subclass of a packed shape isn't packed, it intersects by its own methods
+        Sphere hidden=new Sphere(1,new Point(2,0,0)) {
+            @Override
+            protected GeoPoint findClosestGeoIntersectionHelper(Ray ray,double maxDistance) {
+                return null;
+            }
+        };
+        assertNull(new Geometries(hidden).compile().findClosestGeoIntersection(new Ray(new Point(0,0,0),new Vector(1,0,0))),"Error in case of a subclass of a shape");
+        //TC12: A shape which is added after the compilation is found
+        compiled.add(new Sphere(0.5,new Point(0,-5,0)));
+        assertEquals(new Point(0,-4.5,0),compiled.findClosestGeoIntersection(new Ray(new Point(0,0,0),new Vector(0,-1,0))).point,"Error in case of a shape added after the compilation");
+    }
+
+    @Test
+    void testTriangleBatch() {
+        java.util.Random random=new java.util.Random(23);
+        Triangle[] triangles=new Triangle[40];
+        for (int i=0;i<37;i++) {
+            double x=2+0.5*i+random.nextDouble()*0.2;
+            triangles[i]=new Triangle(new Point(x,-3+random.nextDouble(),-3),new Point(x+random.nextDouble()*0.3,3,-2),new Point(x,-1,3+random.nextDouble()));
+        }
+        //the same triangle twice, at the same distance
+        triangles[37]=new Triangle(new Point(1,-1,-1),new Point(1,1,-1),new Point(1,0,1));
+        triangles[38]=new Triangle(new Point(1,-1,-1),new Point(1,1,-1),new Point(1,0,1));
+        //a triangle which is parallel to the rays
+        triangles[39]=new Triangle(new Point(0,0,0.5),new Point(30,0,0.5),new Point(30,1,0.5));
+        Geometries geometries=new Geometries(triangles);
+        Geometries compiled=new Geometries(triangles).compile();
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The compiled triangles find the same closest points as the triangles, also when the batch of the
+        //SIMD lanes is available
+        for (int y=-4;y<=4;y++)
+            for (int z=-4;z<=4;z++) {
+                Ray ray=new Ray(new Point(0,y*0.8,z*0.8),new Vector(1,0.01*y,-0.02*z));
+                for (double maxDistance : new double[]{Double.POSITIVE_INFINITY,5,12}) {
+                    var expected=geometries.findClosestGeoIntersection(ray,maxDistance);
+                    var actual=compiled.findClosestGeoIntersection(ray,maxDistance);
+                    assertEquals(expected==null,actual==null,"Error in case of compiled triangles");
+                    if (expected!=null) {
+                        assertSame(expected.geometry,actual.geometry,"Wrong triangle of compiled triangles");
+                        assertEquals(expected.t,actual.t,"Wrong distance of compiled triangles");
+                    }
+                }
+            }
+        //TC02: The batch finds the triangle of the scalar test in every range, also in the lanes after the last
+        //full vector
+        if (TriangleBatch.INSTANCE!=null) {
+            double[] columns=new double[12*triangles.length];
+            double[] numbers=new double[12];
+            for (int i=0;i<triangles.length;i++) {
+                triangles[i].pack(numbers,0);
+                for (int c=0;c<12;c++)
+                    columns[c*triangles.length+i]=numbers[c];
+            }
+            for (int y=-4;y<=4;y+=2)
+                for (int z=-4;z<=4;z+=2)
+                    for (int first=0;first<triangles.length;first+=3)
+                        for (int end=first+1;end<=triangles.length;end+=2) {
+                            double ox=0,oy=y*0.8,oz=z*0.8,dx=1/Math.sqrt(1+0.0001*y*y+0.0004*z*z),dy=0.01*y*dx,dz=-0.02*z*dx;
+                            int expected=-1;
+                            double closest=Double.POSITIVE_INFINITY;
+                            for (int i=first;i<end;i++) {
+                                numbers=new double[12];
+                                triangles[i].pack(numbers,0);
+                                double t=Triangle.closestDistance(numbers,0,ox,oy,oz,dx,dy,dz,20);
+                                if (t<closest) {
+                                    closest=t;
+                                    expected=i;
+                                }
+                            }
+                            assertEquals(expected,TriangleBatch.INSTANCE.closest(columns,triangles.length,first,end,ox,oy,oz,dx,dy,dz,20),"Wrong triangle of the batch");
+                        }
+        }
+        // =============== Boundary Values Tests ==================
+        //TC11: Of two triangles at the same distance the first one is found
+        Ray ray=new Ray(new Point(0,0,0),new Vector(1,0,0));
+        assertSame(triangles[37],compiled.findClosestGeoIntersection(ray).geometry,"Error in case of triangles at the same distance");
+        //TC12: A triangle which is farther than the maximal distance by almost zero is found
+        assertSame(triangles[37],compiled.findClosestGeoIntersection(ray,1-1e-13).geometry,"Error in case of a triangle at the maximal distance");
+        assertNull(compiled.findClosestGeoIntersection(ray,1-1e-9),"Error in case of a triangle beyond the maximal distance");
+    }
+}
@@ -140,6 +140,14 @@ public class PolygonTest {
 
         //TC13: The point on the continuation of the side
         assertNull(polygon.findIntersections(new Ray(head, new Vector(-3, -4.5, -4))), "ERROR: when the point on the continuation of the side");
+
+        //TC14: A polygon of three vertices, which isn't a triangle, is intersected by its own projection like the triangle
+        Point[] vertices = { new Point(0, 0, 1), new Point(2, 0, 1), new Point(0, 2, 1) };
+        Ray ray = new Ray(new Point(0.5, 0.5, 0), new Vector(0, 0, 1));
+        assertEquals(new Triangle(vertices[0], vertices[1], vertices[2]).findIntersections(ray),
+                new Polygon(vertices).findIntersections(ray), "ERROR: when the polygon has three vertices");
+        assertNull(new Polygon(vertices).findIntersections(new Ray(new Point(1.5, 1.5, 0), new Vector(0, 0, 1))),
+                "ERROR: when the point is outside a polygon of three vertices");
     }
     @Test
     void testFindMaxDistanceIntersections(){
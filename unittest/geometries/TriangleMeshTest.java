@@ -0,0 +1,190 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the TriangleMesh class
+ */
+class TriangleMeshTest {
+    /** A square of two triangles on the plane z=0, with its vertices shared */
+    private final TriangleMesh square = new TriangleMesh(
+            new double[]{0, 0, 0, 2, 0, 0, 2, 2, 0, 0, 2, 0},
+            new int[]{0, 1, 2, 0, 2, 3});
+
+    /**
+     * Test method for {@link TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A correct mesh
+        assertEquals(2, square.size(), "Wrong amount of triangles");
+        // TC02: An index which is not of a vertex
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 3}),
+                "Constructed a mesh with a wrong index");
+        // =============== Boundary Values Tests ==================
+        // TC11: Coordinates which are not triples
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1}, new int[]{0, 1, 2}),
+                "Constructed a mesh with a partial vertex");
+        // TC12: A mesh without triangles
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new double[]{0, 0, 0}, new int[0]),
+                "Constructed a mesh without triangles");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray crosses one of the triangles
+        assertEquals(List.of(new Point(1.5, 0.5, 0)), square.findIntersections(new Ray(new Point(1.5, 0.5, 1), new Vector(0, 0, -1))),
+                "Error in case the ray crosses a triangle");
+        // TC02: The ray misses the mesh
+        assertNull(square.findIntersections(new Ray(new Point(3, 0.5, 1), new Vector(0, 0, -1))),
+                "Error in case the ray misses the mesh");
+        // TC03: The maximal distance is before the mesh
+        assertNull(square.findIntersections(new Ray(new Point(1.5, 0.5, 1), new Vector(0, 0, -1)), 0.5),
+                "Error in case the maximal distance is before the mesh");
+        // TC04: The mesh finds the same points as separate triangles
+        Random random = new Random(3);
+        double[] positions = new double[300 * 3];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = random.nextDouble() * 10;
+        int[] indices = new int[200 * 3];
+        List<Intersectable> triangles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            indices[3 * i] = 3 * i % 300;
+            indices[3 * i + 1] = (3 * i + 1) % 300;
+            indices[3 * i + 2] = (3 * i + 2) % 300;
+            triangles.add(new Triangle(point(positions, indices[3 * i]), point(positions, indices[3 * i + 1]),
+                    point(positions, indices[3 * i + 2])));
+        }
+        TriangleMesh mesh = new TriangleMesh(positions, indices);
+        Geometries geometries = new Geometries(triangles.toArray(new Intersectable[0]));
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 30; j++) {
+                Ray ray = new Ray(new Point(-5, i * 0.35, j * 0.35), new Vector(1, 0.01 * (i - 15), 0.01 * (j - 15)));
+                var expected = geometries.findIntersections(ray);
+                var result = mesh.findIntersections(ray);
+                assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                        "The mesh and the triangles have different intersections");
+                var closest = geometries.findClosestGeoIntersection(ray);
+                var meshClosest = mesh.findClosestGeoIntersection(ray);
+                assertEquals(closest == null ? null : closest.point, meshClosest == null ? null : meshClosest.point,
+                        "The mesh and the triangles have different closest intersections");
+            }
+        // =============== Boundary Values Tests ==================
+        // TC11: The ray crosses the shared edge of the triangles
+        assertNull(square.findIntersections(new Ray(new Point(1, 1, 1), new Vector(0, 0, -1))),
+                "Error in case the ray crosses the shared edge");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#getNormal(Intersectable.GeoPoint)} and {@link TriangleMesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The normal of a triangle of the mesh is the normal of the same triangle
+        Intersectable.GeoPoint gp = square.findClosestGeoIntersection(new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1)));
+        assertEquals(new Triangle(new Point(0, 0, 0), new Point(2, 2, 0), new Point(0, 2, 0)).getNormal(gp.point),
+                square.getNormal(gp), "Wrong normal of the mesh");
+        // TC02: The normal at a point is the normal of the triangle which contains it
+        TriangleMesh smooth = new TriangleMesh(new double[]{0, 0, 0, 2, 0, 0, 2, 2, 0, 0, 2, 0},
+                new double[]{0, 0, 1, 1, 0, 1, 1, 0, 1, 0, 0, 1}, new int[]{0, 1, 2, 0, 2, 3});
+        Intersectable.GeoPoint smoothGp = smooth.findClosestGeoIntersection(new Ray(new Point(1.5, 0.5, 1), new Vector(0, 0, -1)));
+        assertEquals(smooth.getNormal(smoothGp), smooth.getNormal(smoothGp.point),
+                "The normal at a point differs from the normal of its intersection");
+        assertEquals(square.getNormal(gp), square.getNormal(new Point(0.5, 1.5, 0)), "Wrong normal at a point of the mesh");
+        // TC03: A point which is not on the mesh
+        assertThrows(IllegalArgumentException.class, () -> square.getNormal(new Point(0.5, 1.5, 0.1)),
+                "Calculated a normal at a point above the mesh");
+        assertThrows(IllegalArgumentException.class, () -> square.getNormal(new Point(3, 1, 0)),
+                "Calculated a normal at a point beside the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A point on the shared edge of the triangles
+        assertEquals(square.getNormal(gp), square.getNormal(new Point(1, 1, 0)), "Wrong normal on the shared edge");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#TriangleMesh(float[], float[], int[])}.
+     */
+    @Test
+    void testSinglePrecision() {
+        // a wavy grid of 20 x 20 cells, in double and in single precision, with coordinates which floats can't hold
+        int cells = 20;
+        double[] positions = new double[(cells + 1) * (cells + 1) * 3];
+        float[] floatPositions = new float[positions.length];
+        int[] indices = new int[cells * cells * 6];
+        for (int i = 0, p = 0; i <= cells; i++)
+            for (int j = 0; j <= cells; j++, p += 3) {
+                positions[p] = i * 0.1;
+                positions[p + 1] = j * 0.1;
+                positions[p + 2] = 0.05 * Math.sin(i * 0.7) * Math.cos(j * 0.3);
+            }
+        for (int k = 0; k < positions.length; k++)
+            floatPositions[k] = (float) positions[k];
+        for (int i = 0, q = 0; i < cells; i++)
+            for (int j = 0; j < cells; j++) {
+                int a = i * (cells + 1) + j, b = a + cells + 1;
+                System.arraycopy(new int[]{a, b, b + 1, a, b + 1, a + 1}, 0, indices, q, 6);
+                q += 6;
+            }
+        TriangleMesh mesh = new TriangleMesh(positions, indices);
+        TriangleMesh floatMesh = new TriangleMesh(floatPositions, indices);
+        assertFalse(mesh.isSinglePrecision(), "A mesh of doubles must be stored in double precision");
+        assertTrue(floatMesh.isSinglePrecision(), "A mesh of floats must be stored in single precision");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Inside the triangles the closest points are the same as in double precision, up to the float error
+        Random random = new Random(5);
+        for (int k = 0; k < 200; k++) {
+            Ray ray = new Ray(new Point(0.1 + random.nextDouble() * 1.8, 0.1 + random.nextDouble() * 1.8, 1),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -2));
+            var expected = mesh.findClosestGeoIntersection(ray);
+            var actual = floatMesh.findClosestGeoIntersection(ray);
+            assertEquals(expected == null, actual == null, "The precisions must hit the same rays");
+            if (expected != null)
+                assertEquals(expected.t, actual.t, 1e-6, "The precisions must find the same points");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Rays through the shared vertices and the diagonals of the cells find no hole between the triangles
+        for (int i = 1; i < cells; i++)
+            for (int j = 1; j < cells; j++) {
+                int p = 3 * (i * (cells + 1) + j);
+                Point vertex = new Point(floatPositions[p], floatPositions[p + 1], 1);
+                assertNotNull(floatMesh.findClosestGeoIntersection(new Ray(vertex, new Vector(0, 0, -1))),
+                        "A ray through a shared vertex must hit the mesh");
+                Point diagonal = new Point((floatPositions[p] + floatPositions[p + 3 * (cells + 2)]) / 2,
+                        (floatPositions[p + 1] + floatPositions[p + 3 * (cells + 2) + 1]) / 2, 1);
+                assertNotNull(floatMesh.findClosestGeoIntersection(new Ray(diagonal, new Vector(0, 0, -1))),
+                        "A ray through a shared edge must hit the mesh");
+            }
+        // TC12: Normals of the vertices which are not of every vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(floatPositions, new float[3], indices), "Constructed a mesh with missing normals");
+    }
+
+    /**
+     * Creates a point from the coordinates of a vertex.
+     *
+     * @param positions The coordinates of the vertices.
+     * @param index     The index of the vertex.
+     * @return The point.
+     */
+    private static Point point(double[] positions, int index) {
+        return new Point(positions[3 * index], positions[3 * index + 1], positions[3 * index + 2]);
+    }
+}
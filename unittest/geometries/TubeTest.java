@@ -8,6 +8,8 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -31,4 +33,43 @@ class TubeTest {
         assertEquals(new Vector(0, 0, 1), testTube.getNormal(new Point(0, 0, 2)),
                 "An error in calculating the normal on the surface of the tube when the point is in front of the head of the ray");
     }
+
+    /**
+     * Test method for {@link geometries.Tube#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // Create a test tube with radius 1 and axis along the z-axis
+        Tube tube = new Tube(1, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)));
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray starts outside the tube and crosses it
+        assertEquals(List.of(new Point(-1, 0, 5), new Point(1, 0, 5)),
+                tube.findIntersections(new Ray(new Point(-2, 0, 5), new Vector(1, 0, 0))),
+                "Error in case the ray crosses the tube");
+        // TC02: The ray starts inside the tube
+        assertEquals(List.of(new Point(1, 0, -3)),
+                tube.findIntersections(new Ray(new Point(0, 0, -3), new Vector(1, 0, 0))),
+                "Error in case the ray starts inside the tube");
+        // TC03: The ray misses the tube
+        assertNull(tube.findIntersections(new Ray(new Point(-2, 2, 0), new Vector(1, 0, 0))),
+                "Error in case the ray misses the tube");
+        // TC04: The ray starts after the tube
+        assertNull(tube.findIntersections(new Ray(new Point(2, 0, 0), new Vector(1, 0, 0))),
+                "Error in case the ray starts after the tube");
+        // TC05: The maximal distance is before the second point
+        assertEquals(List.of(new Point(-1, 0, 5)),
+                tube.findIntersections(new Ray(new Point(-2, 0, 5), new Vector(1, 0, 0)), 2),
+                "Error in case the maximal distance is between the points");
+        // =============== Boundary Values Tests ==================
+        // TC11: The ray is parallel to the axis
+        assertNull(tube.findIntersections(new Ray(new Point(0.5, 0, 0), new Vector(0, 0, 1))),
+                "Error in case the ray is parallel to the axis");
+        // TC12: The ray is tangent to the tube
+        assertNull(tube.findIntersections(new Ray(new Point(-2, 1, 0), new Vector(1, 0, 0))),
+                "Error in case the ray is tangent to the tube");
+        // TC13: The ray starts on the tube and goes inside
+        assertEquals(List.of(new Point(1, 0, 0)),
+                tube.findIntersections(new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0))),
+                "Error in case the ray starts on the tube");
+    }
 }
@@ -0,0 +1,146 @@
+package primitives;
+
+import geometries.Geometries;
+import geometries.Triangle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.function.DoubleSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of the construction of vectors and colors on the hot paths - the operations whose results are known to
+ * be valid, which skip the checks, against the same results built by the checked public constructors - and of the
+ * intersection of rays with the packed numbers of triangles, against the triangles themselves.
+ * It runs only when the system property {@code benchmark} is {@code true}, not in the unit tests.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PrimitivesBenchmark {
+    /** The amount of times every operation is measured - the first rounds warm up the JIT compiler */
+    private static final int ROUNDS = 5;
+    /** The amount of operations in a round */
+    private static final int OPERATIONS = 2_000_000;
+    /** The vectors of the operations */
+    private final Vector[] vectors = new Vector[1024];
+    /** The colors of the operations */
+    private final Color[] colors = new Color[1024];
+
+    /**
+     * Constructs the operands of the operations
+     */
+    PrimitivesBenchmark() {
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new Vector(i + 1, 2 * i - 700, 3.5 - i);
+            colors[i] = new Color(i % 256, (3 * i) % 256, (7 * i) % 256);
+        }
+    }
+
+    /**
+     * Runs an operation in rounds, prints the time of the best round and returns its result
+     *
+     * @param name      the name of the operation
+     * @param operation the operation, which returns a sum of its results so they are not optimized away
+     * @return the result of the operation
+     */
+    private static double measure(String name, DoubleSupplier operation) {
+        long best = Long.MAX_VALUE;
+        double result = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            result = operation.getAsDouble();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("  %-18s %6.2f ns/op%n", name, (double) best / OPERATIONS);
+        return result;
+    }
+
+    /**
+     * Benchmark of the normalization of vectors
+     */
+    @Test
+    void normalize() {
+        System.out.println("normalize: " + OPERATIONS + " vectors");
+        double checked = measure("checked", () -> {
+            double sum = 0;
+            for (int i = 0; i < OPERATIONS; i++) {
+                Vector v = vectors[i & 1023];
+                double scale = 1 / v.length();
+                sum += new Vector(v.getX() * scale, v.getY() * scale, v.getZ() * scale).getX();
+            }
+            return sum;
+        });
+        double trusted = measure("trusted", () -> {
+            double sum = 0;
+            for (int i = 0; i < OPERATIONS; i++)
+                sum += vectors[i & 1023].normalize().getX();
+            return sum;
+        });
+        assertEquals(checked, trusted, 1e-9, "The normalized vectors must be the same");
+    }
+
+    /**
+     * Benchmark of the mixing of colors - an addition and a scaling, as in the shading of a point by a light
+     */
+    @Test
+    void mixColors() {
+        System.out.println("mix colors: " + OPERATIONS + " colors");
+        double checked = measure("checked", () -> {
+            double sum = 0;
+            for (int i = 0; i < OPERATIONS; i++) {
+                Color a = colors[i & 1023], b = colors[(i + 1) & 1023];
+                Color mixed = new Color(a.getRed() + b.getRed(), a.getGreen() + b.getGreen(), a.getBlue() + b.getBlue());
+                sum += new Color(mixed.getRed() * 0.5, mixed.getGreen() * 0.5, mixed.getBlue() * 0.5).getRed();
+            }
+            return sum;
+        });
+        double trusted = measure("trusted", () -> {
+            double sum = 0;
+            for (int i = 0; i < OPERATIONS; i++)
+                sum += colors[i & 1023].add(colors[(i + 1) & 1023]).scale(0.5).getRed();
+            return sum;
+        });
+        assertEquals(checked, trusted, 1e-9, "The mixed colors must be the same");
+    }
+
+    /**
+     * Benchmark of the closest intersection of rays with a run of triangles - the triangles themselves, against their
+     * compiled numbers, which are checked by the SIMD lanes of the CPU when the JVM runs with
+     * {@code --add-modules jdk.incubator.vector}, and one by one otherwise
+     */
+    @Test
+    void closestTriangle() {
+        Triangle[] triangles = new Triangle[32];
+        for (int i = 0; i < triangles.length; i++) {
+            double x = 10 + i;
+            triangles[i] = new Triangle(new Point(x, -40 + i, -40), new Point(x + 0.5, 40, -30 + i),
+                    new Point(x, -30, 40 - i));
+        }
+        Geometries geometries = new Geometries(triangles), compiled = new Geometries(triangles).compile();
+        Ray[] rays = new Ray[1024];
+        for (int i = 0; i < rays.length; i++)
+            rays[i] = new Ray(Point.ZERO, new Vector(20, (i % 32) - 16, (i / 32) - 16));
+        System.out.println("closest triangle: " + OPERATIONS + " rays, " + triangles.length + " triangles, vector API "
+                + (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() ? "on" : "off"));
+        double triangle = measure("triangles", () -> closestDistances(geometries, rays));
+        double packed = measure("compiled", () -> closestDistances(compiled, rays));
+        assertEquals(triangle, packed, 1e-9, "The closest points must be the same");
+    }
+
+    /**
+     * Sums the distances of the closest intersection points of rays with geometries
+     *
+     * @param geometries the geometries
+     * @param rays       the rays, which are cast again and again
+     * @return the sum of the distances
+     */
+    private static double closestDistances(Geometries geometries, Ray[] rays) {
+        double sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            var intersection = geometries.findClosestGeoIntersection(rays[i & 1023]);
+            if (intersection != null)
+                sum += intersection.t;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,66 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the Sampler class
+ */
+class SamplerTest {
+
+    /**
+     * Test method for the sequences of {@link Sampler}.
+     */
+    @Test
+    void testSequences() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Known values of the radical inverse
+        assertEquals(0.75, Sampler.radicalInverse(2, 3), 1e-15, "Wrong radical inverse in base 2");
+        assertEquals(2 / 3d + 1 / 9d, Sampler.radicalInverse(3, 5), 1e-15, "Wrong radical inverse in base 3");
+        assertEquals(0.75, Sampler.vanDerCorput(3), 1e-15, "Wrong van der Corput number");
+        // TC02: Known values of the second dimension of the Sobol sequence
+        assertEquals(0.5, Sampler.sobol(1), 1e-15, "Wrong Sobol number");
+        assertEquals(0.75, Sampler.sobol(2), 1e-15, "Wrong Sobol number");
+        assertEquals(0.25, Sampler.sobol(3), 1e-15, "Wrong Sobol number");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The first index
+        assertEquals(0, Sampler.radicalInverse(2, 0), "The radical inverse of 0 must be 0");
+        assertEquals(0, Sampler.sobol(0), "The Sobol number of 0 must be 0");
+    }
+
+    /**
+     * Test method for {@link Sampler#fill(Sampler.Sequence, int, long, double[])}.
+     */
+    @Test
+    void testFill() {
+        for (Sampler.Sequence sequence : Sampler.Sequence.values()) {
+            double[] first = new double[2 * 64];
+            double[] second = new double[2 * 64];
+            double[] other = new double[2 * 64];
+            Sampler.fill(sequence, 64, 17, first);
+            Sampler.fill(sequence, 64, 17, second);
+            Sampler.fill(sequence, 64, 18, other);
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: All the points are in the unit square
+            for (double coordinate : first)
+                assertTrue(coordinate >= 0 && coordinate < 1, "A point out of the unit square in " + sequence);
+            // TC02: The same seed gives the same points, and another seed rotates them
+            assertArrayEquals(first, second, sequence + " must be reproducible");
+            assertNotEquals(first[0], other[0], "Different seeds must rotate " + sequence + " differently");
+            // TC03: Every quarter of the square gets a quarter of the points
+            int[] quarters = new int[4];
+            for (int i = 0; i < 64; i++)
+                quarters[(first[2 * i] < 0.5 ? 0 : 1) + (first[2 * i + 1] < 0.5 ? 0 : 2)]++;
+            for (int quarter : quarters)
+                assertTrue(quarter >= 13 && quarter <= 19, sequence + " is not evenly spread: " + quarter);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A buffer which is too small
+        assertThrows(IllegalArgumentException.class, () -> Sampler.fill(Sampler.Sequence.R2, 4, 0, new double[7]),
+                "A small buffer must be rejected");
+    }
+}
@@ -0,0 +1,82 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the VectorMath class
+ */
+class VectorMathTest {
+    /** A vector for the tests */
+    private final Vector vector = new Vector(1, 2, 3);
+
+    /**
+     * Test method for {@link VectorMath#dot(double, double, double, double, double, double)}.
+     */
+    @Test
+    void testDot() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The dot product of two vectors is the same as the dot product of the immutable vectors
+        assertEquals(vector.dotProduct(new Vector(-2, -4, -6)), VectorMath.dot(1, 2, 3, -2, -4, -6),
+                "Wrong dot product");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Orthogonal vectors
+        assertEquals(0, VectorMath.dot(1, 2, 3, 0, 3, -2), "The dot product of orthogonal vectors must be zero");
+    }
+
+    /**
+     * Test method for {@link VectorMath#dotDifference(Vector, Point, Point)}.
+     */
+    @Test
+    void testDotDifference() {
+        Point head = new Point(2, 3, 5), tail = new Point(1, 1, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The same as the dot product of the vector between the points
+        assertEquals(vector.dotProduct(head.subtract(tail)), VectorMath.dotDifference(vector, head, tail),
+                "Wrong dot product with the vector between the points");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The same point, which has no vector between it and itself
+        assertEquals(0, VectorMath.dotDifference(vector, head, head),
+                "The dot product with the difference of a point and itself must be zero");
+    }
+
+    /**
+     * Test method for {@link VectorMath#along(Point, Vector, double)}.
+     */
+    @Test
+    void testAlong() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A point at a positive distance, the same as adding the scaled vector
+        assertEquals(Point.ZERO.add(vector.scale(2)), VectorMath.along(Point.ZERO, vector, 2), "Wrong point");
+        // TC02: A point at a negative distance
+        assertEquals(new Point(0, -1, -2), VectorMath.along(new Point(1, 1, 1), vector, -1), "Wrong point");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A distance of zero
+        assertEquals(new Point(1, 1, 1), VectorMath.along(new Point(1, 1, 1), vector, 0),
+                "A distance of zero must give the starting point");
+    }
+
+    /**
+     * Test method for {@link VectorMath#reflect(Vector, Vector, double)}.
+     */
+    @Test
+    void testReflect() {
+        Vector normal = new Vector(0, 0, 1);
+        Vector v = new Vector(1, 0, -1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A vector towards the surface is reflected away from it
+        assertEquals(new Vector(1, 0, 1), VectorMath.reflect(v, normal, v.dotProduct(normal)),
+                "Wrong reflected vector");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A vector along the surface isn't changed
+        Vector along = new Vector(1, 0, 0);
+        assertEquals(along, VectorMath.reflect(along, normal, 0), "A vector along the surface must not change");
+    }
+}
@@ -1,12 +1,16 @@
 package renderer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
 import primitives.*;
 import renderer.*;
 import scene.Scene;
+
+import java.util.concurrent.atomic.AtomicInteger;
 //import scene.Scene;
 
 /**
@@ -64,4 +68,115 @@ class CameraTest {
 
     }
 
+    /**
+     * Test method for the adaptive supersampling of {@link renderer.Camera#renderImage()}.
+     */
+    @Test
+    void testAdaptiveSuperSampling() {
+        // a ray tracer which counts its rays and sees a uniform scene
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase counting = new RayTracerBase(new Scene("Test")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return Color.BLACK;
+            }
+        };
+        Camera.Builder builder = cameraBuilder.setVpSize(8, 8).setRayTracer(counting)
+                .setAntiAliasing(true).adaptiveSuperSampling(true).rootNumberOfRays(5);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The corners of a uniform image are shared by the pixels, each one is traced once
+        builder.setImageWriter(new ImageWriter("Test", 4, 4)).build().setTileSize(16).renderImage();
+        assertEquals(25, rays.get(), "Every corner of the pixels must be traced exactly once");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The corners on the borders of the tiles are traced by each tile
+        rays.set(0);
+        builder.setImageWriter(new ImageWriter("Test", 4, 4)).build().setTileSize(2).renderImage();
+        assertEquals(36, rays.get(), "Every tile must trace the corners of its own pixels once");
+    }
+
+    /**
+     * Test method for the variance driven sampling of {@link renderer.Camera#renderImage()}.
+     */
+    @Test
+    void testAdaptiveSampling() {
+        // ray tracers which count their rays and see a uniform scene or a noisy scene
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase uniform = new RayTracerBase(new Scene("Test")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return new Color(100, 50, 20);
+            }
+        };
+        RayTracerBase noisy = new RayTracerBase(new Scene("Test")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                return rays.incrementAndGet() % 2 == 0 ? Color.BLACK : new Color(200, 200, 200);
+            }
+        };
+        Camera.Builder builder = cameraBuilder.setVpSize(8, 8).setAdaptiveSampling(4, 32, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A uniform pixel converges after the minimal amount of samples
+        builder.setRayTracer(uniform).setImageWriter(new ImageWriter("Test", 3, 3)).build().renderImage();
+        assertEquals(9 * 4, rays.get(), "A uniform pixel must take the minimal amount of samples");
+        // TC02: A noisy pixel takes the maximal amount of samples
+        rays.set(0);
+        builder.setRayTracer(noisy).setImageWriter(new ImageWriter("Test", 3, 3)).build().renderImage();
+        assertEquals(9 * 32, rays.get(), "A noisy pixel must take the maximal amount of samples");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Illegal amounts of samples and errors
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setAdaptiveSampling(1, 32, 1),
+                "A single sample can't estimate the variance");
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setAdaptiveSampling(8, 4, 1),
+                "The maximal amount of samples must not be lower than the minimal amount");
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setAdaptiveSampling(4, 32, -1),
+                "The error must not be negative");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderProgressive(int, long, int)}.
+     */
+    @Test
+    void testRenderProgressive() {
+        // a ray tracer which counts its rays and sees a uniform scene
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase counting = new RayTracerBase(new Scene("Test")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return new Color(100, 50, 20);
+            }
+        };
+        // an image writer which counts the writes of the intermediate images instead of writing files
+        AtomicInteger flushes = new AtomicInteger();
+        ImageWriter imageWriter = new ImageWriter("Test", 3, 3) {
+            @Override
+            public void writeToImage() {
+                flushes.incrementAndGet();
+            }
+        };
+        Camera camera = cameraBuilder.setVpSize(8, 8).setRayTracer(counting).setImageWriter(imageWriter).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The rendering stops at the target amount of samples, and flushes every interval
+        camera.renderProgressive(6, 0, 2);
+        assertEquals(9 * 6, rays.get(), "Every pass must trace a single sample of every pixel");
+        assertEquals(3, flushes.get(), "The image must be flushed every two passes");
+        // TC02: The rendering stops when the time budget is over, after whole passes
+        rays.set(0);
+        camera.setMultithreading(2).renderProgressive(0, 1, 0);
+        assertTrue(rays.get() >= 9 && rays.get() % 9 == 0, "All the pixels must have the same amount of samples");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A rendering with neither a target nor a budget, or with negative values
+        assertThrows(IllegalArgumentException.class, () -> camera.renderProgressive(0, 0, 0),
+                "A progressive rendering must stop at a target or a budget");
+        assertThrows(IllegalArgumentException.class, () -> camera.renderProgressive(4, 0, -1),
+                "The flush interval must not be negative");
+    }
 }
@@ -0,0 +1,66 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Sampler;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the Grid class
+ */
+class GridTest {
+
+    /**
+     * Test method for {@link Grid#sample(double[], long)}.
+     */
+    @Test
+    void testSample() {
+        Grid grid = new Grid(4, 8, 4).setSequence(Sampler.Sequence.SOBOL);
+        double[] offsets = new double[2 * grid.size()];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every sample is inside its own cell, row after row from the top
+        assertEquals(16, grid.sample(offsets, 5), "Wrong amount of samples");
+        for (int i = 0; i < 4; i++)
+            for (int j = 0; j < 4; j++) {
+                double right = offsets[2 * (i * 4 + j)], up = offsets[2 * (i * 4 + j) + 1];
+                assertTrue(right >= -4 + 2 * j && right <= -4 + 2 * (j + 1), "A sample out of its column");
+                assertTrue(up <= 2 - i && up >= 2 - (i + 1), "A sample out of its row");
+            }
+        // TC02: The same seed gives the same samples
+        double[] again = new double[2 * grid.size()];
+        grid.sample(again, 5);
+        assertArrayEquals(offsets, again, "The samples must be reproducible");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A single cell is sampled at its center
+        double[] single = new double[2];
+        assertEquals(1, new Grid(1, 8, 4).sample(single, 5), "A single cell has a single sample");
+        assertArrayEquals(new double[]{0, 0}, single, "A single cell is sampled at its center");
+        // TC12: A buffer which is too small
+        assertThrows(IllegalArgumentException.class, () -> grid.sample(new double[31], 5),
+                "A small buffer must be rejected");
+    }
+
+    /**
+     * Test method for {@link Grid#rayBeam(Point, Vector, Vector)}.
+     */
+    @Test
+    void testRayBeam() {
+        Grid grid = new Grid(3, 6, 6);
+        Vector vUp = new Vector(0, 1, 0), vRight = new Vector(1, 0, 0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A beam has a point in every cell around the center
+        var beam = grid.rayBeam(new Point(1, 2, 3), vUp, vRight);
+        assertEquals(9, beam.size(), "Wrong amount of points");
+        for (Point point : beam) {
+            assertTrue(Math.abs(point.getX() - 1) <= 3 && Math.abs(point.getY() - 2) <= 3, "A point out of the grid");
+            assertEquals(3, point.getZ(), 1e-10, "A point out of the plane of the grid");
+        }
+        // TC02: The beam around the same point is the same every time
+        assertEquals(beam, grid.rayBeam(new Point(1, 2, 3), vUp, vRight), "The beam must be reproducible");
+    }
+}
@@ -0,0 +1,162 @@
+package renderer;
+
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the RenderJob class
+ */
+class RenderJobTest {
+    /** The scene which all the cameras share */
+    private final Scene scene = new Scene("Render job test");
+    /** Camera builder for the tests */
+    private final Camera.Builder cameraBuilder = Camera.getBuilder()
+            .setRayTracer(new SimpleRayTracer(scene))
+            .setDirection(Point.ZERO, new Vector(0, 1, 0))
+            .setVpSize(100, 100)
+            .setVpDistance(100);
+
+    /**
+     * Creates a camera with its own image writer.
+     *
+     * @param location The location of the camera.
+     * @param threads  The amount of threads of the camera.
+     * @return The camera.
+     */
+    private Camera camera(Point location, int threads) {
+        return cameraBuilder.setCameraLocation(location)
+                .setImageWriter(new ImageWriter("render job", 40, 40))
+                .build()
+                .setMultithreading(threads)
+                .setTileSize(8);
+    }
+
+    /**
+     * Test method for {@link RenderJob#run()}.
+     */
+    @Test
+    void testRun() throws InterruptedException {
+        scene.geometries.add(new Sphere(30d, Point.ZERO).setEmission(new Color(100, 50, 20)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Jobs of two cameras on a shared scene run at the same time and both finish
+        RenderJob first = camera(new Point(0, 0, 300), 2).createRenderJob();
+        RenderJob second = camera(new Point(300, 0, 0), -1).createRenderJob();
+        Thread firstThread = new Thread(first);
+        Thread secondThread = new Thread(second);
+        firstThread.start();
+        secondThread.start();
+        firstThread.join();
+        secondThread.join();
+        assertTrue(first.isDone() && second.isDone(), "Both jobs must finish");
+        assertEquals(1, first.getProgress(), "The first job must render all the pixels");
+        assertEquals(1, second.getProgress(), "The second job must render all the pixels");
+
+        // TC02: A cancelled job renders no tile
+        RenderJob cancelled = camera(new Point(0, 0, 300), 0).createRenderJob();
+        cancelled.cancel();
+        cancelled.run();
+        assertTrue(cancelled.isCancelled(), "The job must be cancelled");
+        assertTrue(cancelled.isDone(), "A cancelled job must finish");
+        assertEquals(0, cancelled.getProgress(), "A job cancelled before it started must render nothing");
+
+        // TC03: A job whose running thread is interrupted is done only after its threads finished their tiles
+        RayTracerBase slow = new RayTracerBase(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Color.BLACK;
+            }
+        };
+        RenderJob interrupted = cameraBuilder.setCameraLocation(new Point(0, 0, 300)).setRayTracer(slow)
+                .setImageWriter(new ImageWriter("render job", 40, 40)).build()
+                .setMultithreading(2)
+                .setTileSize(8)
+                .createRenderJob();
+        boolean[] interruptStatus = new boolean[1];
+        Thread runner = new Thread(() -> {
+            interrupted.run();
+            interruptStatus[0] = Thread.currentThread().isInterrupted();
+        });
+        runner.start();
+        Thread.sleep(20);
+        runner.interrupt();
+        runner.join();
+        assertTrue(interrupted.isCancelled() && interrupted.isDone(), "An interrupted job must be cancelled and done");
+        assertTrue(interruptStatus[0], "The interrupt status of the running thread must be kept");
+        double progress = interrupted.getProgress();
+        Thread.sleep(150);
+        assertEquals(progress, interrupted.getProgress(), "No tile may be rendered after the job is done");
+        cameraBuilder.setRayTracer(new SimpleRayTracer(scene));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A job is run only once
+        assertThrows(IllegalStateException.class, first::run, "A job must not be run twice");
+        // TC12: A new job of the same camera starts from the beginning
+        RenderJob again = first.getCamera().createRenderJob();
+        again.run();
+        assertEquals(1, again.getProgress(), "A new job must render all the pixels again");
+        assertTrue(again.isComplete() && !again.isTimedOut(), "A job which rendered all the pixels is complete");
+    }
+
+    /**
+     * Test method for {@link RenderJob#setTimeLimit(long)}.
+     */
+    @Test
+    void testSetTimeLimit() {
+        // a ray tracer which takes a millisecond for every ray, and an image writer which counts its writes
+        RayTracerBase slow = new RayTracerBase(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Color.BLACK;
+            }
+        };
+        AtomicInteger writes = new AtomicInteger();
+        ImageWriter imageWriter = new ImageWriter("render job", 40, 40) {
+            @Override
+            public void writeToImage() {
+                writes.incrementAndGet();
+            }
+        };
+        RenderJob job = cameraBuilder.setCameraLocation(new Point(0, 0, 300)).setRayTracer(slow)
+                .setImageWriter(imageWriter).build()
+                .setTileSize(8)
+                .createRenderJob()
+                .setTimeLimit(20);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The job stops at the first tile boundary after its time limit, and the partial image is written
+        job.run();
+        assertTrue(job.isTimedOut() && job.isCancelled() && job.isDone(), "The job must be stopped by its time limit");
+        assertFalse(job.isComplete(), "A job which was stopped must not be complete");
+        assertEquals(64d / 1600, job.getProgress(), "The job must finish the tile which was started in time");
+        job.writeToImage();
+        assertEquals(1, writes.get(), "The partial image must be written");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A negative time limit, and a time limit of a job which was already run
+        RenderJob other = cameraBuilder.build().createRenderJob();
+        assertThrows(IllegalArgumentException.class, () -> other.setTimeLimit(-1),
+                "A negative time limit must be rejected");
+        assertThrows(IllegalStateException.class, () -> job.setTimeLimit(100),
+                "The time limit of a job which was run must not be changed");
+    }
+}
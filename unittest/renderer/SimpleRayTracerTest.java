@@ -0,0 +1,116 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Plane;
+import geometries.Polygon;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the SimpleRayTracer class
+ */
+class SimpleRayTracerTest {
+
+    /**
+     * Geometries which count the shadow rays cast at them.
+     */
+    private static class CountingGeometries extends Geometries {
+        /** The amount of shadow rays */
+        final AtomicInteger shadowRays = new AtomicInteger();
+
+        @Override
+        protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr) {
+            shadowRays.incrementAndGet();
+            return super.findTransparencyHelper(ray, maxDistance, ktr);
+        }
+    }
+
+    /**
+     * Creates a tracer of a floor lit by an area light from above, with a half transparent board between them,
+     * which covers the half of the space whose x coordinates are negative.
+     *
+     * @param geometries The geometries of the scene, to be filled.
+     * @param root       The root of the amount of the samples of the light.
+     * @param adaptive   Whether the samples of the light are taken adaptively.
+     * @return The tracer.
+     */
+    private static SimpleRayTracer tracer(Geometries geometries, int root, boolean adaptive) {
+        geometries.add(
+                new Plane(Point.ZERO, new Vector(0, 0, 1))
+                        .setMaterial(new Material().setkD(0.5)),
+                new Polygon(new Point(-1000, -1000, 50), new Point(0, -1000, 50),
+                        new Point(0, 1000, 50), new Point(-1000, 1000, 50))
+                        .setMaterial(new Material().setKt(0.5)));
+        Scene scene = new Scene("Soft shadow scene").setGeometries(geometries);
+        scene.lights.add(new PointLight(new Color(100, 100, 100), new Point(0, 0, 100))
+                .setSoftShadow(true).setRootNumberOfRays(root, 10).setAdaptiveSoftShadow(adaptive));
+        return new SimpleRayTracer(scene);
+    }
+
+    /**
+     * Casts a ray down at the floor.
+     *
+     * @param x The x coordinate of the point of the floor.
+     * @return The ray.
+     */
+    private static Ray down(double x) {
+        return new Ray(new Point(x, 0, 20), new Vector(0, 0, -1));
+    }
+
+    /**
+     * Test method for the adaptive soft shadow of {@link SimpleRayTracer#traceRay(Ray)}.
+     */
+    @Test
+    void testAdaptiveSoftShadow() throws InterruptedException {
+        CountingGeometries full = new CountingGeometries(), adaptive = new CountingGeometries();
+        SimpleRayTracer fullTracer = tracer(full, 8, false), adaptiveTracer = tracer(adaptive, 8, true);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: In the shadow of the board all the light is seen through it - the adaptive sampling traces only the
+        // corners of the grid and finds the same color as the full grid
+        Color shadow = fullTracer.traceRay(down(-60));
+        assertEquals(1 + 64, full.shadowRays.getAndSet(0), "The full grid must trace all the samples");
+        assertEquals(shadow, adaptiveTracer.traceRay(down(-60)), "Wrong color of a uniform shadow");
+        assertEquals(1 + 4, adaptive.shadowRays.getAndSet(0), "A uniform shadow must trace only the corners");
+        // TC02: In the penumbra the adaptive sampling traces fewer samples than the full grid
+        fullTracer.traceRay(down(-1));
+        assertEquals(1 + 64, full.shadowRays.getAndSet(0), "The full grid must trace all the samples");
+        Color penumbra = adaptiveTracer.traceRay(down(-1));
+        int traced = adaptive.shadowRays.getAndSet(0);
+        assertTrue(traced > 1 + 4 && traced < 1 + 64, "The penumbra must be refined, but not at every sample");
+        // TC03: Threads tracing the penumbra at once find the same color, since every thread has its own samples
+        Thread[] threads = new Thread[4];
+        AtomicInteger wrong = new AtomicInteger();
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int k = 0; k < 200; k++) {
+                    if (!penumbra.equals(adaptiveTracer.traceRay(down(-1))))
+                        wrong.incrementAndGet();
+                    adaptiveTracer.traceRay(down(-60));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, wrong.get(), "Wrong color of the penumbra in concurrent threads");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A grid of an odd side is split into uneven parts, and still finds the color of the full grid in the
+        // shadow, and traces every sample at most once in the penumbra
+        CountingGeometries oddFull = new CountingGeometries(), oddAdaptive = new CountingGeometries();
+        SimpleRayTracer oddFullTracer = tracer(oddFull, 5, false), oddAdaptiveTracer = tracer(oddAdaptive, 5, true);
+        assertEquals(oddFullTracer.traceRay(down(-60)), oddAdaptiveTracer.traceRay(down(-60)),
+                "Wrong color of a uniform shadow with an odd grid");
+        assertEquals(1 + 4, oddAdaptive.shadowRays.getAndSet(0), "A uniform shadow must trace only the corners");
+        oddAdaptiveTracer.traceRay(down(-1));
+        traced = oddAdaptive.shadowRays.get();
+        assertTrue(traced > 1 + 4 && traced <= 1 + 25, "Every sample must be traced at most once");
+    }
+}
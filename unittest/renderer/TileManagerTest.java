@@ -0,0 +1,55 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the TileManager class
+ */
+class TileManagerTest {
+
+    /**
+     * Counts how many tiles cover every pixel of an image.
+     *
+     * @param tiles The tile manager.
+     * @param nX    The amount of columns.
+     * @param nY    The amount of rows.
+     * @return The amount of tiles which cover every pixel.
+     */
+    private static int[][] cover(TileManager tiles, int nX, int nY) {
+        int[][] covered = new int[nY][nX];
+        TileManager.Tile tile;
+        while ((tile = tiles.nextTile()) != null) {
+            for (int i = tile.y0(); i < tile.y1(); i++)
+                for (int j = tile.x0(); j < tile.x1(); j++)
+                    covered[i][j]++;
+            tiles.tileDone(tile);
+        }
+        return covered;
+    }
+
+    /**
+     * Test method for {@link TileManager#nextTile()}.
+     */
+    @Test
+    void testNextTile() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The tiles don't divide the image, every pixel is covered by exactly one tile
+        TileManager tiles = new TileManager(37, 20, 8, 0);
+        assertEquals(15, tiles.getTileCount(), "Wrong amount of tiles");
+        for (int[] row : cover(tiles, 37, 20))
+            for (int count : row)
+                assertEquals(1, count, "A pixel must be rendered exactly once");
+        assertNull(tiles.nextTile(), "No tile is left after all the tiles were handed out");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A tile which is bigger than the image
+        tiles = new TileManager(5, 3, 16, 0);
+        assertEquals(new TileManager.Tile(0, 0, 5, 3), tiles.nextTile(), "The single tile must be the whole image");
+        assertNull(tiles.nextTile(), "There must be a single tile");
+        // TC12: A tile size which is not positive
+        assertThrows(IllegalArgumentException.class, () -> new TileManager(5, 3, 0, 0),
+                "A tile size of zero must be rejected");
+    }
+}
@@ -0,0 +1,102 @@
+package scene;
+
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ObjLoader class
+ */
+class ObjLoaderTest {
+
+    /**
+     * Loads a mesh from the text of an OBJ file.
+     *
+     * @param text The text of the file.
+     * @return The mesh.
+     */
+    private static TriangleMesh load(String text) {
+        return ObjLoader.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Test method for {@link ObjLoader#load(java.io.InputStream)}.
+     */
+    @Test
+    void testLoad() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A quad with normals, texture coordinates and comments is split into two triangles
+        TriangleMesh quad = load("""
+                # a unit square on the plane z=0
+                o square
+                v 0 0 0
+                v 2.0 0 0
+                v 2 2e0 0
+                v 0.0 +2 -0
+                vt 0 0
+                vn 0 0 1
+                f 1/1/1 2/1/1 3/1/1 4/1/1
+                """);
+        assertEquals(2, quad.size(), "Wrong amount of triangles");
+        assertEquals(List.of(new Point(0.5, 1.5, 0)), quad.findIntersections(new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1))),
+                "Wrong intersection of the loaded mesh");
+        var gp = quad.findClosestGeoIntersection(new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1)));
+        assertEquals(new Vector(0, 0, 1), quad.getNormal(gp), "Wrong normal of the loaded mesh");
+
+        // TC02: Negative indices and windows line endings
+        TriangleMesh triangle = load("v 0 0 0\r\nv 1 0 0\r\nv 0 1 0\r\nf -3 -2 -1\r\n");
+        assertEquals(1, triangle.size(), "Wrong amount of triangles with negative indices");
+
+        // TC03: Malformed numbers and indices
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 x 0\n"), "Loaded a malformed number");
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n"),
+                "Loaded a face of an undefined vertex");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A face with two vertices
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0 0\nv 1 0 0\nf 1 2\n"), "Loaded a face of two vertices");
+        // TC12: A file without faces
+        assertThrows(IllegalArgumentException.class, () -> load("v 0 0 0\n"), "Loaded a file without faces");
+        // TC13: The last line without a line ending and a number which is not parsed exactly from its digits
+        TriangleMesh last = load("v 0 0 0\nv 1.00000000000000000001 0 0\nv 0 1e-30 0\nf 1 2 3");
+        assertEquals(1, last.size(), "Wrong amount of triangles without the last line ending");
+        // TC14: A number which fills the buffer of the digits before its exponent
+        assertThrows(IllegalArgumentException.class, () -> load("v 1" + "0".repeat(63) + "e1 0 0\n"),
+                "Loaded a too long number with an exponent");
+        assertThrows(IllegalArgumentException.class, () -> load("v 1" + "0".repeat(62) + "e-1 0 0\n"),
+                "Loaded a too long number with a signed exponent");
+        // TC15: A number which is too large to be finite
+        assertThrows(IllegalArgumentException.class, () -> load("v 1e400 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n"),
+                "Loaded an infinite coordinate");
+    }
+
+    /**
+     * Test method for {@link ObjLoader#load(java.io.InputStream, boolean)}.
+     */
+    @Test
+    void testLoadSinglePrecision() {
+        String text = "v 0 0 0\nv 2 0 0\nv 2 2 0\nv 0 2 0\nvn 0 0 1\nf 1//1 2//1 3//1 4//1\n";
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A quad with normals is stored in single precision and finds the same points and normals
+        TriangleMesh quad = ObjLoader.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), true);
+        assertTrue(quad.isSinglePrecision(), "The mesh must be stored in single precision");
+        assertEquals(2, quad.size(), "Wrong amount of triangles");
+        var gp = quad.findClosestGeoIntersection(new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1)));
+        assertEquals(new Point(0.5, 1.5, 0), gp.point, "Wrong intersection of the loaded mesh");
+        assertEquals(new Vector(0, 0, 1), quad.getNormal(gp), "Wrong normal of the loaded mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The ray crosses the shared edge of the triangles
+        assertNotNull(quad.findClosestGeoIntersection(new Ray(new Point(1, 1, 1), new Vector(0, 0, -1))),
+                "A ray through the shared edge must hit a mesh in single precision");
+    }
+}